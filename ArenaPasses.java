@@ -0,0 +1,206 @@
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+// compiles a program held in an AstArena: the signatures of all functions
+// are scope analyzed first, then each function goes through all of its
+// passes in one task, from materializing its body to its assembly, after
+// which the body, its scopes and its IR are dropped; the diagnostics and
+// the assembly are those of FunctionPasses, in the same order
+class ArenaPasses {
+  AstArena _arena;
+  List<FunctionContext> _contexts;
+  ErrorPrinter[] _scopeErrors;		// per function, before all semantic ones
+  ErrorPrinter _intrinsicErrors;
+  Throwable[] _late;			// failures after semantic analysis
+  boolean[] _fresh;			// generated, not from the cache
+  String[] _ir;				// with ir only
+  SymbolTable _symTab;
+  TypeTable _types;
+  ErrorPrinter _errors;
+  PhaseTimer _timer;
+  FunctionCache _cache;
+  boolean _fused;			// through a FusedGenerator
+  List<FunDef> _imports;		// see InterfaceFile
+  boolean _ssa;				// through SSAForm before SBGenerator
+
+  ArenaPasses(AstArena arena, ErrorPrinter errors, PhaseTimer timer,
+              FunctionCache cache, boolean fused) {
+    int n = arena._functionCount;
+    _arena = arena;
+    _contexts = new ArrayList<FunctionContext>(n);
+    _scopeErrors = new ErrorPrinter[n];
+    _intrinsicErrors = null;
+    _late = new Throwable[n];
+    _fresh = new boolean[n];
+    _ir = null;
+    _symTab = null;
+    _types = new TypeTable(Intrinsics.TYPES);
+    _errors = errors;
+    _timer = timer;
+    _cache = cache;
+    _fused = fused;
+    _imports = new ArrayList<FunDef>();
+    _ssa = false;
+  }
+
+  void signatures() {
+    PhaseMark mark = _timer.begin("scope");
+    ScopeAnalyzer analyzer = new ScopeAnalyzer(_errors);
+    _symTab = analyzer._symTab;
+    for (int f=0; f<_arena._functionCount; f++) {
+      FunDef fun = _arena.signature(f);
+      _scopeErrors[f] = _errors.buffered();
+      analyzer._errors = _scopeErrors[f];
+      analyzer.signature(fun);
+      _types.signature(fun);
+      _contexts.add(new FunctionContext(fun, _symTab, _errors));
+    }
+    for (FunDef fun : _imports)
+      _types.signature(fun);
+    _intrinsicErrors = _errors.buffered();
+    InterfaceFile.defImports(_symTab, _imports, _intrinsicErrors);
+    Intrinsics.defIntrinsics(_symTab, _intrinsicErrors);
+    _timer.end(mark);
+  }
+
+  // a failure in analysis surfaces after the diagnostics of the functions
+  // before it, any later one only once there are no diagnostics at all
+  void compile(final boolean withIR) {
+    if (withIR)
+      _ir = new String[_contexts.size()];
+    PhaseMark mark = _timer.beginParallel("functions");
+    List<RecursiveAction> tasks =
+      new ArrayList<RecursiveAction>(_contexts.size());
+    for (int f=0; f<_contexts.size(); f++) {
+      final int i = f;
+      tasks.add(new RecursiveAction() {
+        protected void compute() {
+          FunctionContext c = _contexts.get(i);
+          PhaseMark task = _timer.beginTask("functions", c._fun._name._id);
+          try {
+            compile(i, c);
+          } catch (RuntimeException | AssertionError | StackOverflowError e) {
+            if (null == c._failure)
+              c._failure = e;
+          }
+          release(c._fun);
+          _timer.end(task);
+        }
+      });
+    }
+    ForkJoinTask.invokeAll(tasks);
+    _timer.end(mark);
+    _timer.ratio("relations", _types._hits.sum(), _types._lookups.sum());
+    for (ErrorPrinter buffer : _scopeErrors)
+      _errors.replay(buffer);
+    _errors.replay(_intrinsicErrors);
+    for (FunctionContext c : _contexts) {
+      _errors.replay(c._errors);
+      c._errors._pending.clear();
+      if (null != c._failure) {
+        if (c._failure instanceof RuntimeException)
+          throw (RuntimeException)c._failure;
+        throw (Error)c._failure;
+      }
+    }
+  }
+
+  private void compile(int i, FunctionContext c) {
+    FunDef fun = c._fun;
+    fun._body = _arena.body(i);
+    if (_fused) {
+      fun.accept(new FusedGenerator(c._symTab, _types, _scopeErrors[i],
+                                    c._errors));
+    } else {
+      new ScopeAnalyzer(c._symTab, _scopeErrors[i]).body(fun);
+      fun.accept(new SemanticAnalyzer(c._symTab, _types, c._errors));
+    }
+    if (0 < _scopeErrors[i]._count || 0 < c._errors._count)
+      return;
+    try {
+      if (null != _cache && null == _ir) {
+        c._key = _cache.key(fun);
+        c._cached = _cache.get(c._key);
+        if (null != c._cached)
+          return;
+      }
+      if (!_fused)
+        fun.accept(new IRGenerator(c._symTab));
+      fun._sym._cfg = new ControlFlowGraph(fun._sym);
+      if (_ssa)
+        SSAForm.construct(fun._sym);
+      if (null != _ir) {
+        StringWriter ir = new StringWriter();
+        PrintWriter w = new PrintWriter(ir);
+        fun.accept(new IRPrinter(w, new SymbolTable(_symTab._topLevel)));
+        w.flush();
+        _ir[i] = ir.toString();
+      }
+      if (_ssa)
+        SSAForm.destruct(fun._sym);
+      fun.accept(new SBGenerator(c._symTab));
+      SBGenerator.labelStrings(fun, 0);
+      Emitter asm = new Emitter();
+      fun.accept(new SBPrinter(asm, c._symTab));
+      c._cached = new CachedFunction(0, fun._heldScope._rodatas.size(),
+                                     asm.toByteArray());
+      _fresh[i] = true;
+    } catch (RuntimeException | AssertionError | StackOverflowError e) {
+      _late[i] = e;
+    }
+  }
+
+  // what is left of a function is its signature
+  private static void release(FunDef fun) {
+    fun._body = null;
+    fun._stack = null;
+    fun._sym._instructions = null;
+    fun._sym._addresses = null;
+    fun._sym._temps = null;
+    fun._sym._labels = null;
+    fun._sym._cfg = null;
+    fun._heldScope.clear();
+  }
+
+  void print(Emitter out, PrintWriter ir) {
+    for (Throwable e : _late)
+      if (null != e) {
+        if (e instanceof RuntimeException)
+          throw (RuntimeException)e;
+        throw (Error)e;
+      }
+    if (null != ir) {
+      for (int i=0; i<_ir.length; i++) {
+        ir.print(_ir[i]);
+        if (i != _ir.length - 1)
+          ir.println();
+      }
+      ir.flush();
+    }
+    if (null != _cache) {
+      PhaseMark mark = _timer.begin("cache");
+      for (int i=0; i<_contexts.size(); i++)
+        if (_fresh[i] && null != _contexts.get(i)._key)
+          _cache.put(_contexts.get(i)._key, _contexts.get(i)._cached);
+      _cache.evict();
+      _timer.end(mark);
+    }
+    PhaseMark mark = _timer.begin("emit");
+    new SBPrinter(out, _symTab).p(".intel_syntax").pln();
+    int strings = 0;
+    for (int i=0, n=_contexts.size(); i<n; i++) {
+      FunctionContext c = _contexts.get(i);
+      out.append(c._cached.relabel(c._fun._name._id, strings));
+      strings += c._cached._strings;
+      c._cached = null;
+      if (i != n - 1)
+        out.println();
+    }
+    out.flush();
+    _timer.end(mark);
+  }
+}
@@ -0,0 +1,508 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// the syntax tree of a whole program in a few primitive arrays: a node is
+// an index into the columns below, with its kind, location and up to three
+// children or values, and a list is a count followed by its elements in
+// _list; signature() and body() turn one function back into ordinary
+// nodes for the Visitor passes, so that only the function at hand is made
+// of objects
+class AstArena {
+  static final byte ARRAY_TYPE = 0, RECORD_TYPE = 1, FIELD_TYPE = 2,
+    PRIMITIVE_TYPE = 3, FUN_TYPE = 4;
+  static final byte FUN_DEF = 5, VAR_DEF = 6, ASSIGN_STMT = 7,
+    BLOCK_STMT = 8, CALL_STMT = 9, FOR_STMT = 10, IF_STMT = 11,
+    RETURN_STMT = 12, WHILE_STMT = 13;
+  static final byte INFIX_EXPR = 14, PREFIX_EXPR = 15, CALL_EXPR = 16,
+    CAST_EXPR = 17, FIELD_EXPR = 18, SUBSCRIPT_EXPR = 19, PAREN_EXPR = 20;
+  static final byte FIELD_ID = 21, FUN_ID = 22, VAR_ID = 23;
+  static final byte ARRAY_LIT = 24, RECORD_LIT = 25, FIELD_LIT = 26,
+    BOOL_LIT = 27, INT_LIT = 28, NULL_LIT = 29, STRING_LIT = 30;
+  // operators and primitive types are stored as indices into these
+  static final String[] OPS = {
+    "||", "&&", "==", "!=", "<=", "<", ">=", ">", "+", "-", "*", "/", "%", "!"
+  };
+  static final String[] PRIMITIVES = {
+    PrimitiveType.BOOL, PrimitiveType.INT, PrimitiveType.STRING,
+    PrimitiveType.VOID
+  };
+
+  // per node: a NameTable key for identifiers, the value for literals,
+  // an index into _strings for strings, -1 for an absent child
+  byte[] _kind;
+  int[] _loc, _a, _b, _c;
+  int _size;
+  int[] _list;
+  int _listSize;
+  List<String> _strings;
+  int[] _functions;
+  int _functionCount;
+  LineTable _lines;
+  NameTable _names;
+
+  AstArena(LineTable lines, NameTable names, int sizeHint) {
+    int n = Math.max(16, sizeHint);
+    _kind = new byte[n];
+    _loc = new int[n];
+    _a = new int[n];
+    _b = new int[n];
+    _c = new int[n];
+    _size = 0;
+    _list = new int[Math.max(16, n / 4)];
+    _listSize = 0;
+    _strings = new ArrayList<String>();
+    _functions = new int[16];
+    _functionCount = 0;
+    _lines = lines;
+    _names = names;
+  }
+
+  int add(byte kind, int loc, int a, int b, int c) {
+    if (_size == _kind.length) {
+      int n = 2 * _size;
+      _kind = Arrays.copyOf(_kind, n);
+      _loc = Arrays.copyOf(_loc, n);
+      _a = Arrays.copyOf(_a, n);
+      _b = Arrays.copyOf(_b, n);
+      _c = Arrays.copyOf(_c, n);
+    }
+    _kind[_size] = kind;
+    _loc[_size] = loc;
+    _a[_size] = a;
+    _b[_size] = b;
+    _c[_size] = c;
+    return _size++;
+  }
+
+  int list(int[] elems) {
+    if (_listSize + 1 + elems.length > _list.length)
+      _list = Arrays.copyOf(_list, Math.max(2 * _list.length,
+                                            _listSize + 1 + elems.length));
+    int result = _listSize;
+    _list[_listSize++] = elems.length;
+    System.arraycopy(elems, 0, _list, _listSize, elems.length);
+    _listSize += elems.length;
+    return result;
+  }
+
+  int string(String token) {
+    _strings.add(token);
+    return _strings.size() - 1;
+  }
+
+  void addFunction(int fun) {
+    if (_functionCount == _functions.length)
+      _functions = Arrays.copyOf(_functions, 2 * _functionCount);
+    _functions[_functionCount++] = fun;
+  }
+
+  static int op(String op) {
+    for (int i=0; i<OPS.length; i++)
+      if (OPS[i].equals(op))
+        return i;
+    assert false : op;
+    return -1;
+  }
+
+  // ---------------- back to objects ----------------
+  // the name and type of function f, without its body
+  FunDef signature(int f) {
+    int i = _functions[f];
+    return new FunDef(_loc[i], (FunId)node(_a[i]), (FunType)node(_b[i]),
+                      (BlockStmt)null);
+  }
+
+  BlockStmt body(int f) {
+    return (BlockStmt)node(_c[_functions[f]]);
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T extends AstNode> List<T> list(int at) {
+    int n = _list[at];
+    List<T> result = new ArrayList<T>(n);
+    for (int k=1; k<=n; k++)
+      result.add((T)node(_list[at + k]));
+    return result;
+  }
+
+  // an infix chain is rebuilt bottom up from its left spine, without a
+  // level of recursion per operator
+  private Expr infix(int i) {
+    int n = 0;
+    for (int j=i; INFIX_EXPR == _kind[j]; j = _a[j])
+      n++;
+    int[] spine = new int[n];
+    n = 0;
+    for (int j=i; INFIX_EXPR == _kind[j]; j = _a[j])
+      spine[n++] = j;
+    Expr result = (Expr)node(_a[spine[n - 1]]);
+    for (int k=n - 1; 0 <= k; k--) {
+      int j = spine[k];
+      result = new InfixExpr(_loc[j], OPS[_c[j]], result, (Expr)node(_b[j]));
+    }
+    return result;
+  }
+
+  // and so is a run of prefix operators and parentheses
+  private Expr unary(int i) {
+    int n = 0, j;
+    for (j=i; PREFIX_EXPR == _kind[j] || PAREN_EXPR == _kind[j]; j = _a[j])
+      n++;
+    int[] run = new int[n];
+    n = 0;
+    for (j=i; PREFIX_EXPR == _kind[j] || PAREN_EXPR == _kind[j]; j = _a[j])
+      run[n++] = j;
+    Expr result = (Expr)node(j);
+    for (int k=n - 1; 0 <= k; k--) {
+      j = run[k];
+      if (PREFIX_EXPR == _kind[j])
+        result = new PrefixExpr(_loc[j], OPS[_c[j]], result);
+      else
+        result = new ParenExpr(_loc[j], result);
+    }
+    return result;
+  }
+
+  // blocks nest as deep as the program does, so statements are rebuilt top
+  // down: each block is made empty, stacked, and filled in once popped
+  private Stmt stmt(int root) {
+    List<Integer> todo = new ArrayList<Integer>();
+    List<BlockStmt> blocks = new ArrayList<BlockStmt>();
+    Stmt result = shell(root, todo, blocks);
+    while (!todo.isEmpty()) {
+      int at = _a[todo.remove(todo.size() - 1)];
+      BlockStmt block = blocks.remove(blocks.size() - 1);
+      for (int k=1; k<=_list[at]; k++)
+        block._stmts.add(shell(_list[at + k], todo, blocks));
+    }
+    return result;
+  }
+
+  // statement i, with its blocks still empty
+  private Stmt shell(int i, List<Integer> todo, List<BlockStmt> blocks) {
+    int loc = _loc[i], a = _a[i], b = _b[i], c = _c[i];
+    switch (_kind[i]) {
+    case BLOCK_STMT:
+      return block(i, todo, blocks);
+    case FOR_STMT:
+      return new ForStmt(loc, (VarId)node(a), (Expr)node(b),
+                         block(c, todo, blocks));
+    case IF_STMT:
+      if (-1 == c)
+        return new IfStmt(loc, (Expr)node(a), block(b, todo, blocks));
+      return new IfStmt(loc, (Expr)node(a), block(b, todo, blocks),
+                        block(c, todo, blocks));
+    case WHILE_STMT:
+      return new WhileStmt(loc, (Expr)node(a), block(b, todo, blocks));
+    default:
+      return (Stmt)node(i);
+    }
+  }
+
+  private BlockStmt block(int i, List<Integer> todo, List<BlockStmt> blocks) {
+    BlockStmt result =
+      new BlockStmt(_loc[i], new ArrayList<Stmt>(_list[_a[i]]));
+    todo.add(i);
+    blocks.add(result);
+    return result;
+  }
+
+  AstNode node(int i) {
+    int loc = _loc[i], a = _a[i], b = _b[i], c = _c[i];
+    switch (_kind[i]) {
+    case ARRAY_TYPE:
+      return new ArrayType(loc, (Type)node(a));
+    case RECORD_TYPE:
+      return new RecordType(loc, this.<FieldType>list(a));
+    case FIELD_TYPE:
+      return new FieldType(loc, (FieldId)node(a), (Type)node(b));
+    case PRIMITIVE_TYPE:
+      return new PrimitiveType(loc, PRIMITIVES[a]);
+    case FUN_TYPE:
+      return new FunType(loc, (RecordType)node(a), (Type)node(b));
+    case VAR_DEF:
+      return new VarDef(loc, (VarId)node(a), (Expr)node(b));
+    case ASSIGN_STMT:
+      return new AssignStmt(loc, (Expr)node(a), (Expr)node(b));
+    case BLOCK_STMT: case FOR_STMT: case IF_STMT: case WHILE_STMT:
+      return stmt(i);
+    case CALL_STMT:
+      return new CallStmt(loc, (Expr)node(a));
+    case RETURN_STMT:
+      if (-1 == a)
+        return new ReturnStmt(loc);
+      return new ReturnStmt(loc, (Expr)node(a));
+    case INFIX_EXPR:
+      return infix(i);
+    case PREFIX_EXPR: case PAREN_EXPR:
+      return unary(i);
+    case CALL_EXPR:
+      return new CallExpr(loc, (Expr)node(a), this.<Expr>list(b));
+    case CAST_EXPR:
+      return new CastExpr(loc, (Expr)node(a), (Type)node(b));
+    case FIELD_EXPR:
+      return new FieldExpr(loc, (Expr)node(a), (FieldId)node(b));
+    case SUBSCRIPT_EXPR:
+      return new SubscriptExpr(loc, (Expr)node(a), (Expr)node(b));
+    case FIELD_ID:
+      return new FieldId(loc, _names.text(a), a);
+    case FUN_ID:
+      return new FunId(loc, _names.text(a), a);
+    case VAR_ID:
+      return new VarId(loc, _names.text(a), a);
+    case ARRAY_LIT:
+      return new ArrayLit(loc, this.<Expr>list(a));
+    case RECORD_LIT:
+      return new RecordLit(loc, this.<FieldLit>list(a));
+    case FIELD_LIT:
+      return new FieldLit(loc, (FieldId)node(a), (Expr)node(b));
+    case BOOL_LIT:
+      return new BoolLit(loc, 0 != a ? "true" : "false");
+    case INT_LIT:
+      return new IntLit(loc, Integer.toString(a));
+    case NULL_LIT:
+      return new NullLit(loc);
+    case STRING_LIT:
+      return new StringLit(loc, _strings.get(a));
+    default:
+      assert false : "bad node kind " + _kind[i];
+      return null;
+    }
+  }
+}
+
+// packs a normalized tree into an AstArena; every visit returns the index
+// of the node it added
+class ArenaPacker extends Visitor {
+  final AstArena _arena;
+  ArenaPacker(AstArena arena) { _arena = arena; }
+
+  int pack(AstNode ast) {
+    return null == ast ? -1 : (Integer)ast.accept(this);
+  }
+  private int pack(List<? extends AstNode> asts) {
+    int[] elems = new int[asts.size()];
+    for (int i=0; i<elems.length; i++)
+      elems[i] = pack(asts.get(i));
+    return _arena.list(elems);
+  }
+  private Integer add(byte kind, AstNode ast, int a, int b, int c) {
+    return _arena.add(kind, ast._loc, a, b, c);
+  }
+
+  // ---------------- top-level ----------------
+  Object visit(FunDef ast) {
+    return add(AstArena.FUN_DEF, ast, pack(ast._name), pack(ast._type),
+               pack(ast._body));
+  }
+
+  // ---------------- types ----------------
+  Object visit(ArrayType ast) {
+    return add(AstArena.ARRAY_TYPE, ast, pack(ast._elem), -1, -1);
+  }
+  Object visit(RecordType ast) {
+    return add(AstArena.RECORD_TYPE, ast, pack(ast._fields), -1, -1);
+  }
+  Object visit(FieldType ast) {
+    return add(AstArena.FIELD_TYPE, ast, pack(ast._field), pack(ast._type),
+               -1);
+  }
+  Object visit(PrimitiveType ast) {
+    int i = 0;
+    while (AstArena.PRIMITIVES[i] != ast._name)
+      i++;
+    return add(AstArena.PRIMITIVE_TYPE, ast, i, -1, -1);
+  }
+  Object visit(FunType ast) {
+    return add(AstArena.FUN_TYPE, ast, pack(ast._formals),
+               pack(ast._returnType), -1);
+  }
+
+  // ---------------- statements ----------------
+  Object visit(VarDef ast) {
+    return add(AstArena.VAR_DEF, ast, pack(ast._var), pack(ast._rhs), -1);
+  }
+  Object visit(AssignStmt ast) {
+    return add(AstArena.ASSIGN_STMT, ast, pack(ast._lhs), pack(ast._rhs), -1);
+  }
+  Object visit(BlockStmt ast) {
+    return stmt(ast);
+  }
+  Object visit(CallStmt ast) {
+    return add(AstArena.CALL_STMT, ast, pack(ast._expr), -1, -1);
+  }
+  Object visit(ForStmt ast) {
+    return stmt(ast);
+  }
+  Object visit(IfStmt ast) {
+    return stmt(ast);
+  }
+  Object visit(ReturnStmt ast) {
+    return add(AstArena.RETURN_STMT, ast, pack(ast._expr), -1, -1);
+  }
+  Object visit(WhileStmt ast) {
+    return stmt(ast);
+  }
+
+  // blocks nest as deep as the program does, so they are packed from a
+  // stack of the open ones, each with what is packed of it so far: its
+  // statements for a block, the parts before its bodies and then its
+  // bodies otherwise; the order of the nodes is that of the recursion
+  private Integer stmt(Stmt ast) {
+    List<Stmt> open = new ArrayList<Stmt>();
+    List<List<Integer>> packed = new ArrayList<List<Integer>>();
+    open.add(ast);
+    packed.add(parts(ast));
+    while (true) {
+      int top = open.size() - 1;
+      Stmt child = next(open.get(top), packed.get(top));
+      if (null != child) {
+        open.add(child);
+        packed.add(parts(child));
+        continue;
+      }
+      int result = close(open.remove(top), packed.remove(top));
+      if (0 == top)
+        return result;
+      packed.get(top - 1).add(result);
+    }
+  }
+
+  private static boolean compound(Stmt ast) {
+    return ast instanceof BlockStmt || ast instanceof ForStmt
+      || ast instanceof IfStmt || ast instanceof WhileStmt;
+  }
+
+  private List<Integer> parts(Stmt ast) {
+    List<Integer> result = new ArrayList<Integer>();
+    if (ast instanceof ForStmt) {
+      result.add(pack(((ForStmt)ast)._var));
+      result.add(pack(((ForStmt)ast)._expr));
+    } else if (ast instanceof IfStmt) {
+      result.add(pack(((IfStmt)ast)._cond));
+    } else if (ast instanceof WhileStmt) {
+      result.add(pack(((WhileStmt)ast)._cond));
+    }
+    return result;
+  }
+
+  // the next block to open, after packing the simple statements before it
+  private Stmt next(Stmt ast, List<Integer> packed) {
+    if (ast instanceof BlockStmt) {
+      List<Stmt> stmts = ((BlockStmt)ast)._stmts;
+      for (int i=packed.size(); i<stmts.size(); i++) {
+        if (compound(stmts.get(i)))
+          return stmts.get(i);
+        packed.add(pack(stmts.get(i)));
+      }
+      return null;
+    }
+    if (ast instanceof ForStmt)
+      return 2 == packed.size() ? ((ForStmt)ast)._body : null;
+    if (ast instanceof WhileStmt)
+      return 1 == packed.size() ? ((WhileStmt)ast)._body : null;
+    IfStmt s = (IfStmt)ast;
+    if (1 == packed.size())
+      return s._thenBranch;
+    return 2 == packed.size() ? s._elseBranch : null;
+  }
+
+  private int close(Stmt ast, List<Integer> packed) {
+    if (ast instanceof BlockStmt) {
+      int[] elems = new int[packed.size()];
+      for (int i=0; i<elems.length; i++)
+        elems[i] = packed.get(i);
+      return add(AstArena.BLOCK_STMT, ast, _arena.list(elems), -1, -1);
+    }
+    if (ast instanceof ForStmt)
+      return add(AstArena.FOR_STMT, ast, packed.get(0), packed.get(1),
+                 packed.get(2));
+    if (ast instanceof WhileStmt)
+      return add(AstArena.WHILE_STMT, ast, packed.get(0), packed.get(1), -1);
+    return add(AstArena.IF_STMT, ast, packed.get(0), packed.get(1),
+               3 == packed.size() ? packed.get(2) : -1);
+  }
+
+  // ---------------- expressions ----------------
+  Object visit(InfixExpr ast) {
+    List<InfixExpr> spine = DepthFirstVisitor.leftSpine(ast);
+    int result = pack(spine.get(spine.size() - 1)._lhs);
+    for (int i=spine.size() - 1; 0 <= i; i--) {
+      InfixExpr e = spine.get(i);
+      result = add(AstArena.INFIX_EXPR, e, result, pack(e._rhs),
+                   AstArena.op(e._op));
+    }
+    return result;
+  }
+  Object visit(PrefixExpr ast) {
+    return unary(ast);
+  }
+  private Integer unary(Expr ast) {
+    List<Expr> run = DepthFirstVisitor.unaryRun(ast);
+    int result = pack(DepthFirstVisitor.unaryBase(run.get(run.size() - 1)));
+    for (int i=run.size() - 1; 0 <= i; i--) {
+      Expr e = run.get(i);
+      if (e instanceof PrefixExpr)
+        result = add(AstArena.PREFIX_EXPR, e, result, -1,
+                     AstArena.op(((PrefixExpr)e)._op));
+      else
+        result = add(AstArena.PAREN_EXPR, e, result, -1, -1);
+    }
+    return result;
+  }
+  Object visit(CallExpr ast) {
+    return add(AstArena.CALL_EXPR, ast, pack(ast._base), pack(ast._actuals),
+               -1);
+  }
+  Object visit(CastExpr ast) {
+    return add(AstArena.CAST_EXPR, ast, pack(ast._base),
+               pack(ast._targetType), -1);
+  }
+  Object visit(FieldExpr ast) {
+    return add(AstArena.FIELD_EXPR, ast, pack(ast._base), pack(ast._field),
+               -1);
+  }
+  Object visit(SubscriptExpr ast) {
+    return add(AstArena.SUBSCRIPT_EXPR, ast, pack(ast._base),
+               pack(ast._subscript), -1);
+  }
+  Object visit(ParenExpr ast) {
+    return unary(ast);
+  }
+
+  // ---------------- identifiers ----------------
+  Object visit(FieldId ast) {
+    return add(AstArena.FIELD_ID, ast, ast._key, -1, -1);
+  }
+  Object visit(FunId ast) {
+    return add(AstArena.FUN_ID, ast, ast._key, -1, -1);
+  }
+  Object visit(VarId ast) {
+    return add(AstArena.VAR_ID, ast, ast._key, -1, -1);
+  }
+
+  // ---------------- literals ----------------
+  Object visit(ArrayLit ast) {
+    return add(AstArena.ARRAY_LIT, ast, pack(ast._elems), -1, -1);
+  }
+  Object visit(RecordLit ast) {
+    return add(AstArena.RECORD_LIT, ast, pack(ast._fields), -1, -1);
+  }
+  Object visit(FieldLit ast) {
+    return add(AstArena.FIELD_LIT, ast, pack(ast._field), pack(ast._expr),
+               -1);
+  }
+  Object visit(BoolLit ast) {
+    return add(AstArena.BOOL_LIT, ast, ast._value ? 1 : 0, -1, -1);
+  }
+  Object visit(IntLit ast) {
+    return add(AstArena.INT_LIT, ast, ast._value, -1, -1);
+  }
+  Object visit(NullLit ast) {
+    return add(AstArena.NULL_LIT, ast, -1, -1, -1);
+  }
+  Object visit(StringLit ast) {
+    return add(AstArena.STRING_LIT, ast, _arena.string(ast._token), -1, -1);
+  }
+}
@@ -1,11 +1,10 @@
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.util.List;
-import xtc.tree.Location;
 
 abstract class AstNode {
-  Location _loc;
-  AstNode(Location loc) { _loc = loc; }
+  int _loc;			// char offset, see LineTable
+  AstNode(int loc) { _loc = loc; }
   abstract Object accept(Visitor visitor);
   public String toString() {
     StringWriter w = new StringWriter();
@@ -19,11 +18,14 @@ abstract class AstNode {
 class Program extends AstNode {
   FunDefListHead _raw;
   List<FunDef> _functions;
-  Program(Location loc, FunDefListHead raw) {
-    super(loc); _raw = raw; _functions = null;
+  LineTable _lines;
+  NameTable _names;
+  Program(int loc, FunDefListHead raw) {
+    super(loc); _raw = raw; _functions = null; _lines = null; _names = null;
   }
-  Program(Location loc, List<FunDef> functions) {
-    super(loc); _raw = null; _functions = functions;
+  Program(int loc, List<FunDef> functions) {
+    super(loc); _raw = null; _functions = functions; _lines = null;
+    _names = null;
   }
   Object accept(Visitor visitor) { return visitor.visit(this); }
   Object accept(IRVisitor visitor) { return visitor.visit(this); }
@@ -37,11 +39,11 @@ class FunDef extends AstNode {
   FunSym _sym;
   //int _frameSize;
   CCStack _stack;
-  FunDef(Location loc, FunId name, FunType type, BlockStmt body) {
+  FunDef(int loc, FunId name, FunType type, BlockStmt body) {
     super(loc); _name = name; _type = type; _body = body;
     _heldScope = null; _sym = null;
   }
-  FunDef(Location loc, FunId name, FunType type, List<Instruction> instrs) {
+  FunDef(int loc, FunId name, FunType type, List<Instruction> instrs) {
     super(loc); _name = name; _type = type; _body = null;
     _sym = new FunSym(null, this);
     _sym._instructions = instrs;
@@ -53,8 +55,8 @@ class FunDef extends AstNode {
 class FunDefListHead extends AstNode {
   FunDef _first;
   FunDefListTail _tail;
-  FunDefListHead(Location loc) { super(loc); _first = null; _tail = null; }
-  FunDefListHead(Location loc,FunDef first,FunDefListTail tail) {
+  FunDefListHead(int loc) { super(loc); _first = null; _tail = null; }
+  FunDefListHead(int loc,FunDef first,FunDefListTail tail) {
     super(loc); _first = first; _tail = tail;
   }
   Object accept(Visitor visitor) { return visitor.visit(this); }
@@ -63,8 +65,8 @@ class FunDefListTail extends AstNode {
   List<FunDef> _inh;
   FunDef _next;
   FunDefListTail _tail;
-  FunDefListTail(Location loc) { super(loc); _next = null; _tail = null; }
-  FunDefListTail(Location loc,FunDef next,FunDefListTail tail) {
+  FunDefListTail(int loc) { super(loc); _next = null; _tail = null; }
+  FunDefListTail(int loc,FunDef next,FunDefListTail tail) {
     super(loc); _next = next; _tail = tail;
   }
   Object accept(Visitor visitor) { return visitor.visit(this); }
@@ -72,7 +74,10 @@ class FunDefListTail extends AstNode {
 
 // ---------------- types ----------------
 abstract class Type extends AstNode {
-  Type(Location loc) { super(loc); }
+  Type _canon;			// see TypeTable
+  int _hash;			// of a canonical type
+  int _size;			// of a canonical type, as sizeof() prints it
+  Type(int loc) { super(loc); _canon = null; _hash = 0; _size = 0; }
   public boolean equals(Object t2) {
     assert false : "subclass of Type must override equals() method: "
       + t2.getClass().getSimpleName();
@@ -82,7 +87,7 @@ abstract class Type extends AstNode {
 
 class ArrayType extends Type {
   Type _elem;
-  ArrayType(Location loc, Type elem) { super(loc); _elem = elem; }
+  ArrayType(int loc, Type elem) { super(loc); _elem = elem; }
   Object accept(Visitor visitor) { return visitor.visit(this); }
   public boolean equals(Object t2) {
     return t2 instanceof ArrayType && _elem.equals(((ArrayType)t2)._elem);
@@ -93,10 +98,10 @@ class RecordType extends Type {
   FieldTypeListHead _raw;
   List<FieldType> _fields;
   Scope _heldScope;
-  RecordType(Location loc, FieldTypeListHead raw) {
+  RecordType(int loc, FieldTypeListHead raw) {
     super(loc); _raw = raw; _fields = null; _heldScope = null;
   }
-  RecordType(Location loc, List<FieldType> fields) {
+  RecordType(int loc, List<FieldType> fields) {
     super(loc); _raw = null; _fields = fields; _heldScope = null;
   }
   Object accept(Visitor visitor) { return visitor.visit(this); }
@@ -116,8 +121,8 @@ class RecordType extends Type {
 class FieldTypeListHead extends AstNode {
   FieldType _first;
   FieldTypeListTail _tail;
-  FieldTypeListHead(Location loc) { super(loc); _first = null; _tail = null; }
-  FieldTypeListHead(Location loc, FieldType first, FieldTypeListTail tail) {
+  FieldTypeListHead(int loc) { super(loc); _first = null; _tail = null; }
+  FieldTypeListHead(int loc, FieldType first, FieldTypeListTail tail) {
     super(loc); _first = first; _tail = tail;
   }
   Object accept(Visitor visitor) { return visitor.visit(this); }
@@ -126,8 +131,8 @@ class FieldTypeListTail extends AstNode {
   List<FieldType> _inh;
   FieldType _next;
   FieldTypeListTail _tail;
-  FieldTypeListTail(Location loc) { super(loc); _next = null; _tail = null; }
-  FieldTypeListTail(Location loc, FieldType next, FieldTypeListTail tail) {
+  FieldTypeListTail(int loc) { super(loc); _next = null; _tail = null; }
+  FieldTypeListTail(int loc, FieldType next, FieldTypeListTail tail) {
     super(loc); _next = next; _tail = tail;
   }
   Object accept(Visitor visitor) { return visitor.visit(this); }
@@ -137,7 +142,7 @@ class FieldType extends Type  {
   FieldId _field;
   Type _type;
   Symbol _sym;
-  FieldType(Location loc, FieldId field, Type type) {
+  FieldType(int loc, FieldId field, Type type) {
     super(loc); _field = field; _type = type; _sym = null;
   }
   Object accept(Visitor visitor) { return visitor.visit(this); }
@@ -145,27 +150,27 @@ class FieldType extends Type  {
     if (!(t2 instanceof FieldType))
       return false;
     FieldType f2 = (FieldType)t2;
-    return _field._id.equals(f2._field._id) && _type.equals(f2._type);
+    return _field._key == f2._field._key && _type.equals(f2._type);
   }
 }
 
 class NullType extends Type {
-  NullType() { super(null); }
+  NullType() { super(LineTable.NONE); }
   Object accept(Visitor visitor) { return visitor.visit(this); }
   public boolean equals(Object t2) { return t2 instanceof NullType; }
 }
 
 class PrimitiveType extends Type {
   static final String BOOL = "bool".intern();
-  static final PrimitiveType BOOLT = new PrimitiveType(null, BOOL);
+  static final PrimitiveType BOOLT = new PrimitiveType(LineTable.NONE, BOOL);
   static final String INT = "int".intern();
-  static final PrimitiveType INTT = new PrimitiveType(null, INT);
+  static final PrimitiveType INTT = new PrimitiveType(LineTable.NONE, INT);
   static final String STRING = "string".intern();
-  static final PrimitiveType STRINGT = new PrimitiveType(null, STRING);
+  static final PrimitiveType STRINGT = new PrimitiveType(LineTable.NONE, STRING);
   static final String VOID = "void".intern();
-  static final PrimitiveType VOIDT = new PrimitiveType(null, VOID);
+  static final PrimitiveType VOIDT = new PrimitiveType(LineTable.NONE, VOID);
   String _name;
-  PrimitiveType(Location loc, String name) {
+  PrimitiveType(int loc, String name) {
     super(loc);
     assert BOOL == name || INT == name || STRING == name || VOID == name;
     _name = name;
@@ -181,7 +186,7 @@ class PrimitiveType extends Type {
 class FunType extends Type {
   RecordType _formals;
   Type _returnType;
-  FunType(Location loc, RecordType formals, Type returnType) {
+  FunType(int loc, RecordType formals, Type returnType) {
     super(loc); _formals = formals; _returnType = returnType;
   }
   Object accept(Visitor visitor) { return visitor.visit(this); }
@@ -196,14 +201,14 @@ class FunType extends Type {
 // ---------------- statements ----------------
 abstract class Stmt extends AstNode {
   Label _nextLabel;
-  Stmt(Location loc) { super(loc); _nextLabel = null; }
+  Stmt(int loc) { super(loc); _nextLabel = null; }
 }
 
 class VarDef extends Stmt {
   VarId _var;
   Expr _rhs;
   VarSym _sym;
-  VarDef(Location loc, VarId var, Expr rhs) {
+  VarDef(int loc, VarId var, Expr rhs) {
     super(loc); _var = var; _rhs = rhs; _sym = null;
   }
   Object accept(Visitor visitor) { return visitor.visit(this); }
@@ -212,7 +217,7 @@ class VarDef extends Stmt {
 class AssignStmt extends Stmt {
   Expr _lhs;
   Expr _rhs;
-  AssignStmt(Location loc, Expr lhs, Expr rhs) {
+  AssignStmt(int loc, Expr lhs, Expr rhs) {
     super(loc); _lhs = lhs; _rhs = rhs;
   }
   Object accept(Visitor visitor) { return visitor.visit(this); }
@@ -223,15 +228,18 @@ class BlockStmt extends Stmt {
   List<Stmt> _stmts;
   boolean _needsScope;
   Scope _heldScope;
-  BlockStmt(Location loc, StmtListHead raw) {
+  BlockStmt(int loc, StmtListHead raw) {
     super(loc); _raw=raw; _stmts=null; _needsScope=true; _heldScope=null;
   }
+  BlockStmt(int loc, List<Stmt> stmts) {
+    super(loc); _raw=null; _stmts=stmts; _needsScope=true; _heldScope=null;
+  }
   Object accept(Visitor visitor) { return visitor.visit(this); }
 }
 
 class CallStmt extends Stmt {
   Expr _expr;
-  CallStmt(Location loc, Expr expr) { super(loc); _expr = expr; }
+  CallStmt(int loc, Expr expr) { super(loc); _expr = expr; }
   Object accept(Visitor visitor) { return visitor.visit(this); }
 }
 
@@ -241,7 +249,7 @@ class ForStmt extends Stmt {
   BlockStmt _body;
   Scope _heldScope;
   VarSym _sym;
-  ForStmt(Location loc, VarId var, Expr expr, BlockStmt body) {
+  ForStmt(int loc, VarId var, Expr expr, BlockStmt body) {
     super(loc); _var = var; _expr = expr; _body = body;
     _heldScope = null; _sym = null;
   }
@@ -252,10 +260,10 @@ class IfStmt extends Stmt {
   Expr _cond;
   BlockStmt _thenBranch;
   BlockStmt _elseBranch;
-  IfStmt(Location loc, Expr cond, BlockStmt thenBranch, BlockStmt elseBranch) {
+  IfStmt(int loc, Expr cond, BlockStmt thenBranch, BlockStmt elseBranch) {
     super(loc); _cond=cond; _thenBranch=thenBranch; _elseBranch=elseBranch;
   }
-  IfStmt(Location loc, Expr cond, BlockStmt thenBranch) {
+  IfStmt(int loc, Expr cond, BlockStmt thenBranch) {
     super(loc); _cond=cond; _thenBranch=thenBranch; _elseBranch=null;
   }
   Object accept(Visitor visitor) { return visitor.visit(this); }
@@ -263,15 +271,15 @@ class IfStmt extends Stmt {
 
 class ReturnStmt extends Stmt {
   Expr _expr;
-  ReturnStmt(Location loc, Expr expr) { super(loc); _expr = expr; }
-  ReturnStmt(Location loc) { super(loc); _expr = null; }
+  ReturnStmt(int loc, Expr expr) { super(loc); _expr = expr; }
+  ReturnStmt(int loc) { super(loc); _expr = null; }
   Object accept(Visitor visitor) { return visitor.visit(this); }
 }
 
 class WhileStmt extends Stmt {
   Expr _cond;
   BlockStmt _body;
-  WhileStmt(Location loc, Expr cond, BlockStmt body) {
+  WhileStmt(int loc, Expr cond, BlockStmt body) {
     super(loc); _cond = cond; _body = body;
   }
   Object accept(Visitor visitor) { return visitor.visit(this); }
@@ -280,8 +288,8 @@ class WhileStmt extends Stmt {
 class StmtListHead extends AstNode {
   Stmt _first;
   StmtListTail _tail;
-  StmtListHead(Location loc) { super(loc); _first = null; _tail = null; }
-  StmtListHead(Location loc, Stmt first, StmtListTail tail) {
+  StmtListHead(int loc) { super(loc); _first = null; _tail = null; }
+  StmtListHead(int loc, Stmt first, StmtListTail tail) {
     super(loc); _first = first; _tail = tail;
   }
   Object accept(Visitor visitor) { return visitor.visit(this); }
@@ -290,8 +298,8 @@ class StmtListTail extends AstNode {
   List<Stmt> _inh;
   Stmt _next;
   StmtListTail _tail;
-  StmtListTail(Location loc) { super(loc); _next = null; _tail = null; }
-  StmtListTail(Location loc, Stmt next, StmtListTail tail) {
+  StmtListTail(int loc) { super(loc); _next = null; _tail = null; }
+  StmtListTail(int loc, Stmt next, StmtListTail tail) {
     super(loc); _next = next; _tail = tail;
   }
   Object accept(Visitor visitor) { return visitor.visit(this); }
@@ -301,7 +309,7 @@ class StmtListTail extends AstNode {
 abstract class Expr extends AstNode {
   Type _type;
   Label _trueLabel, _falseLabel;
-  Expr(Location loc) {
+  Expr(int loc) {
     super(loc); _type = null; _trueLabel = null; _falseLabel = null;
   }
 }
@@ -310,7 +318,7 @@ class InfixExpr extends Expr {
   String _op;
   Expr _lhs;
   Expr _rhs;
-  InfixExpr(Location loc, String op, Expr lhs, Expr rhs) {
+  InfixExpr(int loc, String op, Expr lhs, Expr rhs) {
     super(loc); _op = op; _lhs = lhs; _rhs = rhs;
   }
   Object accept(Visitor visitor) { return visitor.visit(this); }
@@ -318,7 +326,7 @@ class InfixExpr extends Expr {
 class InfixExprHead extends Expr {
   Expr _lhs;
   InfixExprTail _tail;
-  InfixExprHead(Location loc, Expr lhs, InfixExprTail tail) {
+  InfixExprHead(int loc, Expr lhs, InfixExprTail tail) {
     super(loc); _lhs = lhs; _tail = tail;
   }
   Object accept(Visitor visitor) { return visitor.visit(this); }
@@ -328,10 +336,10 @@ class InfixExprTail extends AstNode {
   String _op;
   Expr _rhs;
   InfixExprTail _tail;
-  InfixExprTail(Location loc) {
+  InfixExprTail(int loc) {
     super(loc); _inh = null; _op = null; _rhs = null; _tail = null;
   }
-  InfixExprTail(Location loc, String op, Expr rhs, InfixExprTail tail) {
+  InfixExprTail(int loc, String op, Expr rhs, InfixExprTail tail) {
     super(loc); _inh = null; _op = op; _rhs = rhs; _tail = tail;
   }
   Object accept(Visitor visitor) { return visitor.visit(this); }
@@ -340,7 +348,7 @@ class InfixExprTail extends AstNode {
 class PrefixExpr extends Expr {
   String _op;
   Expr _base;
-  PrefixExpr(Location loc, String op, Expr base) {
+  PrefixExpr(int loc, String op, Expr base) {
     super(loc); _op = op; _base = base;
   }
   Object accept(Visitor visitor) { return visitor.visit(this); }
@@ -349,29 +357,29 @@ class PrefixExpr extends Expr {
 class PostfixExprHead extends Expr {
   Expr _base;
   PostfixExprTail _tail;
-  PostfixExprHead(Location loc, Expr base, PostfixExprTail tail) {
+  PostfixExprHead(int loc, Expr base, PostfixExprTail tail) {
     super(loc); _base = base; _tail = tail;
   }
   Object accept(Visitor visitor) { return visitor.visit(this); }
 }
 class PostfixExprTail extends AstNode {
   Expr _inh;
-  PostfixExprTail(Location loc) { super(loc); _inh = null; }
+  PostfixExprTail(int loc) { super(loc); _inh = null; }
   Object accept(Visitor visitor) { return visitor.visit(this); }
 }
 
 class CallExpr extends Expr {
   Expr _base;
   List<Expr> _actuals;
-  CallExpr(Location loc, Expr base, List<Expr> actuals) {
+  CallExpr(int loc, Expr base, List<Expr> actuals) {
     super(loc); _base = base; _actuals = actuals;
   }
   Object accept(Visitor visitor) { return visitor.visit(this); }
 }
 class CallExprTail extends PostfixExprTail {
-  ExprListHead _actuals;
+  List<Expr> _actuals;
   PostfixExprTail _tail;
-  CallExprTail(Location loc, ExprListHead actuals, PostfixExprTail tail) {
+  CallExprTail(int loc, List<Expr> actuals, PostfixExprTail tail) {
     super(loc); _actuals = actuals; _tail = tail;
   }
   Object accept(Visitor visitor) { return visitor.visit(this); }
@@ -380,7 +388,7 @@ class CallExprTail extends PostfixExprTail {
 class CastExpr extends Expr {
   Expr _base;
   Type _targetType;
-  CastExpr(Location loc, Expr base, Type type) {
+  CastExpr(int loc, Expr base, Type type) {
     super(loc); _base = base; _targetType = type;
   }
   CastExpr(Expr base, Type type) {
@@ -392,7 +400,7 @@ class CastExpr extends Expr {
 class CastExprTail extends PostfixExprTail {
   Type _targetType;
   PostfixExprTail _tail;
-  CastExprTail(Location loc, Type type, PostfixExprTail tail) {
+  CastExprTail(int loc, Type type, PostfixExprTail tail) {
     super(loc); _targetType = type; _tail = tail;
   }
   Object accept(Visitor visitor) { return visitor.visit(this); }
@@ -401,7 +409,7 @@ class CastExprTail extends PostfixExprTail {
 class FieldExpr extends Expr {
   Expr _base;
   FieldId _field;
-  FieldExpr(Location loc, Expr base, FieldId field) {
+  FieldExpr(int loc, Expr base, FieldId field) {
     super(loc); _base = base; _field = field;
   }
   Object accept(Visitor visitor) { return visitor.visit(this); }
@@ -409,7 +417,7 @@ class FieldExpr extends Expr {
 class FieldExprTail extends PostfixExprTail {
   FieldId _field;
   PostfixExprTail _tail;
-  FieldExprTail(Location loc, FieldId field, PostfixExprTail tail) {
+  FieldExprTail(int loc, FieldId field, PostfixExprTail tail) {
     super(loc); _field = field; _tail = tail;
   }
   Object accept(Visitor visitor) { return visitor.visit(this); }
@@ -418,7 +426,7 @@ class FieldExprTail extends PostfixExprTail {
 class SubscriptExpr extends Expr {
   Expr _base;
   Expr _subscript;
-  SubscriptExpr(Location loc, Expr base, Expr subscript) {
+  SubscriptExpr(int loc, Expr base, Expr subscript) {
     super(loc); _base = base; _subscript = subscript;
   }
   Object accept(Visitor visitor) { return visitor.visit(this); }
@@ -426,7 +434,7 @@ class SubscriptExpr extends Expr {
 class SubscriptExprTail extends PostfixExprTail {
   Expr _subscript;
   PostfixExprTail _tail;
-  SubscriptExprTail(Location loc, Expr subscript, PostfixExprTail tail) {
+  SubscriptExprTail(int loc, Expr subscript, PostfixExprTail tail) {
     super(loc); _subscript = subscript; _tail = tail;
   }
   Object accept(Visitor visitor) { return visitor.visit(this); }
@@ -435,8 +443,8 @@ class SubscriptExprTail extends PostfixExprTail {
 class ExprListHead extends AstNode {
   Expr _first;
   ExprListTail _tail;
-  ExprListHead(Location loc) { super(loc); _first = null; _tail = null; }
-  ExprListHead(Location loc, Expr first, ExprListTail tail) {
+  ExprListHead(int loc) { super(loc); _first = null; _tail = null; }
+  ExprListHead(int loc, Expr first, ExprListTail tail) {
     super(loc); _first = first; _tail = tail;
   }
   Object accept(Visitor visitor) { return visitor.visit(this); }
@@ -445,8 +453,8 @@ class ExprListTail extends AstNode {
   List<Expr> _inh;
   Expr _next;
   ExprListTail _tail;
-  ExprListTail(Location loc) { super(loc); _next = null; _tail = null; }
-  ExprListTail(Location loc, Expr next, ExprListTail tail) {
+  ExprListTail(int loc) { super(loc); _next = null; _tail = null; }
+  ExprListTail(int loc, Expr next, ExprListTail tail) {
     super(loc); _next = next; _tail = tail;
   }
   Object accept(Visitor visitor) { return visitor.visit(this); }
@@ -454,30 +462,37 @@ class ExprListTail extends AstNode {
 
 class ParenExpr extends Expr {
   Expr _base;
-  ParenExpr(Location loc, Expr base) { super(loc); _base = base; }
+  ParenExpr(int loc, Expr base) { super(loc); _base = base; }
   Object accept(Visitor visitor) { return visitor.visit(this); }
 } 
 
 // ---------------- identifiers ----------------
 class FieldId extends AstNode {
   String _id;
+  int _key;	// see NameTable
   Symbol _sym;
   int _offset;
-  FieldId(Location loc, String id) { super(loc); _id = id; _sym = null; _offset = -1;}
+  FieldId(int loc, String id, int key) {
+    super(loc); _id = id; _key = key; _sym = null; _offset = -1;
+  }
   Object accept(Visitor visitor) { return visitor.visit(this); }
 }
 
 class FunId extends Expr {
   String _id;
+  int _key;
   FunSym _sym;
-  FunId(Location loc, String id) { super(loc); _id = id; _sym = null; }
+  FunId(int loc, String id, int key) {
+    super(loc); _id = id; _key = key; _sym = null;
+  }
   Object accept(Visitor visitor) { return visitor.visit(this); }
 }
 
 class VarId extends Expr {
   String _id;
+  int _key;
   VarSym _sym;
-  VarId(Location loc, String id) { super(loc); _id = id; }
+  VarId(int loc, String id, int key) { super(loc); _id = id; _key = key; }
   Object accept(Visitor visitor) { return visitor.visit(this); }
 }
 
@@ -485,9 +500,12 @@ class VarId extends Expr {
 class ArrayLit extends Expr {
   ExprListHead _raw;
   List<Expr> _elems;
-  ArrayLit(Location loc, ExprListHead raw) {
+  ArrayLit(int loc, ExprListHead raw) {
     super(loc); _raw = raw; _elems = null;
   }
+  ArrayLit(int loc, List<Expr> elems) {
+    super(loc); _raw = null; _elems = elems;
+  }
   Object accept(Visitor visitor) { return visitor.visit(this); }
 }
 
@@ -495,17 +513,20 @@ class RecordLit extends Expr {
   FieldLitListHead _raw;
   List<FieldLit> _fields;
   Scope _heldScope;
-  RecordLit(Location loc, FieldLitListHead raw) {
+  RecordLit(int loc, FieldLitListHead raw) {
     super(loc); _raw = raw; _fields = null; _heldScope = null;
   }
+  RecordLit(int loc, List<FieldLit> fields) {
+    super(loc); _raw = null; _fields = fields; _heldScope = null;
+  }
   Object accept(Visitor visitor) { return visitor.visit(this); }
 }
 
 class FieldLitListHead extends AstNode {
   FieldLit _first;
   FieldLitListTail _tail;
-  FieldLitListHead(Location loc) { super(loc); _first = null; _tail = null; }
-  FieldLitListHead(Location loc, FieldLit first, FieldLitListTail tail) {
+  FieldLitListHead(int loc) { super(loc); _first = null; _tail = null; }
+  FieldLitListHead(int loc, FieldLit first, FieldLitListTail tail) {
     super(loc); _first = first; _tail = tail;
   }
   Object accept(Visitor visitor) { return visitor.visit(this); }
@@ -514,8 +535,8 @@ class FieldLitListTail extends AstNode {
   List<FieldLit> _inh;
   FieldLit _next;
   FieldLitListTail _tail;
-  FieldLitListTail(Location loc) { super(loc);  _next = null; _tail = null; }
-  FieldLitListTail(Location loc, FieldLit next, FieldLitListTail tail) {
+  FieldLitListTail(int loc) { super(loc);  _next = null; _tail = null; }
+  FieldLitListTail(int loc, FieldLit next, FieldLitListTail tail) {
     super(loc); _next = next; _tail = tail;
   }
   Object accept(Visitor visitor) { return visitor.visit(this); }
@@ -526,7 +547,7 @@ class FieldLit extends AstNode {
   Expr _expr;
   FieldSym _sym;
   FieldType _type;
-  FieldLit(Location loc, FieldId field, Expr expr) {
+  FieldLit(int loc, FieldId field, Expr expr) {
     super(loc); _field = field; _expr = expr; _sym = null; _type = null;
   }
   Object accept(Visitor visitor) { return visitor.visit(this); }
@@ -534,7 +555,7 @@ class FieldLit extends AstNode {
 
 class BoolLit extends Expr {
   boolean _value;
-  BoolLit(Location loc, String token) {
+  BoolLit(int loc, String token) {
     super(loc); _value = "true".equals(token);
   }
   Object accept(Visitor visitor) { return visitor.visit(this); }
@@ -542,20 +563,20 @@ class BoolLit extends Expr {
 
 class IntLit extends Expr {
   int _value;
-  IntLit(Location loc, String token) {
+  IntLit(int loc, String token) {
     super(loc); _value = Integer.parseInt(token);
   }
   Object accept(Visitor visitor) { return visitor.visit(this); }
 }
 
 class NullLit extends Expr {
-  NullLit(Location loc) { super(loc); }
+  NullLit(int loc) { super(loc); }
   Object accept(Visitor visitor) { return visitor.visit(this); }
 }
 
 class StringLit extends Expr {
   String _token;
-  StringLit(Location loc, String token) {
+  StringLit(int loc, String token) {
     super(loc); _token = token;
   }
   Object accept(Visitor visitor) { return visitor.visit(this); }
@@ -0,0 +1,243 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+class BenchSource {
+  final String _name, _text;
+  BenchSource(String name, String text) { _name = name; _text = text; }
+}
+
+// one compiler phase; prepare runs everything before it and is not timed
+abstract class BenchPhase {
+  final String _name;
+  BenchPhase(String name) { _name = name; }
+  abstract Object prepare(BenchSource src) throws IOException;
+  abstract Object run(Object input) throws IOException;
+
+  static Object parse(BenchSource src) throws IOException {
+    TackParser parser = new TackParser(new StringReader(src._text),
+                                       src._name, src._text.length());
+    xtc.parser.Result result = parser.pprogram(0);
+    if (!result.hasValue())
+      throw new IllegalArgumentException(src._name + ": syntax error");
+    Program ast = (Program)result.semanticValue();
+    ast._lines = parser.lines(src._name);
+    ast._names = parser.names();
+    return ast;
+  }
+  static Program normalize(Object raw) {
+    return (Program)((AstNode)raw).accept(new TreeNormalizer());
+  }
+  static SymbolTable analyze(Program ast) {
+    ErrorPrinter errors = new ErrorPrinter(Bench.NOWHERE, false);
+    errors._lines = ast._lines;
+    ScopeAnalyzer scopeAnalyzer = new ScopeAnalyzer(errors);
+    ast.accept(scopeAnalyzer);
+    Intrinsics.defIntrinsics(scopeAnalyzer._symTab, errors);
+    ast.accept(new SemanticAnalyzer(scopeAnalyzer._symTab,
+                                    new TypeTable(Intrinsics.TYPES), errors));
+    if (0 < errors._count)
+      throw new IllegalArgumentException("semantic errors");
+    return scopeAnalyzer._symTab;
+  }
+  static Object[] generate(Program ast, SymbolTable symTab) {
+    ast.accept(new IRGenerator(symTab));
+    return new Object[] { ast, symTab };
+  }
+}
+
+// a small stand-in for JMH: every phase is measured on its own with inputs
+// prepared outside the timed region, single-threaded so that the
+// allocation counter of the current thread sees all of the work
+class Bench {
+  static final PrintStream NOWHERE = new PrintStream(new OutputStream() {
+    public void write(int b) { }
+  });
+  static final List<GarbageCollectorMXBean> GCS =
+    ManagementFactory.getGarbageCollectorMXBeans();
+  static volatile int _sink;
+  int _warmups = 3, _iterations = 5;
+  long _iterationNanos = 1000000000L;
+
+  static final BenchPhase[] PHASES = {
+    new BenchPhase("parse") {
+      Object prepare(BenchSource src) { return src; }
+      Object run(Object in) throws IOException {
+        return parse((BenchSource)in);
+      }
+    },
+    new BenchPhase("handparse") {
+      Object prepare(BenchSource src) { return src; }
+      Object run(Object in) throws IOException {
+        BenchSource src = (BenchSource)in;
+        return HandParser.parse(src._name, new StringReader(src._text));
+      }
+    },
+    new BenchPhase("normalize") {
+      Object prepare(BenchSource src) throws IOException { return parse(src); }
+      Object run(Object in) { return normalize(in); }
+    },
+    new BenchPhase("analyze") {
+      Object prepare(BenchSource src) throws IOException {
+        return normalize(parse(src));
+      }
+      Object run(Object in) { return analyze((Program)in); }
+    },
+    new BenchPhase("irgen") {
+      Object prepare(BenchSource src) throws IOException {
+        Program ast = normalize(parse(src));
+        return new Object[] { ast, analyze(ast) };
+      }
+      Object run(Object in) {
+        Object[] p = (Object[])in;
+        return generate((Program)p[0], (SymbolTable)p[1]);
+      }
+    },
+    new BenchPhase("asm") {
+      Object prepare(BenchSource src) throws IOException {
+        Program ast = normalize(parse(src));
+        return generate(ast, analyze(ast));
+      }
+      Object run(Object in) {
+        Object[] p = (Object[])in;
+        Program ast = (Program)p[0];
+        SymbolTable symTab = (SymbolTable)p[1];
+        ast.accept(new SBGenerator(symTab));
+        Emitter out = new Emitter();
+        ast.accept(new SBPrinter(out, symTab));
+        return out;
+      }
+    },
+  };
+
+  // the corpus files that compile without errors, as one unit of work
+  static List<BenchSource> corpus(String dir) throws IOException {
+    List<BenchSource> result = new ArrayList<BenchSource>();
+    String[] names = new File(dir).list();
+    Arrays.sort(names);
+    for (String name : names) {
+      if (!name.endsWith(".tack"))
+        continue;
+      File f = new File(dir, name);
+      BenchSource src = new BenchSource(f.getPath(), new String(
+        Files.readAllBytes(f.toPath()), StandardCharsets.UTF_8));
+      try {
+        BenchPhase.analyze(BenchPhase.normalize(BenchPhase.parse(src)));
+        result.add(src);
+      } catch (RuntimeException e) {
+        /* expected for the error tests */
+      }
+    }
+    return result;
+  }
+
+  // a generated program of the given number of functions
+  static BenchSource synthetic(int functions) {
+    ProgramGenerator g = new ProgramGenerator(functions, functions);
+    return new BenchSource("generated-" + functions, g.generate());
+  }
+
+  // warmup and measurement iterations of a fixed duration; each invocation
+  // runs the phase once over every source of the input; the gc columns
+  // also include collections caused by preparing the inputs
+  void measure(String inputName, List<BenchSource> input, BenchPhase phase,
+               PrintStream out) throws IOException {
+    double[] opsPerSec = new double[_iterations];
+    long bytes = 0, ops = 0, gcCount = gcCount(), gcMillis = gcMillis();
+    long measuredNanos = 0;
+    for (int it=-_warmups; it<_iterations; it++) {
+      long nanos = 0, alloc = 0, n = 0;
+      while (nanos < _iterationNanos) {
+        Object[] prepared = new Object[input.size()];
+        for (int i=0; i<prepared.length; i++)
+          prepared[i] = phase.prepare(input.get(i));
+        long a0 = PhaseTimer.allocatedBytes();
+        long t0 = System.nanoTime();
+        for (int i=0; i<prepared.length; i++)
+          _sink += System.identityHashCode(phase.run(prepared[i]));
+        nanos += System.nanoTime() - t0;
+        alloc += PhaseTimer.allocatedBytes() - a0;
+        n++;
+      }
+      if (0 <= it) {
+        opsPerSec[it] = n * 1e9 / nanos;
+        bytes += alloc;
+        ops += n;
+        measuredNanos += nanos;
+      } else if (-1 == it) {
+        gcCount = gcCount();
+        gcMillis = gcMillis();
+      }
+    }
+    double mean = 0, var = 0;
+    for (double x : opsPerSec)
+      mean += x / _iterations;
+    for (double x : opsPerSec)
+      var += (x - mean) * (x - mean) / Math.max(1, _iterations - 1);
+    out.println(String.format(
+      "%-16s %-10s %12.3f %10.3f %14d %12.1f %6d %8d", inputName,
+      phase._name, mean, Math.sqrt(var), bytes / ops,
+      bytes * 1e9 / measuredNanos / (1 << 20), gcCount() - gcCount,
+      gcMillis() - gcMillis));
+  }
+
+  static long gcCount() {
+    long result = 0;
+    for (GarbageCollectorMXBean gc : GCS)
+      result += Math.max(0, gc.getCollectionCount());
+    return result;
+  }
+  static long gcMillis() {
+    long result = 0;
+    for (GarbageCollectorMXBean gc : GCS)
+      result += Math.max(0, gc.getCollectionTime());
+    return result;
+  }
+
+  // usage: Bench [-w warmups] [-i iterations] [-t millis] [-p phase]
+  //              [-g functions]... [-c corpus-dir]
+  public static void main(String[] args) throws IOException {
+    Bench bench = new Bench();
+    String corpusDir = "test", only = null;
+    List<Integer> sizes = new ArrayList<Integer>();
+    for (int i=0; i<args.length; i++) {
+      if ("-w".equals(args[i])) bench._warmups = Integer.parseInt(args[++i]);
+      else if ("-i".equals(args[i]))
+        bench._iterations = Integer.parseInt(args[++i]);
+      else if ("-t".equals(args[i]))
+        bench._iterationNanos = Long.parseLong(args[++i]) * 1000000L;
+      else if ("-p".equals(args[i])) only = args[++i];
+      else if ("-g".equals(args[i])) sizes.add(Integer.parseInt(args[++i]));
+      else if ("-c".equals(args[i])) corpusDir = args[++i];
+      else throw new IllegalArgumentException(args[i]);
+    }
+    if (sizes.isEmpty())
+      sizes.add(1000);
+    List<String> names = new ArrayList<String>();
+    List<List<BenchSource>> inputs = new ArrayList<List<BenchSource>>();
+    names.add("corpus");
+    inputs.add(corpus(corpusDir));
+    for (int n : sizes) {
+      BenchSource src = synthetic(n);
+      names.add(src._name);
+      inputs.add(Arrays.asList(src));
+    }
+    PrintStream out = System.out;
+    out.println(String.format("%-16s %-10s %12s %10s %14s %12s %6s %8s",
+                              "input", "phase", "ops/s", "error",
+                              "alloc B/op", "alloc MB/s", "gcs", "gc ms"));
+    for (int i=0; i<inputs.size(); i++)
+      for (BenchPhase phase : PHASES)
+        if (null == only || only.equals(phase._name))
+          bench.measure(names.get(i), inputs.get(i), phase, out);
+  }
+}
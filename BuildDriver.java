@@ -0,0 +1,187 @@
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+class BuildJob {
+  String _source, _asm, _exe;
+  int _status;
+  ByteArrayOutputStream _log;
+  Future<?> _link;
+  BuildJob(String source) {
+    _source = source;
+    String base = source.endsWith(".tack")
+      ? source.substring(0, source.length() - ".tack".length()) : source;
+    _asm = base + ".s";
+    _exe = base + ".exe";
+    _status = 0;
+    _log = new ByteArrayOutputStream();
+    _link = null;
+  }
+}
+
+// compiles many files in one JVM, then assembles and links them against a
+// runtime object that is built only once
+class BuildDriver {
+  static final String RUNTIME = "x64runtime.c";
+  static final String RUNTIME_OBJECT = "x64runtime.o";
+  // the generated code uses absolute addresses (OFFSET FLAT), so no PIE
+  static final String[] GCC = { "gcc", "-no-pie", "-m64", "-masm=intel" };
+  ForkJoinPool _compilers;
+  ExecutorService _processes;
+  CountDownLatch _runtimeReady;
+  boolean _runtimeOk;
+  CompileOptions _options;
+
+  BuildDriver() {
+    int n = Runtime.getRuntime().availableProcessors();
+    _compilers = new ForkJoinPool(n);
+    _processes = Executors.newFixedThreadPool(n);
+    _runtimeReady = new CountDownLatch(1);
+    _runtimeOk = false;
+    _options = new CompileOptions();
+  }
+
+  int build(String[] paths) throws IOException {
+    List<BuildJob> jobs = new ArrayList<BuildJob>();
+    for (String source : collect(paths))
+      jobs.add(new BuildJob(source));
+    List<Future<?>> compiles = new ArrayList<Future<?>>(jobs.size());
+    for (final BuildJob job : jobs)
+      compiles.add(_compilers.submit(new Runnable() {
+        public void run() { compileAndLink(job); }
+      }));
+    buildRuntime();
+    int status = 0;
+    for (int i=0, n=jobs.size(); i<n; i++) {
+      BuildJob job = jobs.get(i);
+      await(compiles.get(i), job);
+      if (null != job._link)
+        await(job._link, job);
+      System.err.write(job._log.toByteArray());
+      if (0 != job._status)
+        status = -1;
+    }
+    System.err.flush();
+    _compilers.shutdown();
+    _processes.shutdown();
+    return status;
+  }
+
+  // directories contribute their *.tack files, in name order
+  static List<String> collect(String[] paths) {
+    List<String> result = new ArrayList<String>();
+    for (String path : paths) {
+      File f = new File(path);
+      if (f.isDirectory()) {
+        String[] names = f.list();
+        Arrays.sort(names);
+        for (String name : names)
+          if (name.endsWith(".tack"))
+            result.add(new File(f, name).getPath());
+      } else {
+        result.add(path);
+      }
+    }
+    return result;
+  }
+
+  void compileAndLink(final BuildJob job) {
+    PrintStream err = new PrintStream(job._log, true);
+    try {
+      Emitter asm = new Emitter();
+      try (Reader reader = MappedSource.open(job._source)) {
+        job._status = Main.compile(job._source, reader, asm,
+                                   new ErrorPrinter(err, false),
+                                   new PhaseTimer(job._source), _options,
+                                   null);
+      }
+      if (0 == job._status) {
+        try (FileChannel c = FileChannel.open(
+               Paths.get(job._asm), StandardOpenOption.CREATE,
+               StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+          asm.writeTo(c);
+        }
+        job._link = _processes.submit(new Runnable() {
+          public void run() { link(job); }
+        });
+      }
+    } catch (CompileAbort e) {
+      job._status = e._status;
+    } catch (IOException | RuntimeException | AssertionError
+             | StackOverflowError e) {
+      err.println(job._source + ": " + e);
+      job._status = 1;
+    }
+    err.flush();
+  }
+
+  void buildRuntime() {
+    try {
+      Path src = Paths.get(RUNTIME), obj = Paths.get(RUNTIME_OBJECT);
+      if (Files.exists(obj) && Files.getLastModifiedTime(obj).compareTo(
+            Files.getLastModifiedTime(src)) >= 0) {
+        _runtimeOk = true;
+      } else {
+        ByteArrayOutputStream log = new ByteArrayOutputStream();
+        _runtimeOk = 0 == run(log, "-c", "-o", RUNTIME_OBJECT, RUNTIME);
+        System.err.write(log.toByteArray());
+      }
+    } catch (IOException | InterruptedException e) {
+      System.err.println(RUNTIME + ": " + e);
+    } finally {
+      _runtimeReady.countDown();
+    }
+  }
+
+  void link(BuildJob job) {
+    try {
+      _runtimeReady.await();
+      if (!_runtimeOk) {
+        job._status = 1;
+        return;
+      }
+      if (0 != run(job._log, "-o", job._exe, job._asm, RUNTIME_OBJECT))
+        job._status = 1;
+    } catch (IOException | InterruptedException e) {
+      new PrintStream(job._log, true).println(job._asm + ": " + e);
+      job._status = 1;
+    }
+  }
+
+  static int run(ByteArrayOutputStream log, String... args)
+    throws IOException, InterruptedException {
+    List<String> command = new ArrayList<String>(Arrays.asList(GCC));
+    command.addAll(Arrays.asList(args));
+    Process p = new ProcessBuilder(command).redirectErrorStream(true).start();
+    try (InputStream in = p.getInputStream()) {
+      in.transferTo(log);
+    }
+    return p.waitFor();
+  }
+
+  static void await(Future<?> f, BuildJob job) {
+    try {
+      f.get();
+    } catch (InterruptedException | ExecutionException e) {
+      new PrintStream(job._log, true).println(job._source + ": " + e);
+      job._status = 1;
+    }
+  }
+}
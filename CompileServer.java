@@ -0,0 +1,177 @@
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+class Reply {
+  final int _status;
+  final byte[] _out, _err;
+  Reply(int status, byte[] out, byte[] err) {
+    _status = status; _out = out; _err = err;
+  }
+}
+
+// least recently used replies, keyed by the digest of file name and contents
+class ReplyCache extends LinkedHashMap<String, Reply> {
+  private static final long serialVersionUID = 1L;
+  final int _capacity;
+  ReplyCache(int capacity) { super(16, 0.75f, true); _capacity = capacity; }
+  protected boolean removeEldestEntry(Map.Entry<String, Reply> eldest) {
+    return size() > _capacity;
+  }
+  synchronized Reply lookup(String key) { return get(key); }
+  synchronized void store(String key, Reply reply) { put(key, reply); }
+}
+
+class CompileServer {
+  static final int CACHE_ENTRIES = 256;
+  Path _socket;
+  ReplyCache _cache;
+  ExecutorService _workers;
+  TackCompiler _compiler;
+
+  CompileServer(String socket) {
+    _socket = Paths.get(socket);
+    _cache = new ReplyCache(CACHE_ENTRIES);
+    _compiler = new TackCompiler();
+    _workers = Executors.newCachedThreadPool();
+  }
+
+  void serve() throws IOException {
+    final ServerSocketChannel server =
+      ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+    Files.deleteIfExists(_socket);
+    server.bind(UnixDomainSocketAddress.of(_socket));
+    Runtime.getRuntime().addShutdownHook(new Thread() {
+      public void run() {
+        try {
+          Files.deleteIfExists(_socket);
+        } catch (IOException e) {
+          /* nothing left to clean up */
+        }
+      }
+    });
+    while (true) {
+      final SocketChannel client = server.accept();
+      _workers.execute(new Runnable() {
+        public void run() { handle(client); }
+      });
+    }
+  }
+
+  // request: working directory and file name; reply: status, stdout, stderr
+  void handle(SocketChannel channel) {
+    try (SocketChannel c = channel) {
+      DataInputStream in = new DataInputStream(Channels.newInputStream(c));
+      String dir = in.readUTF();
+      String fileName = in.readUTF();
+      Reply reply = compile(dir, fileName);
+      DataOutputStream out = new DataOutputStream(
+        new BufferedOutputStream(Channels.newOutputStream(c)));
+      out.writeInt(reply._status);
+      writeBytes(out, reply._out);
+      writeBytes(out, reply._err);
+      out.flush();
+    } catch (IOException e) {
+      /* the client went away, nothing to answer */
+    }
+  }
+
+  Reply compile(String dir, String fileName) throws IOException {
+    byte[] source;
+    try {
+      source = Files.readAllBytes(Paths.get(dir).resolve(fileName));
+    } catch (IOException e) {
+      byte[] msg = (fileName + ": " + e + "\n").getBytes(StandardCharsets.UTF_8);
+      return new Reply(-2, new byte[0], msg);
+    }
+    String key = digest(fileName, source);
+    Reply reply = _cache.lookup(key);
+    if (null != reply)
+      return reply;
+    try {
+      Reader reader = new InputStreamReader(new ByteArrayInputStream(source),
+                                            StandardCharsets.UTF_8);
+      CompileResult result = _compiler.compile(fileName, reader);
+      StringBuilder err = new StringBuilder();
+      for (String line : result._diagnostics)
+        err.append(line).append('\n');
+      reply = new Reply(result._status, result._asm,
+                        err.toString().getBytes(StandardCharsets.UTF_8));
+    } catch (RuntimeException | AssertionError | StackOverflowError e) {
+      ByteArrayOutputStream err = new ByteArrayOutputStream();
+      PrintStream errStream = new PrintStream(err, true, "UTF-8");
+      e.printStackTrace(errStream);
+      reply = new Reply(1, new byte[0], err.toByteArray());
+    }
+    _cache.store(key, reply);
+    return reply;
+  }
+
+  static String digest(String fileName, byte[] source) {
+    MessageDigest md;
+    try {
+      md = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+    md.update(fileName.getBytes(StandardCharsets.UTF_8));
+    md.update((byte)0);
+    md.update(source);
+    StringBuilder b = new StringBuilder();
+    for (byte x : md.digest())
+      b.append(String.format("%02x", x));
+    return b.toString();
+  }
+
+  static void writeBytes(DataOutputStream out, byte[] bytes)
+    throws IOException {
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  static byte[] readBytes(DataInputStream in) throws IOException {
+    byte[] result = new byte[in.readInt()];
+    in.readFully(result);
+    return result;
+  }
+
+  // the thin client: forwards one file and prints what the server produced
+  static int request(String socket, String fileName) throws IOException {
+    try (SocketChannel c =
+           SocketChannel.open(UnixDomainSocketAddress.of(socket))) {
+      DataOutputStream out = new DataOutputStream(
+        new BufferedOutputStream(Channels.newOutputStream(c)));
+      out.writeUTF(System.getProperty("user.dir"));
+      out.writeUTF(fileName);
+      out.flush();
+      DataInputStream in = new DataInputStream(Channels.newInputStream(c));
+      int status = in.readInt();
+      System.out.write(readBytes(in));
+      System.out.flush();
+      System.err.write(readBytes(in));
+      System.err.flush();
+      return status;
+    }
+  }
+}
@@ -0,0 +1,202 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// a maximal run of instructions that is only entered at its first and only
+// left after its last
+class BasicBlock {
+  final int _id;			// in layout order
+  final List<Instruction> _instrs;
+  final List<BasicBlock> _preds;
+  final List<BasicBlock> _succs;
+  int _rpo;				// -1 when unreachable
+  BasicBlock _idom;			// null for the entry and unreachable ones
+  final List<BasicBlock> _dominated;	// children in the dominator tree
+  int _domFirst, _domLast;		// preorder interval in that tree
+
+  BasicBlock(int id) {
+    _id = id;
+    _instrs = new ArrayList<Instruction>();
+    _preds = new ArrayList<BasicBlock>(2);
+    _succs = new ArrayList<BasicBlock>(2);
+    _rpo = -1;
+    _idom = null;
+    _dominated = new ArrayList<BasicBlock>(0);
+    _domFirst = -1;
+    _domLast = -1;
+  }
+
+  Instruction last() { return _instrs.get(_instrs.size() - 1); }
+
+  boolean reachable() { return -1 != _rpo; }
+
+  // a block dominates itself; unreachable ones neither dominate nor are
+  boolean dominates(BasicBlock b) {
+    return reachable() && b.reachable()
+      && _domFirst <= b._domFirst && b._domLast <= _domLast;
+  }
+}
+
+// the basic blocks of one function's IR, split at labels and after jumps
+// and returns. Jump targets are found by label number, see IRNames, so
+// building it is linear; the dominators come from the iterative algorithm
+// of Cooper, Harvey and Kennedy over reverse postorder
+class ControlFlowGraph {
+  final List<BasicBlock> _blocks;	// in layout order, _blocks.get(0) entry
+  final List<BasicBlock> _rpo;		// the reachable ones
+
+  ControlFlowGraph(FunSym fun) {
+    _blocks = new ArrayList<BasicBlock>();
+    BasicBlock[] byLabel = new BasicBlock[fun._labels.size()];
+    BasicBlock current = null;
+    for (Instruction instr : fun._instructions) {
+      if (null == current || !instr._labels.isEmpty()) {
+        current = new BasicBlock(_blocks.size());
+        _blocks.add(current);
+      }
+      current._instrs.add(instr);
+      for (Label label : instr._labels)
+        byLabel[label._number] = current;
+      if (endsBlock(instr))
+        current = null;
+    }
+    for (BasicBlock b : _blocks) {
+      Instruction last = b.last();
+      Label target = target(last);
+      if (null != target)
+        edge(b, byLabel[target._number]);
+      if (!(last instanceof UncondJumpInstr || last instanceof ReturnInstr)
+          && b._id + 1 < _blocks.size())
+        edge(b, _blocks.get(b._id + 1));
+    }
+    _rpo = new ArrayList<BasicBlock>(_blocks.size());
+    if (!_blocks.isEmpty()) {
+      order();
+      dominators();
+    }
+  }
+
+  static boolean endsBlock(Instruction instr) {
+    return null != target(instr) || instr instanceof ReturnInstr;
+  }
+
+  static Label target(Instruction instr) {
+    if (instr instanceof UncondJumpInstr)
+      return ((UncondJumpInstr)instr)._tgt;
+    if (instr instanceof TrueJumpInstr)
+      return ((TrueJumpInstr)instr)._tgt;
+    if (instr instanceof FalseJumpInstr)
+      return ((FalseJumpInstr)instr)._tgt;
+    if (instr instanceof RelopJumpInstr)
+      return ((RelopJumpInstr)instr)._tgt;
+    return null;
+  }
+
+  // a conditional jump to the next block is still one edge
+  private static void edge(BasicBlock from, BasicBlock to) {
+    if (!from._succs.contains(to)) {
+      from._succs.add(to);
+      to._preds.add(from);
+    }
+  }
+
+  // depth first from the entry with an explicit stack, as functions can
+  // be long chains of blocks
+  private void order() {
+    int n = _blocks.size();
+    BasicBlock[] stack = new BasicBlock[n];
+    int[] next = new int[n];
+    boolean[] seen = new boolean[n];
+    List<BasicBlock> post = new ArrayList<BasicBlock>(n);
+    int top = 0;
+    stack[0] = _blocks.get(0);
+    seen[0] = true;
+    while (0 <= top) {
+      BasicBlock b = stack[top];
+      if (next[top] < b._succs.size()) {
+        BasicBlock s = b._succs.get(next[top]++);
+        if (!seen[s._id]) {
+          seen[s._id] = true;
+          stack[++top] = s;
+          next[top] = 0;
+        }
+      } else {
+        post.add(b);
+        top--;
+      }
+    }
+    for (int i=post.size() - 1; i>=0; i--) {
+      BasicBlock b = post.get(i);
+      b._rpo = _rpo.size();
+      _rpo.add(b);
+    }
+  }
+
+  private void dominators() {
+    int n = _rpo.size();
+    int[] idom = new int[n];		// by reverse postorder number
+    Arrays.fill(idom, -1);
+    idom[0] = 0;
+    for (boolean changed = true; changed; ) {
+      changed = false;
+      for (int i=1; i<n; i++) {
+        int d = -1;
+        for (BasicBlock p : _rpo.get(i)._preds)
+          if (p.reachable() && -1 != idom[p._rpo])
+            d = -1 == d ? p._rpo : intersect(idom, p._rpo, d);
+        if (idom[i] != d) {
+          idom[i] = d;
+          changed = true;
+        }
+      }
+    }
+    for (int i=1; i<n; i++) {
+      BasicBlock b = _rpo.get(i);
+      b._idom = _rpo.get(idom[i]);
+      b._idom._dominated.add(b);
+    }
+    number();
+  }
+
+  private static int intersect(int[] idom, int a, int b) {
+    while (a != b) {
+      while (a > b)
+        a = idom[a];
+      while (b > a)
+        b = idom[b];
+    }
+    return a;
+  }
+
+  // preorder intervals of the dominator tree, for dominates()
+  private void number() {
+    int n = _rpo.size();
+    BasicBlock[] stack = new BasicBlock[n];
+    int[] next = new int[n];
+    int top = 0, counter = 0;
+    stack[0] = _rpo.get(0);
+    stack[0]._domFirst = counter++;
+    while (0 <= top) {
+      BasicBlock b = stack[top];
+      if (next[top] < b._dominated.size()) {
+        BasicBlock c = b._dominated.get(next[top]++);
+        c._domFirst = counter++;
+        stack[++top] = c;
+        next[top] = 0;
+      } else {
+        b._domLast = counter - 1;
+        top--;
+      }
+    }
+  }
+
+  BasicBlock entry() { return _blocks.get(0); }
+
+  // the instructions again, in layout order
+  List<Instruction> instructions() {
+    List<Instruction> result = new ArrayList<Instruction>();
+    for (BasicBlock b : _blocks)
+      result.addAll(b._instrs);
+    return result;
+  }
+}
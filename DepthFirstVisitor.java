@@ -1,3 +1,5 @@
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 abstract class DepthFirstVisitor extends Visitor {
@@ -26,30 +28,155 @@ abstract class DepthFirstVisitor extends Visitor {
   // ---------------- statements ----------------
   Object visit(VarDef ast) { return v(ast._var).v(ast._rhs); }
   Object visit(AssignStmt ast) { return v(ast._lhs).v(ast._rhs); }
-  Object visit(BlockStmt ast) { return v(ast._stmts); }
+  Object visit(BlockStmt ast) { return walk(ast); }
   Object visit(CallStmt ast) { return v(ast._expr); }
-  Object visit(ForStmt ast) { return v(ast._var).v(ast._expr).v(ast._body); }
-  Object visit(IfStmt ast) {
-    v(ast._cond).v(ast._thenBranch);
-    if (null != ast._elseBranch)
-      v(ast._elseBranch);
-    return this;
-  }
+  Object visit(ForStmt ast) { return walk(ast); }
+  Object visit(IfStmt ast) { return walk(ast); }
   Object visit(ReturnStmt ast) {
     if (null != ast._expr)
       v(ast._expr);
     return this;
   }
-  Object visit(WhileStmt ast) { return v(ast._cond).v(ast._body); }
+  Object visit(WhileStmt ast) { return walk(ast); }
+
+  // what subclasses do around the blocks and the statements with blocks,
+  // which walk() calls instead of visiting them: the parts before a body in
+  // enter(), each statement of a block between before() and after(), and
+  // between() only for an if with an else branch
+  void enter(BlockStmt ast) { }
+  void before(BlockStmt ast, int i) { }
+  void after(BlockStmt ast, int i) { }
+  void leave(BlockStmt ast) { }
+  void enter(ForStmt ast) { v(ast._var).v(ast._expr); }
+  void leave(ForStmt ast) { }
+  void enter(IfStmt ast) { v(ast._cond); }
+  void between(IfStmt ast) { }
+  void leave(IfStmt ast) { }
+  void enter(WhileStmt ast) { v(ast._cond); }
+  void leave(WhileStmt ast) { }
+
+  private static boolean compound(Stmt ast) {
+    return ast instanceof BlockStmt || ast instanceof ForStmt
+      || ast instanceof IfStmt || ast instanceof WhileStmt;
+  }
+
+  // blocks nest through the statements in them as deep as the program
+  // does, so they are walked with a stack of the open ones and how far each
+  // has got: the next statement of a block, or the next branch of an if
+  private Object walk(Stmt ast) {
+    List<Stmt> open = new ArrayList<Stmt>();
+    int[] next = new int[16];
+    open.add(ast);
+    enter(ast);
+    while (true) {
+      int top = open.size() - 1;
+      Stmt s = open.get(top);
+      int i = next[top]++;
+      Stmt child = null;
+      if (s instanceof BlockStmt) {
+        BlockStmt block = (BlockStmt)s;
+        if (i < block._stmts.size()) {
+          before(block, i);
+          child = block._stmts.get(i);
+          if (!compound(child)) {
+            child.accept(this);
+            after(block, i);
+            continue;
+          }
+        }
+      } else if (s instanceof ForStmt) {
+        child = 0 == i ? ((ForStmt)s)._body : null;
+      } else if (s instanceof WhileStmt) {
+        child = 0 == i ? ((WhileStmt)s)._body : null;
+      } else if (0 == i) {
+        child = ((IfStmt)s)._thenBranch;
+      } else if (1 == i && null != ((IfStmt)s)._elseBranch) {
+        between((IfStmt)s);
+        child = ((IfStmt)s)._elseBranch;
+      }
+      if (null != child) {
+        if (next.length == open.size())
+          next = Arrays.copyOf(next, 2 * next.length);
+        next[open.size()] = 0;
+        open.add(child);
+        enter(child);
+        continue;
+      }
+      open.remove(top);
+      leave(s);
+      if (0 == top)
+        return this;
+      if (open.get(top - 1) instanceof BlockStmt)
+        after((BlockStmt)open.get(top - 1), next[top - 1] - 1);
+    }
+  }
+
+  private void enter(Stmt ast) {
+    if (ast instanceof BlockStmt)
+      enter((BlockStmt)ast);
+    else if (ast instanceof ForStmt)
+      enter((ForStmt)ast);
+    else if (ast instanceof IfStmt)
+      enter((IfStmt)ast);
+    else
+      enter((WhileStmt)ast);
+  }
+
+  private void leave(Stmt ast) {
+    if (ast instanceof BlockStmt)
+      leave((BlockStmt)ast);
+    else if (ast instanceof ForStmt)
+      leave((ForStmt)ast);
+    else if (ast instanceof IfStmt)
+      leave((IfStmt)ast);
+    else
+      leave((WhileStmt)ast);
+  }
 
   // ---------------- expressions ----------------
-  Object visit(InfixExpr ast) { return v(ast._lhs).v(ast._rhs); }
-  Object visit(PrefixExpr ast) { return v(ast._base); }
+  // an infix chain such as a + b + ... + z nests as deep as it is long, so
+  // its left spine is walked with a list, not with the Java stack
+  static List<InfixExpr> leftSpine(InfixExpr ast) {
+    List<InfixExpr> result = new ArrayList<InfixExpr>();
+    for (Expr e = ast; e instanceof InfixExpr; e = ((InfixExpr)e)._lhs)
+      result.add((InfixExpr)e);
+    return result;
+  }
+  // and so does a run of prefix operators and parentheses, which is walked
+  // down to the operand under it
+  static boolean unary(Expr ast) {
+    return ast instanceof PrefixExpr || ast instanceof ParenExpr;
+  }
+  static Expr unaryBase(Expr ast) {
+    if (ast instanceof PrefixExpr)
+      return ((PrefixExpr)ast)._base;
+    return ((ParenExpr)ast)._base;
+  }
+  static List<Expr> unaryRun(Expr ast) {
+    List<Expr> result = new ArrayList<Expr>();
+    for (Expr e = ast; unary(e); e = unaryBase(e))
+      result.add(e);
+    return result;
+  }
+  Object visit(InfixExpr ast) {
+    List<InfixExpr> spine = leftSpine(ast);
+    v(spine.get(spine.size() - 1)._lhs);
+    for (int i=spine.size() - 1; 0 <= i; i--)
+      v(spine.get(i)._rhs);
+    return this;
+  }
+  Object visit(PrefixExpr ast) {
+    List<Expr> run = unaryRun(ast);
+    return v(unaryBase(run.get(run.size() - 1)));
+  }
   Object visit(CallExpr ast) { return v(ast._base).v(ast._actuals); }
   Object visit(CastExpr ast) { return v(ast._base).v(ast._targetType); }
   Object visit(FieldExpr ast) { return v(ast._base).v(ast._field); }
   Object visit(SubscriptExpr ast) { return v(ast._base).v(ast._subscript); }
-  Object visit(ParenExpr ast) { return v(ast._base); }
+  Object visit(ParenExpr ast) {
+    List<Expr> run = unaryRun(ast);
+    return v(unaryBase(run.get(run.size() - 1)));
+  }
 
   // ---------------- identifiers ----------------
   Object visit(FieldId ast) { return this; }
@@ -0,0 +1,108 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+// assembly text goes into one byte buffer; with a channel the buffer is
+// reused and written out only when full or on flush, without a channel it
+// grows and keeps everything (e.g. the code of one function)
+class Emitter {
+  static final int CHANNEL_BUFFER = 1 << 20;
+  byte[] _buf;
+  int _len;
+  WritableByteChannel _channel;
+
+  Emitter() {
+    _buf = new byte[4096];
+    _len = 0;
+    _channel = null;
+  }
+  Emitter(WritableByteChannel channel) {
+    _buf = new byte[CHANNEL_BUFFER];
+    _len = 0;
+    _channel = channel;
+  }
+
+  private void reserve(int n) {
+    if (_len + n <= _buf.length)
+      return;
+    if (null != _channel) {
+      flush();
+      if (n <= _buf.length)
+        return;
+    }
+    _buf = Arrays.copyOf(_buf, Math.max(2 * _buf.length, _len + n));
+  }
+
+  Emitter print(String s) {
+    int n = s.length();
+    reserve(n);
+    for (int i=0; i<n; i++) {
+      char c = s.charAt(i);
+      if (0x80 <= c) {
+        // rare, e.g. inside a string literal
+        _len -= i;
+        return write(s.getBytes(StandardCharsets.UTF_8));
+      }
+      _buf[_len++] = (byte)c;
+    }
+    return this;
+  }
+  Emitter print(int i) { return print(Integer.toString(i)); }
+  Emitter print(char c) {
+    if (0x80 <= c)
+      return print(String.valueOf(c));
+    reserve(1);
+    _buf[_len++] = (byte)c;
+    return this;
+  }
+  Emitter println() { return print('\n'); }
+
+  Emitter write(byte[] bytes) { return write(bytes, 0, bytes.length); }
+  Emitter write(byte[] bytes, int off, int len) {
+    if (null != _channel && len > _buf.length) {
+      flush();
+      drain(_channel, ByteBuffer.wrap(bytes, off, len));
+      return this;
+    }
+    reserve(len);
+    System.arraycopy(bytes, off, _buf, _len, len);
+    _len += len;
+    return this;
+  }
+  Emitter append(Emitter other) { return write(other._buf, 0, other._len); }
+
+  void flush() {
+    if (null == _channel || 0 == _len)
+      return;
+    drain(_channel, ByteBuffer.wrap(_buf, 0, _len));
+    _len = 0;
+  }
+  void writeTo(WritableByteChannel channel) {
+    drain(channel, ByteBuffer.wrap(_buf, 0, _len));
+  }
+  void close() {
+    flush();
+    try {
+      if (null != _channel)
+        _channel.close();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+  private static void drain(WritableByteChannel channel, ByteBuffer b) {
+    try {
+      while (b.hasRemaining())
+        channel.write(b);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  byte[] toByteArray() { return Arrays.copyOf(_buf, _len); }
+  public String toString() {
+    return new String(_buf, 0, _len, StandardCharsets.UTF_8);
+  }
+}
@@ -1,36 +1,84 @@
 import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
 import xtc.parser.ParseError;
 import xtc.parser.ParseException;
 import xtc.parser.ParserBase;
-import xtc.tree.Location;
 
+class CompileAbort extends RuntimeException {
+  private static final long serialVersionUID = 1L;
+  final int _status;
+  CompileAbort(int status) { super("compilation aborted"); _status = status; }
+}
+
+// one per compilation, so that several can run side by side in one JVM
 class ErrorPrinter {
-  static int _count;
-  ErrorPrinter() { _count = 0; }
-  static void exit() {
+  int _count;
+  PrintStream _err;
+  boolean _exitOnError;
+  List<String> _pending;
+  LineTable _lines;		// of the source, once it is parsed
+  ErrorPrinter() { this(System.err, true); }
+  // a long-running host gets an exception instead of System.exit
+  ErrorPrinter(PrintStream err, boolean exitOnError) {
+    _count = 0;
+    _err = err;
+    _exitOnError = exitOnError;
+    _pending = null;
+    _lines = null;
+  }
+  // collects messages without printing them, see replay
+  ErrorPrinter buffered() {
+    ErrorPrinter result = new ErrorPrinter(_err, _exitOnError);
+    result._pending = new ArrayList<String>();
+    result._lines = _lines;
+    return result;
+  }
+  void replay(ErrorPrinter buffer) {
+    for (String line : buffer._pending)
+      report(line);
+  }
+  void exit() {
     if (0 == _count)
-      System.exit(0);
+      terminate(0);
     if (1 == _count)
-      System.err.println("There was 1 error.");
+      _err.println("There was 1 error.");
     else
-      System.err.println("There were " + _count + " errors.");
-    System.exit(-1);      
+      _err.println("There were " + _count + " errors.");
+    terminate(-1);
   }
-  static void print(ParserBase parser, ParseError err) {
+  private void terminate(int status) {
+    if (_exitOnError)
+      System.exit(status);
+    throw new CompileAbort(status);
+  }
+  void print(ParserBase parser, ParseError err) {
     _count++;
     try {
       parser.signal(err);
     } catch (ParseException exc) {
-      System.err.println(exc.getMessage());
+      _err.println(exc.getMessage());
     } catch (IOException exc) {
-      System.exit(-2);
+      terminate(-2);
     }
     if (100 <= _count)
       exit();
   }
-  static void print(Location loc, String msg) {
+  void print(int loc, String msg) {
+    report(_lines.location(loc) + ": " + msg + ".");
+  }
+  // for diagnostics about a file other than the source
+  void print(String fileName, String msg) {
+    report(fileName + ": " + msg + ".");
+  }
+  private void report(String line) {
     _count++;
-    System.err.println(loc.toString() + ": " + msg + ".");
+    if (null != _pending) {
+      _pending.add(line);
+      return;
+    }
+    _err.println(line);
     if (100 <= _count)
       exit();
   }
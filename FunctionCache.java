@@ -0,0 +1,290 @@
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+// the functions a body calls, with their signatures, in name order
+class CalleeCollector extends DepthFirstVisitor {
+  Map<String, String> _callees = new TreeMap<String, String>();
+  Object visit(FunId ast) {
+    if (null != ast._sym)
+      _callees.put(ast._id, ast._sym.type().toString());
+    return this;
+  }
+}
+
+// the syntax tree as nested parentheses, unambiguous without indentation
+class TreeKeyPrinter extends SyntaxTreePrinter {
+  TreeKeyPrinter(PrintWriter writer) { super(writer); }
+  SyntaxTreePrinter begin(AstNode ast, String attr) {
+    p("(").p(ast.getClass().getSimpleName());
+    if (null != attr)
+      p(" ").p(attr);
+    return this;
+  }
+  SyntaxTreePrinter end(AstNode ast) { return p(")"); }
+}
+
+// feeds printed text straight into a digest, as UTF-8
+class DigestWriter extends Writer {
+  final MessageDigest _md;
+  final byte[] _buf = new byte[4096];
+  int _len;
+  DigestWriter(MessageDigest md) { _md = md; _len = 0; }
+  public void write(char[] cs, int off, int len) {
+    write(String.valueOf(cs, off, len), 0, len);
+  }
+  public void write(String s, int off, int len) {
+    for (int i=off; i<off + len; i++) {
+      char c = s.charAt(i);
+      if (0x80 <= c) {
+        flush();
+        _md.update(String.valueOf(c).getBytes(StandardCharsets.UTF_8));
+        continue;
+      }
+      if (_len == _buf.length)
+        flush();
+      _buf[_len++] = (byte)c;
+    }
+  }
+  public void flush() {
+    _md.update(_buf, 0, _len);
+    _len = 0;
+  }
+  public void close() { flush(); }
+}
+
+// the assembly of one function as cached; string labels in it are numbered
+// from _first, and the function has _strings of them
+class CachedFunction {
+  static final byte[] DIRECTIVE = ".string".getBytes(StandardCharsets.UTF_8);
+  final int _first, _strings;
+  final byte[] _asm;
+  CachedFunction(int first, int strings, byte[] asm) {
+    _first = first;
+    _strings = strings;
+    _asm = asm;
+  }
+
+  // renumbers the string labels, e.g. f.S_3 to f.S_7, except inside the
+  // .string lines, which hold the literals themselves
+  Emitter relabel(String function, int first) {
+    Emitter result = new Emitter();
+    if (first == _first)
+      return result.write(_asm);
+    byte[] prefix = (function + ".S_").getBytes(StandardCharsets.UTF_8);
+    int done = 0;
+    boolean literal = false, lineStart = true;
+    for (int i=0; i<_asm.length; i++) {
+      byte c = _asm[i];
+      if ('\n' == c) {
+        literal = false;
+        lineStart = true;
+        continue;
+      }
+      if (lineStart && ' ' != c) {
+        lineStart = false;
+        literal = startsWith(_asm, i, DIRECTIVE);
+      }
+      if (literal || !startsWith(_asm, i, prefix))
+        continue;
+      int j = i + prefix.length, n = 0;
+      while (j < _asm.length && '0' <= _asm[j] && _asm[j] <= '9')
+        n = 10 * n + (_asm[j++] - '0');
+      result.write(_asm, done, i + prefix.length - done);
+      result.print(n - _first + first);
+      done = j;
+      i = j - 1;
+    }
+    return result.write(_asm, done, _asm.length - done);
+  }
+
+  private static boolean startsWith(byte[] b, int at, byte[] prefix) {
+    if (at + prefix.length > b.length)
+      return false;
+    for (int i=0; i<prefix.length; i++)
+      if (b[at + i] != prefix[i])
+        return false;
+    return true;
+  }
+}
+
+// content-addressed assembly of single functions on disk; the key covers
+// the normalized tree of the function, the signatures of the functions it
+// calls, the options and the compiler itself; least recently used
+// entries go first once the directory grows beyond _limit bytes
+class FunctionCache {
+  static final int FORMAT = 1;
+  static final long DEFAULT_LIMIT = 64L << 20;
+  static final String SUFFIX = ".fn";
+  static final byte[] COMPILER = fingerprint();
+  final Path _dir;
+  final long _limit;
+  String _options;
+
+  FunctionCache(String dir, long limit) throws IOException {
+    _dir = Paths.get(dir);
+    _limit = limit;
+    _options = "";
+    Files.createDirectories(_dir);
+  }
+
+  private static MessageDigest sha256() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  // every class file next to this one, or the jar holding it, so that a
+  // rebuilt compiler does not reuse stale code whichever class changed; a
+  // compiler that cannot be read this way never reuses entries
+  private static byte[] fingerprint() {
+    MessageDigest md = sha256();
+    try {
+      Path home = Paths.get(FunctionCache.class.getProtectionDomain()
+                            .getCodeSource().getLocation().toURI());
+      List<Path> files = new ArrayList<Path>();
+      if (Files.isDirectory(home)) {
+        try (DirectoryStream<Path> dir =
+               Files.newDirectoryStream(home, "*.class")) {
+          for (Path file : dir)
+            files.add(file);
+        }
+      } else {
+        files.add(home);
+      }
+      Collections.sort(files);
+      for (Path file : files) {
+        md.update(file.getFileName().toString()
+                  .getBytes(StandardCharsets.UTF_8));
+        md.update(Files.readAllBytes(file));
+      }
+    } catch (IOException | URISyntaxException | RuntimeException e) {
+      md.update(UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8));
+    }
+    return md.digest();
+  }
+
+  // call after semantic analysis, which resolves the callees
+  String key(FunDef fun) {
+    MessageDigest md = sha256();
+    md.update(COMPILER);
+    md.update((FORMAT + "\n" + _options + "\n").getBytes(StandardCharsets.UTF_8));
+    PrintWriter tree = new PrintWriter(new DigestWriter(md));
+    fun.accept(new TreeKeyPrinter(tree));
+    tree.flush();
+    CalleeCollector callees = new CalleeCollector();
+    fun.accept(callees);
+    for (Map.Entry<String, String> e : callees._callees.entrySet())
+      md.update((e.getKey() + " : " + e.getValue() + "\n")
+                .getBytes(StandardCharsets.UTF_8));
+    StringBuilder result = new StringBuilder();
+    for (byte b : md.digest())
+      result.append(Character.forDigit((b >> 4) & 15, 16))
+        .append(Character.forDigit(b & 15, 16));
+    return result.toString();
+  }
+
+  private Path path(String key) { return _dir.resolve(key + SUFFIX); }
+
+  // null on a miss; a hit counts as a use for eviction
+  CachedFunction get(String key) {
+    Path p = path(key);
+    try (DataInputStream in = new DataInputStream(Files.newInputStream(p))) {
+      if (FORMAT != in.readInt())
+        return null;
+      int first = in.readInt(), strings = in.readInt();
+      byte[] asm = new byte[in.readInt()];
+      in.readFully(asm);
+      Files.setLastModifiedTime(p, FileTime.fromMillis(System.currentTimeMillis()));
+      return new CachedFunction(first, strings, asm);
+    } catch (IOException e) {
+      return null;	// missing, or being replaced, or damaged
+    }
+  }
+
+  // written aside and renamed, so that concurrent compilers never see a
+  // partial entry
+  void put(String key, CachedFunction f) {
+    Path tmp = null;
+    try {
+      tmp = Files.createTempFile(_dir, key, ".tmp");
+      try (DataOutputStream out =
+             new DataOutputStream(Files.newOutputStream(tmp))) {
+        out.writeInt(FORMAT);
+        out.writeInt(f._first);
+        out.writeInt(f._strings);
+        out.writeInt(f._asm.length);
+        out.write(f._asm);
+      }
+      Files.move(tmp, path(key), StandardCopyOption.REPLACE_EXISTING,
+                 StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      try {
+        if (null != tmp)
+          Files.deleteIfExists(tmp);
+      } catch (IOException e2) {
+        /* nothing left to do */
+      }
+    }
+  }
+
+  // deletes the least recently used entries until the rest fit the limit
+  void evict() {
+    final List<Path> entries = new ArrayList<Path>();
+    final Map<Path, FileTime> used = new TreeMap<Path, FileTime>();
+    long total = 0;
+    try (DirectoryStream<Path> dir =
+           Files.newDirectoryStream(_dir, "*" + SUFFIX)) {
+      for (Path p : dir) {
+        try {
+          total += Files.size(p);
+          used.put(p, Files.getLastModifiedTime(p));
+          entries.add(p);
+        } catch (IOException e) {
+          /* evicted by someone else */
+        }
+      }
+    } catch (IOException e) {
+      return;
+    }
+    if (total <= _limit)
+      return;
+    Collections.sort(entries, new Comparator<Path>() {
+      public int compare(Path a, Path b) {
+        return used.get(a).compareTo(used.get(b));
+      }
+    });
+    for (Path p : entries) {
+      if (total <= _limit)
+        break;
+      try {
+        long size = Files.size(p);
+        Files.deleteIfExists(p);
+        total -= size;
+      } catch (IOException e) {
+        /* evicted by someone else */
+      }
+    }
+  }
+}
@@ -0,0 +1,253 @@
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+// everything one function needs to go through the passes on its own thread
+class FunctionContext {
+  final FunDef _fun;
+  final SymbolTable _symTab;
+  final ErrorPrinter _errors;
+  ErrorPrinter _scopeErrors;	// fused only, before all of _errors
+  Emitter _asm;
+  Throwable _failure;
+  String _key;			// with a cache only
+  CachedFunction _cached;	// null on a miss
+  int _firstString;
+  FunctionContext(FunDef fun, SymbolTable symTab, ErrorPrinter errors) {
+    _fun = fun;
+    _symTab = new SymbolTable(symTab._topLevel);
+    _errors = errors.buffered();
+    _scopeErrors = null;
+    _asm = null;
+    _failure = null;
+    _key = null;
+    _cached = null;
+    _firstString = 0;
+  }
+}
+
+abstract class FunctionPhase {
+  abstract void run(FunctionContext c);
+}
+
+// runs the passes after scope analysis one function at a time on a
+// fork-join pool; diagnostics and assembly are merged in source order, so
+// the result does not depend on scheduling; with a cache, functions found
+// in it skip code generation altogether
+class FunctionPasses {
+  List<FunctionContext> _contexts;
+  SymbolTable _symTab;
+  TypeTable _types;
+  ErrorPrinter _errors;
+  PhaseTimer _timer;
+  FunctionCache _cache;
+  boolean _fused;		// lowered by fuse(), not generate()
+  List<FunDef> _imports;	// see InterfaceFile
+  boolean _ssa;			// through SSAForm before sbgen
+
+  FunctionPasses(Program ast, SymbolTable symTab, ErrorPrinter errors,
+                 PhaseTimer timer, FunctionCache cache) {
+    _contexts = new ArrayList<FunctionContext>(ast._functions.size());
+    for (FunDef fun : ast._functions)
+      _contexts.add(new FunctionContext(fun, symTab, errors));
+    _symTab = symTab;
+    _types = new TypeTable(Intrinsics.TYPES);
+    _errors = errors;
+    _timer = timer;
+    _cache = cache;
+    _fused = false;
+    _imports = new ArrayList<FunDef>();
+    _ssa = false;
+  }
+
+  void analyze() {
+    PhaseMark mark = _timer.begin("types");
+    for (FunctionContext c : _contexts)
+      _types.signature(c._fun);
+    for (FunDef fun : _imports)
+      _types.signature(fun);
+    _timer.end(mark);
+    forEach("semantic", new FunctionPhase() {
+      void run(FunctionContext c) {
+        c._fun.accept(new SemanticAnalyzer(c._symTab, _types, c._errors));
+      }
+    });
+    _timer.ratio("relations", _types._hits.sum(), _types._lookups.sum());
+  }
+
+  // instead of a whole ScopeAnalyzer pass, analyze() and the IR of
+  // generate(): the signatures are defined first, and then each function
+  // goes through a FusedGenerator; its diagnostics are replayed as
+  // ScopeAnalyzer and SemanticAnalyzer would have printed them, the scope
+  // ones of all functions before any other
+  void fuse() {
+    _fused = true;
+    PhaseMark mark = _timer.begin("scope");
+    ScopeAnalyzer analyzer = new ScopeAnalyzer(_symTab, null);
+    for (FunctionContext c : _contexts) {
+      c._scopeErrors = _errors.buffered();
+      analyzer._errors = c._scopeErrors;
+      analyzer.signature(c._fun);
+      _types.signature(c._fun);
+    }
+    for (FunDef fun : _imports)
+      _types.signature(fun);
+    ErrorPrinter intrinsicErrors = _errors.buffered();
+    InterfaceFile.defImports(_symTab, _imports, intrinsicErrors);
+    Intrinsics.defIntrinsics(_symTab, intrinsicErrors);
+    _timer.end(mark);
+    invoke("fused", new FunctionPhase() {
+      void run(FunctionContext c) {
+        c._fun.accept(new FusedGenerator(c._symTab, _types, c._scopeErrors,
+                                         c._errors));
+      }
+    });
+    _timer.ratio("relations", _types._hits.sum(), _types._lookups.sum());
+    for (FunctionContext c : _contexts)
+      _errors.replay(c._scopeErrors);
+    _errors.replay(intrinsicErrors);
+    replay();
+  }
+
+  // with ir, the IR of every function is printed there, so nothing can
+  // come from the cache
+  void generate(PrintWriter ir) {
+    if (null != _cache && null == ir)
+      forEach("cache", new FunctionPhase() {
+        void run(FunctionContext c) {
+          c._key = _cache.key(c._fun);
+          c._cached = _cache.get(c._key);
+        }
+      });
+    if (!_fused)
+      forEach("irgen", new FunctionPhase() {
+        void run(FunctionContext c) {
+          if (null == c._cached)
+            c._fun.accept(new IRGenerator(c._symTab));
+        }
+      });
+    forEach("cfg", new FunctionPhase() {
+      void run(FunctionContext c) {
+        if (null == c._cached)
+          c._fun._sym._cfg = new ControlFlowGraph(c._fun._sym);
+      }
+    });
+    if (_ssa)
+      forEach("ssa", new FunctionPhase() {
+        void run(FunctionContext c) {
+          if (null == c._cached)
+            SSAForm.construct(c._fun._sym);
+        }
+      });
+    if (null != ir) {
+      PhaseMark mark = _timer.begin("irprint");
+      IRPrinter printer = new IRPrinter(ir, new SymbolTable(_symTab._topLevel));
+      for (int i=0, n=_contexts.size(); i<n; i++) {
+        _contexts.get(i)._fun.accept(printer);
+        if (i != n - 1)
+          printer.pln();
+      }
+      ir.flush();
+      _timer.end(mark);
+    }
+    if (_ssa)
+      forEach("outssa", new FunctionPhase() {
+        void run(FunctionContext c) {
+          if (null == c._cached)
+            SSAForm.destruct(c._fun._sym);
+        }
+      });
+    forEach("sbgen", new FunctionPhase() {
+      void run(FunctionContext c) {
+        if (null == c._cached)
+          c._fun.accept(new SBGenerator(c._symTab));
+      }
+    });
+    int strings = 0;
+    for (FunctionContext c : _contexts) {
+      c._firstString = strings;
+      if (null == c._cached) {
+        strings = SBGenerator.labelStrings(c._fun, strings);
+      } else {
+        c._asm = c._cached.relabel(c._fun._name._id, strings);
+        strings += c._cached._strings;
+      }
+    }
+  }
+
+  void print(Emitter out) {
+    forEach("sbprint", new FunctionPhase() {
+      void run(FunctionContext c) {
+        if (null != c._cached)
+          return;
+        c._asm = new Emitter();
+        c._fun.accept(new SBPrinter(c._asm, c._symTab));
+      }
+    });
+    if (null != _cache) {
+      forEach("cache", new FunctionPhase() {
+        void run(FunctionContext c) {
+          if (null == c._cached && null != c._key)
+            _cache.put(c._key, new CachedFunction(
+              c._firstString, c._fun._heldScope._rodatas.size(),
+              c._asm.toByteArray()));
+        }
+      });
+      PhaseMark mark = _timer.begin("cache");
+      _cache.evict();
+      _timer.end(mark);
+    }
+    PhaseMark mark = _timer.begin("emit");
+    new SBPrinter(out, _symTab).p(".intel_syntax").pln();
+    for (int i=0, n=_contexts.size(); i<n; i++) {
+      FunctionContext c = _contexts.get(i);
+      out.append(c._asm);
+      c._asm = null;
+      if (i != n - 1)
+        out.println();
+    }
+    out.flush();
+    _timer.end(mark);
+  }
+
+  // a failure surfaces after the diagnostics of the functions before it,
+  // just as it would in a serial run
+  private void forEach(String name, FunctionPhase phase) {
+    invoke(name, phase);
+    replay();
+  }
+
+  private void invoke(final String name, final FunctionPhase phase) {
+    PhaseMark mark = _timer.beginParallel(name);
+    List<RecursiveAction> tasks =
+      new ArrayList<RecursiveAction>(_contexts.size());
+    for (final FunctionContext c : _contexts)
+      tasks.add(new RecursiveAction() {
+        protected void compute() {
+          PhaseMark task = _timer.beginTask(name, c._fun._name._id);
+          try {
+            phase.run(c);
+          } catch (RuntimeException | AssertionError | StackOverflowError e) {
+            c._failure = e;
+          }
+          _timer.end(task);
+        }
+      });
+    ForkJoinTask.invokeAll(tasks);
+    _timer.end(mark);
+  }
+
+  private void replay() {
+    for (FunctionContext c : _contexts) {
+      _errors.replay(c._errors);
+      c._errors._pending.clear();
+      if (null != c._failure) {
+        if (c._failure instanceof RuntimeException)
+          throw (RuntimeException)c._failure;
+        throw (Error)c._failure;
+      }
+    }
+  }
+}
@@ -0,0 +1,197 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Set;
+
+// scope analysis, type checking and lowering to IR in one walk over a
+// function whose signature ScopeAnalyzer has already seen, along with those
+// of all others: each statement is analyzed and lowered right away, while
+// its nodes are still in the cache. The variables of a block are defined
+// as it is entered, so lookups see the same scopes as after a whole
+// ScopeAnalyzer pass, and the diagnostics are the same as from the separate
+// passes, in the same order; once there are any, the function is only
+// analyzed, as the separate passes would never lower it. The same goes
+// once a variable is used before its definition in its block, which leaves
+// types unknown before any diagnostic; if none ever comes, the function is
+// lowered again from the start. Variables are named when the function is
+// done, which gives them the names IRGenerator would have
+class FusedGenerator extends IRGenerator {
+  final ScopeAnalyzer _scopes;
+  final SemanticAnalyzer _checker;
+  final ErrorPrinter _scopeErrors;
+  final ErrorPrinter _errors;
+  final Set<VarDef> _duplicates;	// reported when they are reached
+  final Set<Stmt> _lowered;	// entered while lowering, so lowered to the end
+
+  FusedGenerator(SymbolTable symTab, TypeTable types, ErrorPrinter scopeErrors,
+                 ErrorPrinter errors) {
+    super(symTab);
+    _scopes = new ScopeAnalyzer(symTab, scopeErrors);
+    _checker = new SemanticAnalyzer(symTab, types, errors);
+    _scopeErrors = scopeErrors;
+    _errors = errors;
+    _duplicates = new HashSet<VarDef>();
+    _lowered = new HashSet<Stmt>();
+  }
+
+  // false once the function has diagnostics
+  boolean lowering() {
+    return 0 == _scopeErrors._count && 0 == _errors._count
+      && !_checker._forward;
+  }
+
+  private void def(VarSym sym) {
+    _symTab.def(sym);
+    sym._addr = new NameAddr(sym, null);
+  }
+
+  // the variables declared right in a block, before any of it is analyzed
+  private void define(BlockStmt ast) {
+    for (Stmt s : ast._stmts)
+      if (s instanceof VarDef) {
+        VarSym sym = new VarSym(_symTab._current, s);
+        if (_symTab.contains(sym.key()))
+          _duplicates.add((VarDef)s);
+        else
+          def(sym);
+      }
+  }
+
+  private void analyze(Stmt ast) {
+    ast.accept(_scopes);
+    ast.accept(_checker);
+  }
+
+  // ---------------- top-level ----------------
+  Object visit(FunDef ast) {
+    _fun = ast;
+    _checker._fun = ast;
+    _symTab.push(ast._heldScope);
+    ast._name.accept(_checker);
+    ast._type.accept(_checker);
+    for (Symbol formal : ast._heldScope.symbols())
+      ((VarSym)formal)._addr = new NameAddr((VarSym)formal, null);
+    ast._sym._instructions = new ArrayList<Instruction>();
+    ast._sym._temps = new ArrayList<TempAddr>();
+    ast._sym._labels = new ArrayList<Label>();
+    ast._body._needsScope = false;
+    ast._body._nextLabel = newLabel();
+    ast._body.accept(this);
+    if (lowering()) {
+      end(ast);
+      ast._sym._addresses =
+        findAddresses(new HashMap<String, Address>(), ast._heldScope);
+    } else {
+      ast._sym._instructions = null;
+      ast._sym._temps = null;
+      ast._sym._labels = null;
+      _pendingLabels.clear();
+    }
+    _symTab.pop(ast._heldScope);
+    if (0 == _scopeErrors._count && 0 == _errors._count && _checker._forward)
+      ast.accept(new IRGenerator(_symTab));
+    return ast._sym;
+  }
+
+  // ---------------- statements ----------------
+  Object visit(VarDef ast) {
+    if (_duplicates.contains(ast))
+      _scopes.duplicate(ast._sym);
+    ast._rhs.accept(_scopes);
+    ast.accept(_checker);
+    return lowering() ? super.visit(ast) : null;
+  }
+
+  Object visit(AssignStmt ast) {
+    analyze(ast);
+    return lowering() ? super.visit(ast) : null;
+  }
+
+  Object visit(CallStmt ast) {
+    analyze(ast);
+    return lowering() ? super.visit(ast) : null;
+  }
+
+  Object visit(ReturnStmt ast) {
+    analyze(ast);
+    return lowering() ? super.visit(ast) : null;
+  }
+
+  void enter(BlockStmt ast) {
+    if (ast._needsScope) {
+      ast._heldScope = new Scope(ast, _symTab._current);
+      _symTab.push(ast._heldScope);
+    }
+    define(ast);
+  }
+
+  void before(BlockStmt ast, int i) {
+    Stmt s = ast._stmts.get(i);
+    if (s instanceof BlockStmt)
+      ((BlockStmt)s)._needsScope = true;
+    super.before(ast, i);
+  }
+
+  void leave(BlockStmt ast) {
+    if (ast._needsScope)
+      _symTab.pop(ast._heldScope);
+  }
+
+  void enter(ForStmt ast) {
+    ast._heldScope = new Scope(ast, _symTab._current);
+    _symTab.push(ast._heldScope);
+    def(new VarSym(_symTab._current, ast));
+    ast._expr.accept(_scopes);
+    _checker.subject(ast);
+    ast._body._needsScope = false;
+    _symTab.pop(ast._heldScope);
+    if (lowering()) {
+      _lowered.add(ast);
+      super.enter(ast);
+    } else {
+      _symTab.push(ast._heldScope);
+    }
+  }
+
+  void leave(ForStmt ast) {
+    if (_lowered.remove(ast))
+      super.leave(ast);
+    else
+      _symTab.pop(ast._heldScope);
+  }
+
+  void enter(IfStmt ast) {
+    ast._thenBranch._needsScope = true;
+    ast._cond.accept(_scopes);
+    _checker.condition(ast._cond);
+    if (lowering()) {
+      _lowered.add(ast);
+      super.enter(ast);
+    }
+  }
+
+  void between(IfStmt ast) {
+    if (_lowered.contains(ast))
+      super.between(ast);
+  }
+
+  void leave(IfStmt ast) {
+    if (_lowered.remove(ast))
+      super.leave(ast);
+  }
+
+  void enter(WhileStmt ast) {
+    ast._body._needsScope = true;
+    ast._cond.accept(_scopes);
+    _checker.condition(ast._cond);
+    if (lowering()) {
+      _lowered.add(ast);
+      super.enter(ast);
+    }
+  }
+
+  void leave(WhileStmt ast) {
+    if (_lowered.remove(ast))
+      super.leave(ast);
+  }
+}
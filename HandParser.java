@@ -0,0 +1,483 @@
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import xtc.tree.Location;
+
+class SyntaxError extends RuntimeException {
+  private static final long serialVersionUID = 1L;
+  final Location _loc;
+  SyntaxError(Location loc) { super(loc + ": Syntax error."); _loc = loc; }
+}
+
+// recursive descent over TackLexer tokens, with explicit stacks for blocks
+// and operators, however deeply they nest; builds the normalized tree
+// directly, with the same nodes and locations as TackParser followed by
+// TreeNormalizer
+class HandParser {
+  final TackLexer _lex;
+  final LineTable _lines;
+  final NameTable _names;
+  final int[] _kind;
+  int _at;
+  // operators that expr() has not applied yet, innermost last: prefix ones
+  // and open parentheses with their locations, infix ones with INFIX
+  int[] _opKind, _opLoc;
+  int _ops, _parens;
+  final List<Expr> _operands;
+
+  HandParser(String file, TackLexer lex) {
+    _lex = lex;
+    _lines = new LineTable(file, lex._text, lex._length);
+    _names = new NameTable(Intrinsics.NAMES);
+    _kind = lex._kind;
+    _at = 0;
+    _opKind = new int[16];
+    _opLoc = new int[16];
+    _ops = 0;
+    _parens = 0;
+    _operands = new ArrayList<Expr>();
+  }
+
+  static Program parse(String fileName, Reader reader) throws IOException {
+    int sizeHint = reader instanceof MappedSource
+      ? ((MappedSource)reader)._size : 0;
+    return new HandParser(fileName, TackLexer.of(reader, sizeHint)).program();
+  }
+
+  static AstArena arena(String fileName, Reader reader) throws IOException {
+    int sizeHint = reader instanceof MappedSource
+      ? ((MappedSource)reader)._size : 0;
+    return new HandParser(fileName, TackLexer.of(reader, sizeHint)).arena();
+  }
+
+  // ---------------- tokens ----------------
+  private int kind() { return _kind[_at]; }
+  private int kind(int ahead) {
+    int i = Math.min(_at + ahead, _lex._count - 1);
+    return _kind[i];
+  }
+  private int loc() { return _lex._start[_at]; }
+  private SyntaxError error() {
+    return new SyntaxError(_lines.location(loc()));
+  }
+  private void expect(int kind) {
+    if (kind != _kind[_at])
+      throw error();
+    _at++;
+  }
+  private String text(int kind) {
+    if (kind != _kind[_at])
+      throw error();
+    return _lex.text(_at++);
+  }
+  // the NameTable key of an identifier
+  private int name() {
+    if (TackLexer.ID != _kind[_at])
+      throw error();
+    int result = _names.intern(_lex._text, _lex._start[_at], _lex._end[_at]);
+    _at++;
+    return result;
+  }
+  private FieldId fieldId() {
+    int loc = loc(), key = name();
+    return new FieldId(loc, _names.text(key), key);
+  }
+  private VarId varId() {
+    int loc = loc(), key = name();
+    return new VarId(loc, _names.text(key), key);
+  }
+
+  // ---------------- top level ----------------
+  Program program() {
+    List<FunDef> functions = new ArrayList<FunDef>();
+    do
+      functions.add(funDef());
+    while (TackLexer.EOF != kind());
+    Program result = new Program(0, functions);
+    result._lines = _lines;
+    result._names = _names;
+    return result;
+  }
+
+  // the same program packed one function at a time, so that the objects of
+  // no more than one function are alive at once
+  AstArena arena() {
+    AstArena result = new AstArena(_lines, _names, _lex._count);
+    ArenaPacker packer = new ArenaPacker(result);
+    do
+      result.addFunction(packer.pack(funDef()));
+    while (TackLexer.EOF != kind());
+    return result;
+  }
+
+  private FunDef funDef() {
+    int loc = loc(), key = name();
+    FunId name = new FunId(loc, _names.text(key), key);
+    expect(TackLexer.EQ);
+    expect(TackLexer.FUN);
+    int typeLoc = loc();
+    RecordType formals = recordType();
+    expect(TackLexer.ARROW);
+    Type returnType;
+    if (TackLexer.VOID == kind()) {
+      returnType = new PrimitiveType(loc(), PrimitiveType.VOID);
+      _at++;
+    } else {
+      returnType = type();
+    }
+    FunType type = new FunType(typeLoc, formals, returnType);
+    return new FunDef(loc, name, type, blockStmt());
+  }
+
+  // ---------------- types ----------------
+  private Type type() {
+    int loc = loc();
+    switch (kind()) {
+    case TackLexer.LBRACKET: {
+      _at++;
+      Type elem = type();
+      expect(TackLexer.RBRACKET);
+      return new ArrayType(loc, elem);
+    }
+    case TackLexer.LPAREN:
+      return recordType();
+    case TackLexer.BOOL:
+      _at++;
+      return new PrimitiveType(loc, PrimitiveType.BOOL);
+    case TackLexer.INT:
+      _at++;
+      return new PrimitiveType(loc, PrimitiveType.INT);
+    case TackLexer.STRING:
+      _at++;
+      return new PrimitiveType(loc, PrimitiveType.STRING);
+    default:
+      throw error();
+    }
+  }
+
+  private RecordType recordType() {
+    int loc = loc();
+    expect(TackLexer.LPAREN);
+    List<FieldType> fields = new ArrayList<FieldType>();
+    if (TackLexer.RPAREN != kind()) {
+      fields.add(fieldType());
+      while (TackLexer.COMMA == kind()) {
+        _at++;
+        fields.add(fieldType());
+      }
+    }
+    expect(TackLexer.RPAREN);
+    return new RecordType(loc, fields);
+  }
+
+  private FieldType fieldType() {
+    int loc = loc();
+    FieldId field = fieldId();
+    expect(TackLexer.COLON);
+    return new FieldType(loc, field, type());
+  }
+
+  // ---------------- statements ----------------
+  // blocks nest through the statements in them, so they are parsed with a
+  // stack of open blocks instead of by recursion; each compound statement
+  // is added to its block as soon as it starts, and its own block filled in
+  // afterwards, with the if statement whose else branch may follow
+  private BlockStmt blockStmt() {
+    List<BlockStmt> open = new ArrayList<BlockStmt>();
+    List<IfStmt> ifs = new ArrayList<IfStmt>();
+    BlockStmt result = block();
+    open.add(result);
+    ifs.add(null);
+    while (!open.isEmpty()) {
+      int top = open.size() - 1;
+      if (TackLexer.RCURLY == kind()) {
+        _at++;
+        BlockStmt done = open.remove(top);
+        IfStmt owner = ifs.remove(top);
+        if (null != owner && done == owner._thenBranch
+            && TackLexer.ELSE == kind()) {
+          _at++;
+          owner._elseBranch = block();
+          open.add(owner._elseBranch);
+          ifs.add(owner);
+        }
+        continue;
+      }
+      List<Stmt> stmts = open.get(top)._stmts;
+      int loc = loc();
+      BlockStmt body;
+      IfStmt owner = null;
+      switch (kind()) {
+      case TackLexer.LCURLY:
+        body = block();
+        stmts.add(body);
+        break;
+      case TackLexer.FOR: {
+        _at++;
+        VarId var = varId();
+        expect(TackLexer.IN);
+        Expr expr = expr();
+        body = block();
+        stmts.add(new ForStmt(loc, var, expr, body));
+        break;
+      }
+      case TackLexer.IF: {
+        _at++;
+        Expr cond = expr();
+        body = block();
+        owner = new IfStmt(loc, cond, body);
+        stmts.add(owner);
+        break;
+      }
+      case TackLexer.WHILE: {
+        _at++;
+        Expr cond = expr();
+        body = block();
+        stmts.add(new WhileStmt(loc, cond, body));
+        break;
+      }
+      default:
+        stmts.add(stmt());
+        continue;
+      }
+      open.add(body);
+      ifs.add(owner);
+    }
+    return result;
+  }
+
+  // an empty block, to be filled in by blockStmt()
+  private BlockStmt block() {
+    int loc = loc();
+    expect(TackLexer.LCURLY);
+    return new BlockStmt(loc, new ArrayList<Stmt>());
+  }
+
+  // a statement without a block of its own
+  private Stmt stmt() {
+    int loc = loc();
+    switch (kind()) {
+    case TackLexer.ARROW: {
+      _at++;
+      if (TackLexer.SEMI == kind()) {
+        _at++;
+        return new ReturnStmt(loc);
+      }
+      Expr expr = expr();
+      expect(TackLexer.SEMI);
+      return new ReturnStmt(loc, expr);
+    }
+    case TackLexer.ID:
+      if (TackLexer.EQ == kind(1)) {
+        VarId var = varId();
+        _at++;
+        Expr rhs = expr();
+        expect(TackLexer.SEMI);
+        return new VarDef(loc, var, rhs);
+      }
+      break;
+    default:
+      break;
+    }
+    // an assignment, or a call of a named function and nothing after it
+    Expr lhs = expr();
+    if (TackLexer.COLONEQ == kind()) {
+      _at++;
+      Expr rhs = expr();
+      expect(TackLexer.SEMI);
+      return new AssignStmt(loc, lhs, rhs);
+    }
+    if (TackLexer.SEMI == kind() && lhs instanceof CallExpr
+        && ((CallExpr)lhs)._base instanceof FunId) {
+      _at++;
+      return new CallStmt(loc, lhs);
+    }
+    throw error();
+  }
+
+  // ---------------- expressions ----------------
+  private static int precedence(int kind) {
+    switch (kind) {
+    case TackLexer.OR: return 1;
+    case TackLexer.AND: return 2;
+    case TackLexer.EQEQ: case TackLexer.NE: return 3;
+    case TackLexer.LE: case TackLexer.LT: case TackLexer.GE: case TackLexer.GT:
+      return 4;
+    case TackLexer.PLUS: case TackLexer.MINUS: return 5;
+    case TackLexer.TIMES: case TackLexer.DIV: case TackLexer.MOD: return 6;
+    default: return 0;
+    }
+  }
+
+  // operator precedence parsing with explicit stacks rather than precedence
+  // climbing, so that parentheses and prefix operators nest as deep as they
+  // like; all infix operators are left associative, prefix operators bind
+  // tighter than infix ones and postfix operators tighter still.  Every
+  // expression nested in a call, subscript or literal uses the stacks above
+  // the heights they had when it started.
+  private Expr expr() {
+    int base = _ops, parens = _parens;
+    while (true) {
+      // an operand, after any prefix operators and open parentheses
+      for (int k; TackLexer.NOT == (k = kind()) || TackLexer.MINUS == k
+             || TackLexer.LPAREN == k && !recordLitAhead(); _at++)
+        push(k, loc());
+      _operands.add(postfixExpr(primExpr()));
+      // then closing parentheses, each of which postfix operators may follow
+      int p;
+      while (0 == (p = precedence(kind()))) {
+        if (TackLexer.RPAREN != kind() || parens == _parens) {
+          if (parens != _parens)
+            throw error();
+          reduce(base, 0);
+          return _operands.remove(_operands.size() - 1);
+        }
+        reduce(base, 0);
+        int loc = _opLoc[--_ops];
+        _parens--;
+        _at++;
+        Expr inner = _operands.remove(_operands.size() - 1);
+        _operands.add(postfixExpr(new ParenExpr(loc, inner)));
+      }
+      reduce(base, p);
+      push(kind(), INFIX);
+      _at++;
+    }
+  }
+
+  // infix operators have no location of their own
+  private static final int INFIX = -1;
+
+  private void push(int kind, int loc) {
+    if (_opKind.length == _ops) {
+      _opKind = Arrays.copyOf(_opKind, 2 * _ops);
+      _opLoc = Arrays.copyOf(_opLoc, 2 * _ops);
+    }
+    if (TackLexer.LPAREN == kind)
+      _parens++;
+    _opKind[_ops] = kind;
+    _opLoc[_ops++] = loc;
+  }
+
+  // applies the operators above base and the innermost open parenthesis:
+  // prefix ones, and infix ones of at least the given precedence
+  private void reduce(int base, int minPrecedence) {
+    while (base < _ops && TackLexer.LPAREN != _opKind[_ops - 1]) {
+      int kind = _opKind[_ops - 1], loc = _opLoc[_ops - 1];
+      if (INFIX == loc && precedence(kind) < minPrecedence)
+        return;
+      _ops--;
+      Expr rhs = _operands.remove(_operands.size() - 1);
+      if (INFIX != loc) {
+        _operands.add(new PrefixExpr(loc, TackLexer.TEXT[kind], rhs));
+      } else {
+        Expr lhs = _operands.remove(_operands.size() - 1);
+        _operands.add(new InfixExpr(lhs._loc, TackLexer.TEXT[kind], lhs, rhs));
+      }
+    }
+  }
+
+  private boolean recordLitAhead() {
+    return TackLexer.RPAREN == kind(1)
+      || TackLexer.ID == kind(1) && TackLexer.EQ == kind(2);
+  }
+
+  private Expr postfixExpr(Expr base) {
+    while (true) {
+      switch (kind()) {
+      case TackLexer.LPAREN: {
+        Expr callee = base;
+        if (base instanceof VarId) {
+          VarId var = (VarId)base;
+          callee = new FunId(var._loc, var._id, var._key);
+        }
+        _at++;
+        List<Expr> actuals = exprList(TackLexer.RPAREN);
+        base = new CallExpr(callee._loc, callee, actuals);
+        break;
+      }
+      case TackLexer.COLON:
+        _at++;
+        base = new CastExpr(base._loc, base, type());
+        break;
+      case TackLexer.DOT: {
+        _at++;
+        FieldId field = fieldId();
+        base = new FieldExpr(base._loc, base, field);
+        break;
+      }
+      case TackLexer.LBRACKET: {
+        _at++;
+        Expr subscript = expr();
+        expect(TackLexer.RBRACKET);
+        base = new SubscriptExpr(base._loc, base, subscript);
+        break;
+      }
+      default:
+        return base;
+      }
+    }
+  }
+
+  // comma-separated, possibly empty, and consumes the closing token
+  private List<Expr> exprList(int close) {
+    List<Expr> result = new ArrayList<Expr>();
+    if (close != kind()) {
+      result.add(expr());
+      while (TackLexer.COMMA == kind()) {
+        _at++;
+        result.add(expr());
+      }
+    }
+    expect(close);
+    return result;
+  }
+
+  private Expr primExpr() {
+    int loc = loc();
+    switch (kind()) {
+    case TackLexer.ID:
+      return varId();
+    case TackLexer.LBRACKET:
+      _at++;
+      return new ArrayLit(loc, exprList(TackLexer.RBRACKET));
+    case TackLexer.LPAREN:
+      return recordLit();	// expr() opens the other parentheses
+    case TackLexer.TRUE: case TackLexer.FALSE:
+      return new BoolLit(loc, TackLexer.TEXT[_kind[_at++]]);
+    case TackLexer.INT_LIT:
+      return new IntLit(loc, text(TackLexer.INT_LIT));
+    case TackLexer.NULL:
+      _at++;
+      return new NullLit(loc);
+    case TackLexer.STRING_LIT:
+      return new StringLit(loc, text(TackLexer.STRING_LIT));
+    default:
+      throw error();
+    }
+  }
+
+  private RecordLit recordLit() {
+    int loc = loc();
+    expect(TackLexer.LPAREN);
+    List<FieldLit> fields = new ArrayList<FieldLit>();
+    if (TackLexer.RPAREN != kind()) {
+      fields.add(fieldLit());
+      while (TackLexer.COMMA == kind()) {
+        _at++;
+        fields.add(fieldLit());
+      }
+    }
+    expect(TackLexer.RPAREN);
+    return new RecordLit(loc, fields);
+  }
+
+  private FieldLit fieldLit() {
+    int loc = loc();
+    FieldId field = fieldId();
+    expect(TackLexer.EQ);
+    return new FieldLit(loc, field, expr());
+  }
+}
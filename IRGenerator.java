@@ -1,86 +1,103 @@
 import java.io.PrintWriter;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.TreeMap;
 
 //see aho_et_al_2007 Figures 6.19, 6.36, 6.37, 6.52 (pp. 379, 402, 404, 423)
 class IRGenerator extends DepthFirstVisitor {
   SymbolTable _symTab;
+  FunDef _fun;			// being lowered
+  final FunSym _size, _append, _newArray, _newRecord;
   List<Label> _pendingLabels = new ArrayList<Label>();
+  // the index and first label of each for loop being lowered, innermost last
+  List<Address> _forIndexes = new ArrayList<Address>();
+  List<Label> _forBegins = new ArrayList<Label>();
   static final ConstantAddr TRUE_CONSTANT =
-    new ConstantAddr(new BoolLit(null, "true"));
+    new ConstantAddr(new BoolLit(LineTable.NONE, "true"));
   ConstantAddr FALSE_CONSTANT =
-    new ConstantAddr(new BoolLit(null, "false"));
+    new ConstantAddr(new BoolLit(LineTable.NONE, "false"));
   ConstantAddr ZERO_CONSTANT =
-    new ConstantAddr(new IntLit(null, "0"));
+    new ConstantAddr(new IntLit(LineTable.NONE, "0"));
   ConstantAddr ONE_CONSTANT =
-    new ConstantAddr(new IntLit(null, "1"));
-
-  IRGenerator(SymbolTable symTab) { _symTab = symTab; }
+    new ConstantAddr(new IntLit(LineTable.NONE, "1"));
+
+  // the intrinsics it calls are looked up once, not per call
+  IRGenerator(SymbolTable symTab) {
+    _symTab = symTab;
+    _fun = null;
+    _size = Intrinsics.get(symTab, "size");
+    _append = Intrinsics.get(symTab, "append");
+    _newArray = Intrinsics.get(symTab, "newArray");
+    _newRecord = Intrinsics.get(symTab, "newRecord");
+  }
 
-  private IRGenerator label(Label lbl) {
+  IRGenerator label(Label lbl) {
     assert null != lbl;
     _pendingLabels.add(lbl);
     return this;
   }
 
-  private FunDef currentFunction() {
-    for (Scope s = _symTab._current; null != s; s = s._parent)
-      if (null != s._owner && s._owner instanceof FunDef)
-        return (FunDef)s._owner;
-    return null;
-  }
-
   private IRGenerator gen(Instruction instr) {
     assert 0 == instr._labels.size();
     instr._labels.addAll(_pendingLabels);
     _pendingLabels.clear();
-    currentFunction()._sym._instructions.add(instr);
+    _fun._sym._instructions.add(instr);
     return this;
   }
 
-  private String nextUniqueName(Map<String, Address> names, String base) {
-    String result = base;
-    int i = 0;
-    while (names.containsKey(result)) {
-      result = base + i;
-      i++;
+  // every variable of a function gets a distinct IR name, its own or the
+  // first free one of name0, name1, ..., probing on from where the last
+  // variable of that name stopped; names the addresses FusedGenerator made,
+  // and makes all others
+  Map<String, Address> findAddresses(Map<String, Address> result,
+                                     Scope scope) {
+    // scopes nest as deep as blocks do, so they are taken in preorder from
+    // a stack, the children of each pushed last to first
+    Map<String, Integer> suffixes = new HashMap<String, Integer>();
+    List<Scope> open = new ArrayList<Scope>();
+    open.add(scope);
+    while (!open.isEmpty()) {
+      Scope s = open.remove(open.size() - 1);
+      findAddresses(result, suffixes, s);
+      List<Scope> children = new ArrayList<Scope>(s._children);
+      for (int i=children.size() - 1; 0 <= i; i--)
+        open.add(children.get(i));
     }
     return result;
   }
 
-  private Map<String, Address> findAddresses(Map<String, Address> result,
-                                             Scope scope) {
-    for (final String srcName : scope._symbols.keySet()) {
-      Symbol sym = scope._symbols.get(srcName);
+  private void findAddresses(Map<String, Address> result,
+                             Map<String, Integer> suffixes, Scope scope) {
+    for (final Symbol sym : scope.symbols()) {
       if (sym instanceof VarSym) {
         VarSym varSym = (VarSym)sym;
-        String tgtName = nextUniqueName(result, srcName);
-        varSym._addr = new NameAddr(varSym, tgtName);
+        String base = sym.name(), tgtName = base;
+        Integer suffix = suffixes.get(base);
+        int i = null == suffix ? -1 : suffix;
+        while (result.containsKey(tgtName = -1 == i ? base : base + i))
+          i++;
+        suffixes.put(base, i + 1);
+        if (null == varSym._addr)
+          varSym._addr = new NameAddr(varSym, tgtName);
+        else
+          varSym._addr._name = tgtName;
         result.put(tgtName, varSym._addr);
       }
     }
-    for (final Scope child : scope._children)
-      findAddresses(result, child);
-    return result;
   }
 
-  private Label newLabel() {
-    FunDef fun = currentFunction();
-    Map<String, Address> addresses = fun._sym._addresses;
-    String tgtName = nextUniqueName(addresses, "L_" + fun._name._id);
-    Label result = new Label(tgtName);
-    addresses.put(tgtName, result);
+  Label newLabel() {
+    List<Label> labels = _fun._sym._labels;
+    Label result = new Label(labels.size());
+    labels.add(result);
     return result;
   }
 
-  private TempAddr newTemp(Type type) {
-    FunDef fun = currentFunction();
-    Map<String, Address> addresses = fun._sym._addresses;
-    String tgtName = nextUniqueName(addresses, "t");
-    TempAddr result = new TempAddr(type, tgtName);
-    addresses.put(tgtName, result);
+  TempAddr newTemp(Type type) {
+    List<TempAddr> temps = _fun._sym._temps;
+    TempAddr result = new TempAddr(type, temps.size());
+    temps.add(result);
     return result;
   }
 
@@ -96,14 +113,24 @@ class IRGenerator extends DepthFirstVisitor {
   }
 
   Object visit(FunDef ast) {
+    _fun = ast;
     _symTab.push(ast._heldScope);
     assert null == ast._sym._instructions && null == ast._sym._addresses;
     assert 0 == _pendingLabels.size();
     ast._sym._instructions = new ArrayList<Instruction>();
-    ast._sym._addresses = findAddresses(new TreeMap<String, Address>(),
+    ast._sym._addresses = findAddresses(new HashMap<String, Address>(),
                                         ast._heldScope);
+    ast._sym._temps = new ArrayList<TempAddr>();
+    ast._sym._labels = new ArrayList<Label>();
     ast._body._nextLabel = newLabel();
     ast._body.accept(this);
+    end(ast);
+    _symTab.pop(ast._heldScope);
+    return ast._sym;
+  }
+
+  // falling off the end of a function returns
+  void end(FunDef ast) {
     label(ast._body._nextLabel);
     Type returnType = ast._type._returnType;
     if (returnType.equals(PrimitiveType.VOIDT))
@@ -111,8 +138,6 @@ class IRGenerator extends DepthFirstVisitor {
     else
       gen(new ReturnInstr(ast._loc, ZERO_CONSTANT));
     assert 0 == _pendingLabels.size();
-    _symTab.pop(ast._heldScope);
-    return ast._sym;
   }
 
   // ---------------- statements ----------------
@@ -144,23 +169,24 @@ class IRGenerator extends DepthFirstVisitor {
     return null;    
   }
 
-  Object visit(BlockStmt ast) {
+  void enter(BlockStmt ast) {
     if (null != ast._heldScope)
       _symTab.push(ast._heldScope);
-    for (int i=0, n=ast._stmts.size(); i<(n-1); i++) {
-      Stmt s = ast._stmts.get(i);
-      s._nextLabel = newLabel();
-      s.accept(this);
-      label(s._nextLabel);
-    }
-    if (0 < ast._stmts.size()) {
-      Stmt s = ast._stmts.get(ast._stmts.size() - 1);
-      s._nextLabel = ast._nextLabel;
-      s.accept(this);
-    }
+  }
+
+  void before(BlockStmt ast, int i) {
+    int n = ast._stmts.size();
+    ast._stmts.get(i)._nextLabel = i == n - 1 ? ast._nextLabel : newLabel();
+  }
+
+  void after(BlockStmt ast, int i) {
+    if (i != ast._stmts.size() - 1)
+      label(ast._stmts.get(i)._nextLabel);
+  }
+
+  void leave(BlockStmt ast) {
     if (null != ast._heldScope)
       _symTab.pop(ast._heldScope);
-    return null;
   }
 
   Object visit(CallStmt ast) {
@@ -168,12 +194,12 @@ class IRGenerator extends DepthFirstVisitor {
     return null;
   }
 
-  Object visit(ForStmt ast) {
+  void enter(ForStmt ast) {
     _symTab.push(ast._heldScope);
     Address arrayAddr = (Address)ast._expr.accept(this);
     Address sizeAddr = newTemp(PrimitiveType.INTT);
     gen(new ParamInstr(ast._loc, arrayAddr, 0, 1));
-    gen(new CallInstr(ast._loc, sizeAddr, Intrinsics.get(_symTab, "size"), 1));
+    gen(new CallInstr(ast._loc, sizeAddr, _size, 1));
     Address indexAddr = newTemp(PrimitiveType.INTT);
     gen(new CopyInstr(ast._loc, indexAddr, ZERO_CONSTANT));
     Label begin = newLabel();
@@ -182,35 +208,35 @@ class IRGenerator extends DepthFirstVisitor {
     gen(new RelopJumpInstr(ast._loc,">=", indexAddr, sizeAddr,ast._nextLabel));
     Address varAddr = ast._var._sym._addr;
     gen(new ArrReadInstr(ast._loc, varAddr, arrayAddr, indexAddr));
-    ast._body.accept(this);
+    _forIndexes.add(indexAddr);
+    _forBegins.add(begin);
+  }
+
+  void leave(ForStmt ast) {
+    Address indexAddr = _forIndexes.remove(_forIndexes.size() - 1);
+    Label begin = _forBegins.remove(_forBegins.size() - 1);
     label(ast._body._nextLabel);
     gen(new InfixInstr(ast._loc, "+", indexAddr, indexAddr, ONE_CONSTANT));
     gen(new UncondJumpInstr(ast._loc, begin));
     _symTab.pop(ast._heldScope);
-    return null;
   }
 
-  Object visit(IfStmt ast) {
+  void enter(IfStmt ast) {
+    ast._cond._trueLabel = newLabel();
     if (null == ast._elseBranch) {
-      ast._cond._trueLabel = newLabel();
       ast._cond._falseLabel = ast._nextLabel;
-      ast._thenBranch._nextLabel = ast._nextLabel;
-      ast._cond.accept(this);
-      label(ast._cond._trueLabel);
-      ast._thenBranch.accept(this);
     } else {
-      ast._cond._trueLabel = newLabel();
       ast._cond._falseLabel = newLabel();
-      ast._thenBranch._nextLabel = ast._nextLabel;
       ast._elseBranch._nextLabel = ast._nextLabel;
-      ast._cond.accept(this);
-      label(ast._cond._trueLabel);
-      ast._thenBranch.accept(this);
-      gen(new UncondJumpInstr(ast._loc, ast._nextLabel));
-      label(ast._cond._falseLabel);
-      ast._elseBranch.accept(this);
     }
-    return null;
+    ast._thenBranch._nextLabel = ast._nextLabel;
+    ast._cond.accept(this);
+    label(ast._cond._trueLabel);
+  }
+
+  void between(IfStmt ast) {
+    gen(new UncondJumpInstr(ast._loc, ast._nextLabel));
+    label(ast._cond._falseLabel);
   }
 
   Object visit(ReturnStmt ast) {
@@ -221,7 +247,7 @@ class IRGenerator extends DepthFirstVisitor {
     return null;
   }
 
-  Object visit(WhileStmt ast) {
+  void enter(WhileStmt ast) {
     assert null != ast._nextLabel;
     ast._cond._trueLabel = newLabel();
     ast._cond._falseLabel = ast._nextLabel;
@@ -229,14 +255,15 @@ class IRGenerator extends DepthFirstVisitor {
     label(ast._body._nextLabel);
     ast._cond.accept(this);
     label(ast._cond._trueLabel);
-    ast._body.accept(this);
+  }
+
+  void leave(WhileStmt ast) {
     gen(new UncondJumpInstr(ast._loc, ast._body._nextLabel));
-    return null;
   }
 
   // ---------------- expressions ----------------
   private Address wrapJumpingCode(Expr ast) {
-    assert ast._type.equals(PrimitiveType.BOOLT);
+    assert PrimitiveType.BOOLT == ast._type;
     assert null == ast._trueLabel && null == ast._falseLabel;
     Address outAddr = newTemp(ast._type);
     ast._trueLabel = newLabel();
@@ -252,7 +279,7 @@ class IRGenerator extends DepthFirstVisitor {
   }
 
   private Address wrapValueCode(Expr ast) {
-    assert ast._type.equals(PrimitiveType.BOOLT);
+    assert PrimitiveType.BOOLT == ast._type;
     assert null != ast._trueLabel && null != ast._falseLabel;
     Label trueLabel = ast._trueLabel, falseLabel = ast._falseLabel;
     ast._trueLabel = null;
@@ -266,28 +293,10 @@ class IRGenerator extends DepthFirstVisitor {
   }
 
   Object visit(InfixExpr ast) {
-    if ("||".equals(ast._op)) {
-      if (null == ast._trueLabel)
-        return wrapJumpingCode(ast);
-      ast._lhs._trueLabel = ast._trueLabel;
-      ast._lhs._falseLabel = newLabel();
-      ast._rhs._trueLabel = ast._trueLabel;
-      ast._rhs._falseLabel = ast._falseLabel;
-      ast._lhs.accept(this);
-      label(ast._lhs._falseLabel);
-      ast._rhs.accept(this);
-      return null;
-    } else if ("&&".equals(ast._op)) {
+    if ("||".equals(ast._op) || "&&".equals(ast._op)) {
       if (null == ast._trueLabel)
         return wrapJumpingCode(ast);
-      ast._lhs._trueLabel = newLabel();
-      ast._lhs._falseLabel = ast._falseLabel;
-      ast._rhs._trueLabel = ast._trueLabel;
-      ast._rhs._falseLabel = ast._falseLabel;
-      ast._lhs.accept(this);
-      label(ast._lhs._trueLabel);
-      ast._rhs.accept(this);
-      return null;
+      return logicalChain(ast);
     } else if ("==".equals(ast._op) || "!=".equals(ast._op) ||
                "<=".equals(ast._op) || "<".equals(ast._op) ||
                ">=".equals(ast._op) || ">".equals(ast._op)) {
@@ -297,52 +306,140 @@ class IRGenerator extends DepthFirstVisitor {
       Address rhsAddr = (Address)ast._rhs.accept(this);
       gen(new RelopJumpInstr(ast._loc,ast._op,lhsAddr,rhsAddr,ast._trueLabel));
       gen(new UncondJumpInstr(ast._loc, ast._falseLabel));
-    } else if ("+".equals(ast._op)) {
-      if (ast._lhs._type.equals(PrimitiveType.STRINGT)) {
-        assert PrimitiveType.STRING == ((PrimitiveType)ast._rhs._type)._name;
-        Address lhsAddr = (Address)ast._lhs.accept(this);
-        Address rhsAddr = (Address)ast._rhs.accept(this);
-        Address outAddr = newTemp(ast._type);
-        gen(new ParamInstr(ast._lhs._loc, lhsAddr, 0, 2));
-        gen(new ParamInstr(ast._rhs._loc, rhsAddr, 1, 2));
-        gen(new CallInstr(ast._loc, outAddr, Intrinsics.get(_symTab, "append"), 2));
-        return outAddr;
+      return null;
+    }
+    return arithmeticChain(ast);
+  }
+
+  private static boolean logical(Expr ast) {
+    if (!(ast instanceof InfixExpr))
+      return false;
+    String op = ((InfixExpr)ast)._op;
+    return "||".equals(op) || "&&".equals(op);
+  }
+
+  private static boolean arithmetic(Expr ast) {
+    if (!(ast instanceof InfixExpr))
+      return false;
+    String op = ((InfixExpr)ast)._op;
+    return "+".equals(op) || "-".equals(op) || "*".equals(op)
+      || "/".equals(op) || "%".equals(op);
+  }
+
+  // long chains are walked down their left spine with a list, as in
+  // DepthFirstVisitor; labels are made top down and code is generated
+  // bottom up, as the recursion did
+  private Object logicalChain(InfixExpr ast) {
+    List<InfixExpr> spine = new ArrayList<InfixExpr>();
+    Expr e = ast;
+    for (; logical(e); e = ((InfixExpr)e)._lhs) {
+      InfixExpr x = (InfixExpr)e;
+      spine.add(x);
+      if ("||".equals(x._op)) {
+        x._lhs._trueLabel = x._trueLabel;
+        x._lhs._falseLabel = newLabel();
       } else {
-        Address lhsAddr = (Address)ast._lhs.accept(this);
-        Address rhsAddr = (Address)ast._rhs.accept(this);
-        Address outAddr = newTemp(ast._type);
-        gen(new InfixInstr(ast._loc, ast._op, outAddr, lhsAddr, rhsAddr));
-        return outAddr;
+        x._lhs._trueLabel = newLabel();
+        x._lhs._falseLabel = x._falseLabel;
       }
-    } else if ("-".equals(ast._op) || "*".equals(ast._op) ||
-               "/".equals(ast._op) || "%".equals(ast._op)) {
-      Address lhsAddr = (Address)ast._lhs.accept(this);
-      Address rhsAddr = (Address)ast._rhs.accept(this);
-      Address outAddr = newTemp(ast._type);
-      gen(new InfixInstr(ast._loc, ast._op, outAddr, lhsAddr, rhsAddr));      
-      return outAddr;
-    } else {
-      assert false : ast._op;
+      x._rhs._trueLabel = x._trueLabel;
+      x._rhs._falseLabel = x._falseLabel;
+    }
+    e.accept(this);
+    for (int i=spine.size() - 1; 0 <= i; i--) {
+      InfixExpr x = spine.get(i);
+      label("||".equals(x._op) ? x._lhs._falseLabel : x._lhs._trueLabel);
+      x._rhs.accept(this);
     }
     return null;
   }
 
-  Object visit(PrefixExpr ast) {
-    if ("-".equals(ast._op)) {
-      Address inAddr = (Address)ast._base.accept(this);
-      Address outAddr = newTemp(ast._type);
-      gen(new PrefixInstr(ast._loc, ast._op, outAddr, inAddr));
-      return outAddr;
-    } else if ("!".equals(ast._op)) {
-      if (null == ast._trueLabel)
-        return wrapJumpingCode(ast);
-      ast._base._falseLabel = ast._trueLabel;
-      ast._base._trueLabel = ast._falseLabel;
-      return ast._base.accept(this);
+  private Address arithmeticChain(InfixExpr ast) {
+    List<InfixExpr> spine = new ArrayList<InfixExpr>();
+    Expr e = ast;
+    for (; arithmetic(e); e = ((InfixExpr)e)._lhs)
+      spine.add((InfixExpr)e);
+    Address lhsAddr = (Address)e.accept(this);
+    for (int i=spine.size() - 1; 0 <= i; i--)
+      lhsAddr = arithmetic(spine.get(i), lhsAddr);
+    return lhsAddr;
+  }
+
+  // the lhs is already generated
+  private Address arithmetic(InfixExpr ast, Address lhsAddr) {
+    Address rhsAddr = (Address)ast._rhs.accept(this);
+    Address outAddr = newTemp(ast._type);
+    if ("+".equals(ast._op) && ast._lhs._type.equals(PrimitiveType.STRINGT)) {
+      assert PrimitiveType.STRING == ((PrimitiveType)ast._rhs._type)._name;
+      gen(new ParamInstr(ast._lhs._loc, lhsAddr, 0, 2));
+      gen(new ParamInstr(ast._rhs._loc, rhsAddr, 1, 2));
+      gen(new CallInstr(ast._loc, outAddr, _append, 2));
     } else {
-      assert false : ast._op;
+      assert arithmetic(ast) : ast._op;
+      gen(new InfixInstr(ast._loc, ast._op, outAddr, lhsAddr, rhsAddr));
     }
-    return null;
+    return outAddr;
+  }
+
+  Object visit(PrefixExpr ast) {
+    return unaryCode(ast);
+  }
+
+  // a run of prefix operators and parentheses is walked down in a loop,
+  // keeping what each one has left to do after the code of its base: an
+  // arithmetic negation, the end of wrapJumpingCode() for a ! whose value
+  // is needed, and the end of wrapValueCode() for a parenthesized condition
+  private Address unaryCode(Expr ast) {
+    List<Expr> pending = new ArrayList<Expr>();
+    List<Address> outs = new ArrayList<Address>();
+    Expr e = ast;
+    for (; unary(e); e = unaryBase(e)) {
+      Expr base = unaryBase(e);
+      if (e instanceof ParenExpr) {
+        if (null != e._trueLabel) {
+          assert PrimitiveType.BOOLT == e._type;
+          pending.add(e);
+          outs.add(null);
+        }
+      } else if ("-".equals(((PrefixExpr)e)._op)) {
+        pending.add(e);
+        outs.add(null);
+      } else {
+        assert "!".equals(((PrefixExpr)e)._op);
+        if (null == e._trueLabel) {
+          assert PrimitiveType.BOOLT == e._type;
+          Address outAddr = newTemp(e._type);
+          e._trueLabel = newLabel();
+          e._falseLabel = newLabel();
+          gen(new CopyInstr(e._loc, outAddr, TRUE_CONSTANT));
+          pending.add(e);
+          outs.add(outAddr);
+        }
+        base._falseLabel = e._trueLabel;
+        base._trueLabel = e._falseLabel;
+      }
+    }
+    Address result = (Address)e.accept(this);
+    for (int i=pending.size() - 1; 0 <= i; i--) {
+      Expr x = pending.get(i);
+      if (x instanceof ParenExpr) {
+        gen(new TrueJumpInstr(x._loc, result, x._trueLabel));
+        gen(new UncondJumpInstr(x._loc, x._falseLabel));
+        result = null;
+      } else if (null == outs.get(i)) {
+        Address outAddr = newTemp(x._type);
+        gen(new PrefixInstr(x._loc, ((PrefixExpr)x)._op, outAddr, result));
+        result = outAddr;
+      } else {
+        label(x._falseLabel);
+        gen(new CopyInstr(x._loc, outs.get(i), FALSE_CONSTANT));
+        label(x._trueLabel);
+        x._trueLabel = null;
+        x._falseLabel = null;
+        result = outs.get(i);
+      }
+    }
+    return result;
   }
     
   Object visit(CallExpr ast) {
@@ -395,10 +492,7 @@ class IRGenerator extends DepthFirstVisitor {
   }
 
   Object visit(ParenExpr ast) {
-    if (null != ast._trueLabel)
-      return wrapValueCode(ast);
-    Address outAddr = (Address)ast._base.accept(this);
-    return outAddr;
+    return unaryCode(ast);
   }
 
   // ---------------- identifiers ----------------
@@ -414,16 +508,16 @@ class IRGenerator extends DepthFirstVisitor {
     Address eSizeAddr = new SizeofAddr(ast._type);
     int n = ast._elems.size();
     ConstantAddr aSizeAddr =
-      new ConstantAddr(new IntLit(null, Integer.toString(n)));
+      new ConstantAddr(new IntLit(LineTable.NONE, Integer.toString(n)));
     aSizeAddr._literal._type = PrimitiveType.INTT;
     Address outAddr = newTemp(ast._type);
     gen(new ParamInstr(ast._loc, eSizeAddr, 0, 2));
     gen(new ParamInstr(ast._loc, aSizeAddr, 1, 2));
-    gen(new CallInstr(ast._loc,outAddr,Intrinsics.get(_symTab,"newArray"), 2));
+    gen(new CallInstr(ast._loc,outAddr,_newArray, 2));
     for (int i=0; i<n; i++) {
       Expr elemAst = ast._elems.get(i); 
       Address subscriptAddr =
-        new ConstantAddr(new IntLit(null, Integer.toString(i)));
+        new ConstantAddr(new IntLit(LineTable.NONE, Integer.toString(i)));
       Address elemAddr = (Address)elemAst.accept(this);
       gen(new ArrWriteInstr(elemAst._loc, outAddr, subscriptAddr, elemAddr));
     }
@@ -435,7 +529,7 @@ class IRGenerator extends DepthFirstVisitor {
     Address rSizeAddr = new SizeofAddr(ast._type);
     Address outAddr = newTemp(ast._type);
     gen(new ParamInstr(ast._loc, rSizeAddr, 0, 1));
-    gen(new CallInstr(ast._loc,outAddr,Intrinsics.get(_symTab,"newRecord"),1));
+    gen(new CallInstr(ast._loc,outAddr,_newRecord,1));
     for (FieldLit fieldAst : ast._fields) {
       Address fieldAddr = (Address)fieldAst._expr.accept(this);
       gen(new RecWriteInstr(fieldAst._loc, outAddr, fieldAst._sym, fieldAddr));
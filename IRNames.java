@@ -0,0 +1,29 @@
+import java.util.Set;
+
+// the names the printers give the temporaries and labels of a function,
+// which IRGenerator only numbers: temporary n is the n-th of t, t0, t1, ...
+// and label n the n-th of L_f, L_f0, L_f1, ... that no variable of the
+// function is called, so every name in it is still distinct
+class IRNames {
+  final String[] _temps;	// by number
+  final String[] _labels;	// by number
+
+  IRNames(FunSym fun) {
+    Set<String> variables = fun._addresses.keySet();
+    _temps = names("t", fun._temps.size(), variables);
+    _labels = names("L_" + fun.name(), fun._labels.size(), variables);
+  }
+
+  private static String[] names(String base, int n, Set<String> taken) {
+    String[] result = new String[n];
+    for (int i=0, suffix=-1; i<n; suffix++) {
+      String name = -1 == suffix ? base : base + suffix;
+      if (!taken.contains(name))
+        result[i++] = name;
+    }
+    return result;
+  }
+
+  String name(TempAddr temp) { return _temps[temp._number]; }
+  String name(Label label) { return _labels[label._number]; }
+}
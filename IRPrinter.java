@@ -2,15 +2,14 @@ import java.io.PrintWriter;
 
 class IRPrinter extends IRVisitor {
   PrintWriter _writer; 
-  int _lcount;
-  int _ocount;
   SymbolTable _symTab;
+  IRNames _names;	// of the function being printed
 
+  // only reads the IR, so it may run between any two passes
   IRPrinter(PrintWriter writer, SymbolTable symTab) {
     _writer = writer;
-    _lcount = 0;
-    _ocount = -1;	// init value
     _symTab = symTab;
+    _names = null;
   }
 
   IRPrinter p(Address ir) {
@@ -29,10 +28,6 @@ class IRPrinter extends IRVisitor {
     _writer.println();
     return this;
   }
-  String getNewLabel() {
-	  return "S_" + _lcount++;
-  }
-  
   // ---------------- top-level ----------------
   Object visit(Program ir) {
     for (int i=0, n=ir._functions.size(); i<n; i++) {
@@ -46,66 +41,54 @@ class IRPrinter extends IRVisitor {
 
   Object visit(FunDef ir) {
 	  _symTab.push(ir._heldScope);
-	  ir._stack = new CCStack();
+	  _names = new IRNames(ir._sym);
     p(ir._name._id).p(" = fun ").p(ir._type.toString()).pln();
-
-    // firstly push defined local on formal parameters 
-	  for (FieldType s :ir._type._formals._fields) {
-		  ir._stack.push(s._field._id);
-	  }
-	  
-    for (Instruction instr : ir._sym._instructions) {
-      for (Label label : instr._labels)
-        p(" ").p(label).p(":");
-      if (!instr._labels.isEmpty())
-        pln();
-      p("  ");
-      instr.accept(this);
-      p(";").pln();
+    if (null == ir._sym._cfg) {
+      for (Instruction instr : ir._sym._instructions)
+        emit(instr);
+    } else {	// with any phis
+      for (BasicBlock b : ir._sym._cfg._blocks)
+        for (Instruction instr : b._instrs)
+          emit(instr);
     }
     
     _symTab.pop(ir._heldScope);
-    ir._stack.print();
     return null;
   }
 
+  private void emit(Instruction instr) {
+    for (Label label : instr._labels)
+      p(" ").p(label).p(":");
+    if (!instr._labels.isEmpty())
+      pln();
+    p("  ");
+    instr.accept(this);
+    p(";").pln();
+  }
+
   Object visit(Type ir) {
     assert false : "use 'p(Type t)' instead";
     return null;
   }
 
   Object visit(Label ir) {
-    p(ir._name);
+    p(_names.name(ir));
     return null;
   }
 
   // ---------------- addresses ----------------
   Object visit(NameAddr ir) {
-	  assert _symTab._current._owner instanceof FunDef;
-	  FunDef owner = (FunDef)_symTab._current._owner;
-	  
-	  owner._stack.push(ir);
-	  
     p(ir._name);
     return null;
   }
 
   Object visit(ConstantAddr ir) {
-    if (ir._literal instanceof StringLit) {
-	  assert _symTab._current._owner instanceof FunDef;
-	  FunDef owner = (FunDef)_symTab._current._owner;
-	  ir._label = owner._name._id + "." + getNewLabel();
-	  _symTab._current._rodatas.add(ir);
-    }
     p(ir._literal.toString());
     return ir._literal.toString();
   }
 
   Object visit(TempAddr ir) {
-	  assert _symTab._current._owner instanceof FunDef;
-	  FunDef owner = (FunDef)_symTab._current._owner;
-	  owner._stack.push(ir);
-    p(ir._name);
+    p(_names.name(ir));
     return null;
   }
 
@@ -200,4 +183,15 @@ class IRPrinter extends IRVisitor {
     p(" = ").p(ir._in);
     return null;
   }
+
+  Object visit(PhiInstr ir) {
+    p(ir._out).p(" = phi(");
+    for (int i=0; i<ir._in.length; i++) {
+      if (0 < i)
+        p(", ");
+      p(ir._in[i]);
+    }
+    p(")");
+    return null;
+  }
 }
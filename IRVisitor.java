@@ -132,4 +132,11 @@ abstract class IRVisitor {
     ir._in.accept(this);
     return ir._field;
   }
+
+  Object visit(PhiInstr ir) {
+    ir._out.accept(this);
+    for (Address in : ir._in)
+      in.accept(this);
+    return null;
+  }
 }
@@ -3,7 +3,6 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
-import xtc.tree.Location;
 
 abstract class Address {
   String _name;
@@ -12,8 +11,10 @@ abstract class Address {
   abstract Object accept(IRVisitor visitor);
 }
 
+// temporaries and labels are numbered densely per function, see IRNames
 class Label extends Address {
-  Label(String name) { super(name); }
+  int _number;
+  Label(int number) { super(null); _number = number; }
   Type type() { assert false; return null; }
   Object accept(IRVisitor visitor) { return visitor.visit(this); }
 }
@@ -23,7 +24,6 @@ class NameAddr extends Address {
   int _offset;
   NameAddr(VarSym sym, String name) {
     super(name);
-    assert null != name;
     _sym = sym;
     _offset = -1;
   }
@@ -50,7 +50,10 @@ class ConstantAddr extends Address {
 class TempAddr extends Address {
   Type _type;
   int _offset;
-  TempAddr(Type type, String name) { super(name); _type = type; _offset = -1; }
+  int _number;
+  TempAddr(Type type, int number) {
+    super(null); _type = type; _offset = -1; _number = number;
+  }
   Type type() { return _type; }
   Object accept(IRVisitor visitor) { return visitor.visit(this); }
 }
@@ -63,16 +66,16 @@ class SizeofAddr extends Address {
 }
 
 abstract class Instruction {
-  Location _loc;
+  int _loc;
   List<Label> _labels;
   String _layout;
-  Instruction(Location loc) { _loc = loc; _labels = new ArrayList<Label>(0); _layout = null;}
+  Instruction(int loc) { _loc = loc; _labels = new ArrayList<Label>(0); _layout = null;}
   abstract Object accept(IRVisitor visitor);
 }
 
 class CopyInstr extends Instruction {
   Address _out, _in;
-  CopyInstr(Location loc, Address out, Address in) {
+  CopyInstr(int loc, Address out, Address in) {
     super(loc); _out = out; _in = in;
   }
   Object accept(IRVisitor visitor) { return visitor.visit(this); }
@@ -81,7 +84,7 @@ class CopyInstr extends Instruction {
 class InfixInstr extends Instruction {
   String _op;
   Address _out, _lhs, _rhs;
-  InfixInstr(Location loc, String op, Address out, Address lhs, Address rhs) {
+  InfixInstr(int loc, String op, Address out, Address lhs, Address rhs) {
     super(loc); _op = op; _out = out; _lhs = lhs; _rhs = rhs;
   }
   Object accept(IRVisitor visitor) { return visitor.visit(this); }
@@ -90,7 +93,7 @@ class InfixInstr extends Instruction {
 class PrefixInstr extends Instruction {
   String _op;
   Address _out, _in;
-  PrefixInstr(Location loc, String op, Address out, Address in) {
+  PrefixInstr(int loc, String op, Address out, Address in) {
     super(loc); _op = op; _out = out; _in = in;
   }
   Object accept(IRVisitor visitor) { return visitor.visit(this); }
@@ -99,7 +102,7 @@ class PrefixInstr extends Instruction {
 class CastInstr extends Instruction {
   Address _out, _in;
   Type _type;
-  CastInstr(Location loc, Address out, Address in, Type type) {
+  CastInstr(int loc, Address out, Address in, Type type) {
     super(loc); _out = out; _in = in; _type = type;
   }
   Object accept(IRVisitor visitor) { return visitor.visit(this); }
@@ -107,7 +110,7 @@ class CastInstr extends Instruction {
 
 class UncondJumpInstr extends Instruction {
   Label _tgt;
-  UncondJumpInstr(Location loc, Label tgt) {
+  UncondJumpInstr(int loc, Label tgt) {
     super(loc); _tgt = tgt;
   }
   Object accept(IRVisitor visitor) { return visitor.visit(this); }
@@ -116,7 +119,7 @@ class UncondJumpInstr extends Instruction {
 class TrueJumpInstr extends Instruction {
   Address _cond;
   Label _tgt;
-  TrueJumpInstr(Location loc, Address cond, Label tgt) {
+  TrueJumpInstr(int loc, Address cond, Label tgt) {
     super(loc); _cond = cond; _tgt = tgt;
   }
   Object accept(IRVisitor visitor) { return visitor.visit(this); }
@@ -125,7 +128,7 @@ class TrueJumpInstr extends Instruction {
 class FalseJumpInstr extends Instruction {
   Address _cond;
   Label _tgt;
-  FalseJumpInstr(Location loc, Address cond, Label tgt) {
+  FalseJumpInstr(int loc, Address cond, Label tgt) {
     super(loc); _cond = cond; _tgt = tgt;
   }
   Object accept(IRVisitor visitor) { return visitor.visit(this); }
@@ -135,7 +138,7 @@ class RelopJumpInstr extends Instruction {
   String _op;
   Address _lhs, _rhs;
   Label _tgt;
-  RelopJumpInstr(Location loc, String op, Address lhs, Address rhs, Label tgt) {
+  RelopJumpInstr(int loc, String op, Address lhs, Address rhs, Label tgt) {
     super(loc); _op = op; _lhs = lhs; _rhs = rhs; _tgt = tgt;
   }
   Object accept(IRVisitor visitor) { return visitor.visit(this); }
@@ -144,7 +147,7 @@ class RelopJumpInstr extends Instruction {
 class ParamInstr extends Instruction {
   Address _in;
   int _index, _arity;
-  ParamInstr(Location loc, Address in, int index, int arity) {
+  ParamInstr(int loc, Address in, int index, int arity) {
     super(loc);
     _in = in;
     assert 0 <= index && index < arity;
@@ -158,7 +161,7 @@ class CallInstr extends Instruction {
   Address _out;
   FunSym _fun;
   int _arity;
-  CallInstr(Location loc, Address out, FunSym fun, int arity) {
+  CallInstr(int loc, Address out, FunSym fun, int arity) {
     super(loc); _out = out; _fun = fun; _arity = arity;
   }
   Object accept(IRVisitor visitor) { return visitor.visit(this); }
@@ -166,7 +169,7 @@ class CallInstr extends Instruction {
 
 class ReturnInstr extends Instruction {
   Address _val;
-  ReturnInstr(Location loc, Address val) {
+  ReturnInstr(int loc, Address val) {
     super(loc); _val = val;
   }
   Object accept(IRVisitor visitor) { return visitor.visit(this); }
@@ -174,7 +177,7 @@ class ReturnInstr extends Instruction {
 
 class ArrReadInstr extends Instruction {
   Address _out, _base, _subscript;
-  ArrReadInstr(Location loc, Address out, Address base, Address subscript) {
+  ArrReadInstr(int loc, Address out, Address base, Address subscript) {
     super(loc); _out = out; _base = base; _subscript = subscript;
   }
   Object accept(IRVisitor visitor) { return visitor.visit(this); }
@@ -182,7 +185,7 @@ class ArrReadInstr extends Instruction {
 
 class ArrWriteInstr extends Instruction {
   Address _base, _subscript, _in;
-  ArrWriteInstr(Location loc, Address base, Address subscript, Address in) {
+  ArrWriteInstr(int loc, Address base, Address subscript, Address in) {
     super(loc); _base = base; _subscript = subscript; _in = in;
   }
   Object accept(IRVisitor visitor) { return visitor.visit(this); }
@@ -191,7 +194,7 @@ class ArrWriteInstr extends Instruction {
 class RecReadInstr extends Instruction {
   Address _out, _base;
   FieldSym _field;
-  RecReadInstr(Location loc, Address out, Address base, FieldSym field) {
+  RecReadInstr(int loc, Address out, Address base, FieldSym field) {
     super(loc); _out = out; _base = base; _field = field;
   }
   Object accept(IRVisitor visitor) { return visitor.visit(this); }
@@ -201,8 +204,20 @@ class RecWriteInstr extends Instruction {
   Address _base;
   FieldSym _field;
   Address _in;
-  RecWriteInstr(Location loc, Address base, FieldSym field, Address in) {
+  RecWriteInstr(int loc, Address base, FieldSym field, Address in) {
     super(loc); _base = base; _field = field; _in = in;
   }
   Object accept(IRVisitor visitor) { return visitor.visit(this); }
 }
+
+// only between SSAForm.construct and SSAForm.destruct: one operand per
+// predecessor of its block, in the order of BasicBlock._preds
+class PhiInstr extends Instruction {
+  Address _out;
+  Address _var;		// the one it merges, before renaming
+  Address[] _in;
+  PhiInstr(int loc, Address var, int arity) {
+    super(loc); _out = var; _var = var; _in = new Address[arity];
+  }
+  Object accept(IRVisitor visitor) { return visitor.visit(this); }
+}
@@ -0,0 +1,111 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+// the signatures of the functions a compilation unit defines, for units
+// that call them to be compiled without its source; a header, the number
+// of functions, then each name and its type tree in preorder, a tag byte
+// per node. Imported functions are defined like the intrinsics, after the
+// unit's own, and have no body
+class InterfaceFile {
+  static final int MAGIC = 0x5441434b;	// "TACK"
+  static final short VERSION = 1;
+  static final byte BOOL = 0, INT = 1, STRING = 2, VOID = 3, ARRAY = 4,
+    RECORD = 5;
+
+  static void write(String fileName, List<FunDef> funs) throws IOException {
+    try (DataOutputStream out = new DataOutputStream(
+           new BufferedOutputStream(new FileOutputStream(fileName)))) {
+      out.writeInt(MAGIC);
+      out.writeShort(VERSION);
+      out.writeInt(funs.size());
+      for (FunDef fun : funs) {
+        out.writeUTF(fun._name._id);
+        write(out, fun._type._formals);
+        write(out, fun._type._returnType);
+      }
+    }
+  }
+
+  private static void write(DataOutputStream out, Type t) throws IOException {
+    if (t instanceof PrimitiveType) {
+      String name = ((PrimitiveType)t)._name;
+      out.writeByte(PrimitiveType.BOOL == name ? BOOL
+                    : PrimitiveType.INT == name ? INT
+                    : PrimitiveType.STRING == name ? STRING : VOID);
+    } else if (t instanceof ArrayType) {
+      out.writeByte(ARRAY);
+      write(out, ((ArrayType)t)._elem);
+    } else {
+      List<FieldType> fields = ((RecordType)t)._fields;
+      out.writeByte(RECORD);
+      out.writeInt(fields.size());
+      for (FieldType f : fields) {
+        out.writeUTF(f._field._id);
+        write(out, f._type);
+      }
+    }
+  }
+
+  // the functions as intrinsic-like definitions, their names interned into
+  // the unit's own NameTable
+  static List<FunDef> read(String fileName, NameTable names)
+    throws IOException {
+    try (DataInputStream in = new DataInputStream(
+           new BufferedInputStream(new FileInputStream(fileName)))) {
+      if (MAGIC != in.readInt() || VERSION != in.readShort())
+        throw new IOException("Not a Tack interface file");
+      int n = in.readInt();
+      List<FunDef> result = new ArrayList<FunDef>(n);
+      for (int i=0; i<n; i++) {
+        int key = names.intern(in.readUTF());
+        FunId id = new FunId(LineTable.NONE, names.text(key), key);
+        RecordType formals = (RecordType)read(in, names);
+        FunType type = new FunType(LineTable.NONE, formals, read(in, names));
+        result.add(new FunDef(LineTable.NONE, id, type, (BlockStmt)null));
+      }
+      return result;
+    }
+  }
+
+  private static Type read(DataInputStream in, NameTable names)
+    throws IOException {
+    byte tag = in.readByte();
+    switch (tag) {
+    case BOOL: return PrimitiveType.BOOLT;
+    case INT: return PrimitiveType.INTT;
+    case STRING: return PrimitiveType.STRINGT;
+    case VOID: return PrimitiveType.VOIDT;
+    case ARRAY: return new ArrayType(LineTable.NONE, read(in, names));
+    case RECORD:
+      int n = in.readInt();
+      List<FieldType> fields = new ArrayList<FieldType>(n);
+      for (int i=0; i<n; i++) {
+        int key = names.intern(in.readUTF());
+        FieldId field = new FieldId(LineTable.NONE, names.text(key), key);
+        fields.add(new FieldType(LineTable.NONE, field, read(in, names)));
+      }
+      return new RecordType(LineTable.NONE, fields);
+    default:
+      throw new IOException("Bad type tag " + tag + " in interface file");
+    }
+  }
+
+  static void defImports(SymbolTable symTab, List<FunDef> imports,
+                         ErrorPrinter errors) {
+    for (FunDef fun : imports) {
+      FunSym sym = new FunSym(null, fun);
+      if (symTab.contains(sym.key()))
+        errors.print(symTab.get(sym.key()).loc(),
+                     "Redefinition of imported function '" + sym.name() + "'");
+      else
+        symTab.def(sym);
+    }
+  }
+}
@@ -1,54 +1,74 @@
 import java.io.IOException;
 import java.io.Reader;
 import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 class Intrinsics {
-  private static void defIntrinsic(SymbolTable symTab, String name, String typeString) {
-    if (symTab.contains(name)) {
-      ErrorPrinter.print(symTab.get(name).loc(),
-                         "Redefinition of intrinsic '" + name + "'");
-      return;
-    }
+  // the names of the intrinsics and their formals, which every
+  // compilation's NameTable starts with
+  static final NameTable NAMES = new NameTable();
+  // the canonical types of their signatures, which every compilation's
+  // TypeTable starts with
+  static final TypeTable TYPES = new TypeTable();
+  // parsed once per JVM and shared by every compilation; nothing writes to
+  // these symbols or their types, or to NAMES or TYPES, after this
+  static final List<FunSym> REGISTRY = Collections.unmodifiableList(registry());
+
+  private static List<FunSym> registry() {
+    List<FunSym> result = new ArrayList<FunSym>();
+    result.add(intrinsic("append", "(lhs: string, rhs: string)-> string"));
+    result.add(intrinsic("bool2int", "(b: bool)-> int"));
+    result.add(intrinsic("bool2string", "(b: bool)-> string"));
+    result.add(intrinsic("int2bool", "(i: int)-> bool"));
+    result.add(intrinsic("int2string", "(i: int)-> string"));
+    result.add(intrinsic("length", "(s: string)-> int"));
+    result.add(intrinsic("newArray","(eSize: int, aSize: int)-> [()]"));
+    result.add(intrinsic("newRecord", "(rSize: int)-> ()"));
+    result.add(intrinsic("print", "(s: string)-> void"));
+    result.add(intrinsic("range", "(start: int, end: int)-> [int]"));
+    result.add(intrinsic("size", "(a: [()])-> int"));
+    result.add(intrinsic("string2bool", "(s: string)-> bool"));
+    result.add(intrinsic("string2int", "(s: string)-> int"));
+    result.add(intrinsic("stringEqual", "(lhs:string, rhs:string)-> bool"));
+    return result;
+  }
+
+  private static FunSym intrinsic(String name, String typeString) {
     final Reader reader = new StringReader(typeString);
     final TackParser parser = new TackParser(reader, "(intrinsic)");
+    parser._names = NAMES;
     xtc.parser.Result result = null;
     try {
       result = parser.pfunType1(0);
     } catch (final IOException e) {
       assert false;
     }
-    if (!result.hasValue()) {
-      ErrorPrinter.print(parser, result.parseError());
-      ErrorPrinter.exit();
-    }
+    if (!result.hasValue())
+      throw new IllegalStateException("intrinsic " + name + ": "
+                                      + result.parseError().msg);
     final FunType rawTypeAst = (FunType)result.semanticValue();
     final TreeNormalizer normalizer = new TreeNormalizer();
     final FunType typeAst = (FunType)rawTypeAst.accept(normalizer);
-    final FunId id = new FunId(null, name);
-    final FunDef fun = new FunDef(null, id, typeAst, (BlockStmt)null);
-    final FunSym sym = new FunSym(symTab._current, fun);
-    symTab.def(sym);
+    final FunId id = new FunId(LineTable.NONE, name, NAMES.intern(name));
+    final FunDef fun = new FunDef(LineTable.NONE, id, typeAst, (BlockStmt)null);
+    TYPES.signature(fun);
+    return new FunSym(null, fun);
   }
 
-  static void defIntrinsics(SymbolTable symTab) {
-    defIntrinsic(symTab, "append", "(lhs: string, rhs: string)-> string");
-    defIntrinsic(symTab, "bool2int", "(b: bool)-> int");
-    defIntrinsic(symTab, "bool2string", "(b: bool)-> string");
-    defIntrinsic(symTab, "int2bool", "(i: int)-> bool");
-    defIntrinsic(symTab, "int2string", "(i: int)-> string");    
-    defIntrinsic(symTab, "length", "(s: string)-> int");
-    defIntrinsic(symTab, "newArray","(eSize: int, aSize: int)-> [()]");
-    defIntrinsic(symTab, "newRecord", "(rSize: int)-> ()");
-    defIntrinsic(symTab, "print", "(s: string)-> void");
-    defIntrinsic(symTab, "range", "(start: int, end: int)-> [int]");
-    defIntrinsic(symTab, "size", "(a: [()])-> int");
-    defIntrinsic(symTab, "string2bool", "(s: string)-> bool");
-    defIntrinsic(symTab, "string2int", "(s: string)-> int");    
-    defIntrinsic(symTab, "stringEqual", "(lhs:string, rhs:string)-> bool");    
+  static void defIntrinsics(SymbolTable symTab, ErrorPrinter errors) {
+    for (FunSym sym : REGISTRY) {
+      if (symTab.contains(sym.key()))
+        errors.print(symTab.get(sym.key()).loc(),
+                     "Redefinition of intrinsic '" + sym.name() + "'");
+      else
+        symTab.def(sym);
+    }
   }
 
   static FunSym get(SymbolTable symTab, String name) {
-    FunSym result = (FunSym)symTab._topLevel.get(name);
+    FunSym result = (FunSym)symTab._topLevel.get(NAMES.find(name));
     assert null != result : name;
     return result;
   }
@@ -0,0 +1,67 @@
+import java.util.Arrays;
+import java.util.BitSet;
+import xtc.tree.Location;
+
+// the lines of one source file; nodes and instructions keep only a char
+// offset into it, and a Location is made when a diagnostic is printed, with
+// lines and columns counted as xtc.parser.ParserBase counts them; only line
+// starts and tabs are kept, not the text
+class LineTable {
+  static final int NONE = -1;	// no position, e.g. for intrinsics
+  final String _file;
+  int[] _starts;		// offset of the first char of each line
+  int _lines;
+  int[] _tabs;
+  int _tabCount;
+  final BitSet _afterCR;	// lines that start with the LF of a CR LF
+
+  LineTable(String file, char[] text, int length) {
+    _file = file;
+    _starts = new int[16];
+    _lines = 0;
+    _tabs = new int[16];
+    _tabCount = 0;
+    _afterCR = new BitSet();
+    _starts[_lines++] = 0;
+    for (int i=0; i<length; i++) {
+      char c = text[i];
+      if ('\t' == c) {
+        if (_tabCount == _tabs.length)
+          _tabs = Arrays.copyOf(_tabs, 2 * _tabCount);
+        _tabs[_tabCount++] = i;
+      } else if ('\r' == c || '\n' == c && (0 == i || '\r' != text[i - 1])) {
+        if (_lines == _starts.length)
+          _starts = Arrays.copyOf(_starts, 2 * _lines);
+        if ('\r' == c && i + 1 < length && '\n' == text[i + 1])
+          _afterCR.set(_lines);
+        _starts[_lines++] = i + 1;
+      }
+    }
+  }
+
+  int line(int offset) {
+    int i = Arrays.binarySearch(_starts, 0, _lines, offset);
+    return 1 + (0 <= i ? i : -i - 2);
+  }
+
+  // the LF of a CR LF takes no column, and tabs advance to the next
+  // multiple of 8
+  int column(int offset) {
+    int line = line(offset) - 1, at = _starts[line], column = 1;
+    if (_afterCR.get(line) && at < offset)
+      at++;
+    int i = Arrays.binarySearch(_tabs, 0, _tabCount, at);
+    for (i = 0 <= i ? i : -i - 1; i < _tabCount && _tabs[i] < offset; i++) {
+      column += _tabs[i] - at;
+      column = ((column >> 3) + 1) << 3;
+      at = _tabs[i] + 1;
+    }
+    return column + offset - at;
+  }
+
+  Location location(int offset) {
+    if (NONE == offset)
+      return new Location(_file, 0, 0);
+    return new Location(_file, line(offset), column(offset));
+  }
+}
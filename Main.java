@@ -1,43 +1,387 @@
-import java.io.FileReader;
+import java.io.EOFException;
+import java.io.FileDescriptor;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.Reader;
+import java.io.StringReader;
 import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import xtc.tree.Location;
 
+// the settings of a compilation beyond its source and its assembly
+class CompileOptions {
+  FunctionCache _cache;		// null for none
+  boolean _handParser;		// HandParser instead of TackParser
+  boolean _arena;		// HandParser into an AstArena, see ArenaPasses
+  boolean _fused;		// see FusedGenerator
+  List<String> _imports;	// interface files, see InterfaceFile
+  String _interfaceOut;		// null for none
+  boolean _ssa;			// see SSAForm
+  CompileOptions() {
+    _cache = null;
+    _handParser = false;
+    _arena = false;
+    _fused = false;
+    _imports = new ArrayList<String>();
+    _interfaceOut = null;
+    _ssa = false;
+  }
+}
+
 class Main {
   static PrintWriter pfw(String fileName) throws IOException {
     return new PrintWriter(new FileWriter(fileName), true);
   }
 
-  public static void main(final String[] args) throws IOException {
-    String fileName = args[0];
-    final Reader reader = new FileReader(fileName);
-    final TackParser parser = new TackParser(reader, fileName);
-    final xtc.parser.Result result = parser.pprogram(0);
+  static int compile(String fileName, Reader reader, Emitter out,
+                     ErrorPrinter errors) throws IOException {
+    return compile(fileName, reader, out, errors, new PhaseTimer(fileName));
+  }
+
+  static int compile(String fileName, Reader reader, Emitter out,
+                     ErrorPrinter errors, PhaseTimer timer)
+    throws IOException {
+    return compile(fileName, reader, out, errors, timer, new CompileOptions(),
+                   null);
+  }
+
+  // runs the whole pipeline on one source, returns the exit status; the IR
+  // writer is optional
+  static int compile(String fileName, Reader reader, Emitter out,
+                     ErrorPrinter errors, PhaseTimer timer,
+                     CompileOptions options, PrintWriter ir)
+    throws IOException {
+    if (options._arena)
+      return compileArena(fileName, reader, out, errors, timer, options, ir);
+    final Program ast = options._handParser
+      ? handParse(fileName, reader, errors, timer)
+      : parse(fileName, reader, errors, timer);
+    if (null == ast)
+      return -1;
+    errors._lines = ast._lines;
+    List<FunDef> imports = imports(options, ast._names, errors);
+    FunctionPasses passes;
+    if (options._fused) {
+      passes = new FunctionPasses(ast, new SymbolTable(), errors, timer,
+                                  options._cache);
+      passes._imports = imports;
+      passes._ssa = options._ssa;
+      passes.fuse();
+    } else {
+      PhaseMark mark = timer.begin("scope");
+      ScopeAnalyzer scopeAnalyzer = new ScopeAnalyzer(errors);
+      ast.accept(scopeAnalyzer);
+      InterfaceFile.defImports(scopeAnalyzer._symTab, imports, errors);
+      Intrinsics.defIntrinsics(scopeAnalyzer._symTab, errors);
+      timer.end(mark);
+      passes = new FunctionPasses(ast, scopeAnalyzer._symTab, errors, timer,
+                                  options._cache);
+      passes._imports = imports;
+      passes._ssa = options._ssa;
+      passes.analyze();
+    }
+    if (0 < errors._count)
+      errors.exit();
+    if (null != options._interfaceOut)
+      InterfaceFile.write(options._interfaceOut, ast._functions);
+    passes.generate(ir);
+    passes.print(out);
+    return 0;
+  }
+
+  // the signatures from every interface file the options name; a function
+  // that an earlier file already defines is reported here, where both file
+  // names are known, and left out
+  static List<FunDef> imports(CompileOptions options, NameTable names,
+                              ErrorPrinter errors) {
+    List<FunDef> result = new ArrayList<FunDef>();
+    Map<String, String> from = new HashMap<String, String>();
+    for (String fileName : options._imports) {
+      List<FunDef> funs;
+      try {
+        funs = InterfaceFile.read(fileName, names);
+      } catch (FileNotFoundException e) {
+        errors.print(fileName, "Cannot open interface file");
+        continue;
+      } catch (EOFException e) {
+        errors.print(fileName, "Truncated interface file");
+        continue;
+      } catch (IOException e) {
+        errors.print(fileName, e.getMessage());
+        continue;
+      }
+      for (FunDef fun : funs) {
+        String first = from.put(fun._name._id, fileName);
+        if (null == first)
+          result.add(fun);
+        else
+          errors.print(fileName, "Redefinition of imported function '"
+                       + fun._name._id + "' from " + first);
+      }
+    }
+    if (0 < errors._count)
+      errors.exit();
+    return result;
+  }
+
+  // the same with only the signatures and the functions being compiled as
+  // objects, for programs whose tree would not fit the heap otherwise
+  static int compileArena(String fileName, Reader reader, Emitter out,
+                          ErrorPrinter errors, PhaseTimer timer,
+                          CompileOptions options, PrintWriter ir)
+    throws IOException {
+    PhaseMark mark = timer.begin("parse");
+    final AstArena arena;
+    try {
+      arena = HandParser.arena(fileName, reader);
+    } catch (SyntaxError e) {
+      errors._err.println(e.getMessage());
+      return -1;
+    } finally {
+      timer.end(mark);
+    }
+    errors._lines = arena._lines;
+    ArenaPasses passes = new ArenaPasses(arena, errors, timer, options._cache,
+                                         options._fused);
+    passes._imports = imports(options, arena._names, errors);
+    passes._ssa = options._ssa;
+    passes.signatures();
+    passes.compile(null != ir);
+    if (0 < errors._count)
+      errors.exit();
+    if (null != options._interfaceOut) {
+      List<FunDef> funs = new ArrayList<FunDef>(passes._contexts.size());
+      for (FunctionContext c : passes._contexts)
+        funs.add(c._fun);
+      InterfaceFile.write(options._interfaceOut, funs);
+    }
+    passes.print(out, ir);
+    return 0;
+  }
+
+  // the normalized tree, or null after a syntax error; input nested too
+  // deeply for the recursion of the generated parser goes to HandParser,
+  // which builds the same tree with explicit stacks
+  static Program parse(String fileName, Reader reader, ErrorPrinter errors,
+                       PhaseTimer timer) throws IOException {
+    PhaseMark mark = timer.begin("parse");
+    final TackParser parser = parser(fileName, reader);
+    final xtc.parser.Result result;
+    try {
+      result = parser.pprogram(0);
+    } catch (StackOverflowError e) {
+      timer.end(mark);
+      return handParse(fileName, parser.text(), errors, timer);
+    }
+    timer.end(mark);
     if (!result.hasValue()) {
       Location loc = parser.location(result.index);
-      System.err.println(loc.toString() + ": Syntax error.");
-      System.exit(-1);
+      errors._err.println(loc.toString() + ": Syntax error.");
+      return null;
     }
     final AstNode rawAst = (AstNode)result.semanticValue();
+    mark = timer.begin("normalize");
     final TreeNormalizer normalizer = new TreeNormalizer();
-    final Program ast = (Program)rawAst.accept(normalizer);
-    ScopeAnalyzer scopeAnalyzer = new ScopeAnalyzer();
-    ast.accept(scopeAnalyzer);
-    Intrinsics.defIntrinsics(scopeAnalyzer._symTab);
-    SemanticAnalyzer semanticAnalyzer =
-      new SemanticAnalyzer(scopeAnalyzer._symTab);
-    ast.accept(semanticAnalyzer);
-    if (0 < ErrorPrinter._count)
-      ErrorPrinter.exit();
-    IRGenerator irGenerator = new IRGenerator(scopeAnalyzer._symTab);
-    ast.accept(irGenerator);
-    SBGenerator sbGen = new SBGenerator(new PrintWriter(System.out, true), scopeAnalyzer._symTab);
-    ast.accept(sbGen);
-    SBPrinter sbvisitor = new SBPrinter(new PrintWriter(System.out, true), scopeAnalyzer._symTab);
-    ast.accept(sbvisitor);
+    final Program ast;
+    try {
+      ast = (Program)rawAst.accept(normalizer);
+    } catch (StackOverflowError e) {
+      timer.end(mark);
+      return handParse(fileName, parser.text(), errors, timer);
+    }
+    ast._lines = parser.lines(fileName);
+    ast._names = parser.names();
+    timer.end(mark);
+    return ast;
+  }
+
+  // ParserBase grows its arrays by a fixed step, which makes reading a large
+  // input quadratic unless the parser knows the size up front
+  static TackParser parser(String fileName, Reader reader) throws IOException {
+    if (reader instanceof MappedSource)
+      return ((MappedSource)reader).parser(fileName);
+    StringBuilder text = new StringBuilder();
+    char[] buf = new char[8192];
+    for (int n; -1 != (n = reader.read(buf)); )
+      text.append(buf, 0, n);
+    return new TackParser(new StringReader(text.toString()), fileName,
+                          text.length());
+  }
+
+  // the same tree from HandParser, which needs no normalize phase
+  static Program handParse(String fileName, Reader reader,
+                           ErrorPrinter errors, PhaseTimer timer)
+    throws IOException {
+    PhaseMark mark = timer.begin("parse");
+    try {
+      return HandParser.parse(fileName, reader);
+    } catch (SyntaxError e) {
+      errors._err.println(e.getMessage());
+      return null;
+    } finally {
+      timer.end(mark);
+    }
+  }
+
+  static final String USAGE =
+    "usage: Main [option]... file.tack\n"
+    + "       Main --build [option]... (file.tack | directory)...\n"
+    + "       Main --server socket\n"
+    + "       Main --client socket file.tack\n"
+    + "options: -o file.s, --time-phases, --cache-dir directory,\n"
+    + "         --cache-size megabytes, --hand-parser, --arena, --fused,\n"
+    + "         --ssa, --import file.tacki, --interface-out file.tacki\n"
+    + "--build takes --cache-dir, --cache-size, --hand-parser, --arena,\n"
+    + "--fused, --ssa and --import";
+
+  static void usage(String problem) {
+    System.err.println("Main: " + problem);
+    System.err.println(USAGE);
+    System.exit(2);
+  }
+
+  // the argument that option args[i - 1] takes
+  static String value(String[] args, int i) {
+    if (i < args.length)
+      return args[i];
+    usage(args[i - 1] + " needs a value");
+    return null;
+  }
+
+  static long megabytes(String[] args, int i) {
+    try {
+      return Long.parseLong(value(args, i)) << 20;
+    } catch (NumberFormatException e) {
+      usage(args[i - 1] + " needs a number of megabytes");
+      return 0;
+    }
+  }
+
+  public static void main(final String[] args) throws IOException {
+    if (0 == args.length)
+      usage("no source file");
+    if ("--server".equals(args[0])) {
+      if (2 != args.length)
+        usage("--server takes a socket path");
+      new CompileServer(args[1]).serve();
+      return;
+    }
+    if ("--build".equals(args[0])) {
+      BuildDriver driver = new BuildDriver();
+      String cacheDir = null;
+      long cacheLimit = FunctionCache.DEFAULT_LIMIT;
+      int first = 1;
+      for (; first < args.length && args[first].startsWith("-"); first++)
+        if ("--cache-dir".equals(args[first]))
+          cacheDir = value(args, ++first);
+        else if ("--cache-size".equals(args[first]))
+          cacheLimit = megabytes(args, ++first);
+        else if ("--hand-parser".equals(args[first]))
+          driver._options._handParser = true;
+        else if ("--arena".equals(args[first]))
+          driver._options._arena = true;
+        else if ("--fused".equals(args[first]))
+          driver._options._fused = true;
+        else if ("--ssa".equals(args[first]))
+          driver._options._ssa = true;
+        else if ("--import".equals(args[first]))
+          driver._options._imports.add(value(args, ++first));
+        else
+          usage("--build does not take " + args[first]);
+      if (first == args.length)
+        usage("--build needs a source file or directory");
+      if (null != cacheDir) {
+        driver._options._cache = new FunctionCache(cacheDir, cacheLimit);
+        if (driver._options._ssa)
+          driver._options._cache._options = "ssa";
+      }
+      String[] paths = new String[args.length - first];
+      System.arraycopy(args, first, paths, 0, paths.length);
+      System.exit(driver.build(paths));
+      return;
+    }
+    if ("--client".equals(args[0])) {
+      if (3 != args.length)
+        usage("--client takes a socket path and a source file");
+      System.exit(CompileServer.request(args[1], args[2]));
+      return;
+    }
+    String fileName = null, outName = null, cacheDir = null;
+    long cacheLimit = FunctionCache.DEFAULT_LIMIT;
+    boolean timePhases = false;
+    CompileOptions options = new CompileOptions();
+    for (int i=0; i<args.length; i++)
+      if ("-o".equals(args[i]))
+        outName = value(args, ++i);
+      else if ("--time-phases".equals(args[i]))
+        timePhases = true;
+      else if ("--cache-dir".equals(args[i]))
+        cacheDir = value(args, ++i);
+      else if ("--cache-size".equals(args[i]))
+        cacheLimit = megabytes(args, ++i);
+      else if ("--hand-parser".equals(args[i]))
+        options._handParser = true;
+      else if ("--arena".equals(args[i]))
+        options._arena = true;
+      else if ("--fused".equals(args[i]))
+        options._fused = true;
+      else if ("--ssa".equals(args[i]))
+        options._ssa = true;
+      else if ("--import".equals(args[i]))
+        options._imports.add(value(args, ++i));
+      else if ("--interface-out".equals(args[i]))
+        options._interfaceOut = value(args, ++i);
+      else if (args[i].startsWith("-"))
+        usage("unknown option " + args[i]);
+      else if (null != fileName)
+        usage("more than one source file");
+      else
+        fileName = args[i];
+    if (null == fileName)
+      usage("no source file");
+    if (null != cacheDir) {
+      options._cache = new FunctionCache(cacheDir, cacheLimit);
+      if (options._ssa)
+        options._cache._options = "ssa";
+    }
+    final Reader reader = MappedSource.open(fileName);
+    Emitter out = open(outName);
+    PhaseTimer timer = new PhaseTimer(fileName);
+    int status;
+    try {
+      status = compile(fileName, reader, out,
+                       new ErrorPrinter(System.err, false), timer, options,
+                       null);
+    } catch (CompileAbort e) {
+      status = e._status;
+    }
+    out.close();
+    if (timePhases)
+      timer.report(System.err);
+    if (0 != status) {
+      if (null != outName)
+        Files.deleteIfExists(Paths.get(outName));
+      System.exit(status);
+    }
+  }
+
+  // no -o means standard output
+  static Emitter open(String outName) throws IOException {
+    if (null == outName)
+      return new Emitter(new FileOutputStream(FileDescriptor.out).getChannel());
+    return new Emitter(FileChannel.open(Paths.get(outName),
+                                        StandardOpenOption.CREATE,
+                                        StandardOpenOption.WRITE,
+                                        StandardOpenOption.TRUNCATE_EXISTING));
   }
 }
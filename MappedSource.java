@@ -0,0 +1,72 @@
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+
+// a source file mapped into memory and decoded as UTF-8 one character at
+// a time, which is how the parser asks for it; the only copy of the text
+// on the heap is the parser's own, and that is sized from the file up
+// front instead of growing in steps
+class MappedSource extends Reader {
+  final MappedByteBuffer _bytes;
+  final int _size;		// bytes, at least the number of chars
+  final CharsetDecoder _decoder;
+  final CharBuffer _pending;	// decoded, not yet read
+
+  MappedSource(MappedByteBuffer bytes) {
+    _bytes = bytes;
+    _size = bytes.limit();
+    _decoder = StandardCharsets.UTF_8.newDecoder();
+    _pending = CharBuffer.allocate(2);
+    _pending.flip();
+  }
+
+  static MappedSource open(String fileName) throws IOException {
+    try (FileChannel c = FileChannel.open(Paths.get(fileName))) {
+      long size = c.size();
+      if (Integer.MAX_VALUE - 1 <= size)
+        throw new IOException(fileName + ": too large (" + size + " bytes)");
+      return new MappedSource(c.map(FileChannel.MapMode.READ_ONLY, 0, size));
+    }
+  }
+
+  TackParser parser(String fileName) {
+    return new TackParser(this, fileName, _size);
+  }
+
+  public int read() throws IOException {
+    if (_pending.hasRemaining())
+      return _pending.get();
+    int at = _bytes.position();
+    if (at == _size)
+      return -1;
+    byte b = _bytes.get(at);
+    if (0 <= b) {
+      _bytes.position(at + 1);
+      return b;
+    }
+    _pending.clear();
+    CoderResult r = _decoder.decode(_bytes, _pending, true);
+    if (r.isError())
+      r.throwException();
+    _pending.flip();
+    return _pending.hasRemaining() ? _pending.get() : -1;
+  }
+
+  public int read(char[] cbuf, int off, int len) throws IOException {
+    for (int i=0; i<len; i++) {
+      int c = read();
+      if (-1 == c)
+        return 0 == i ? -1 : i;
+      cbuf[off + i] = (char)c;
+    }
+    return len;
+  }
+
+  public void close() { }
+}
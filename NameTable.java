@@ -0,0 +1,91 @@
+import java.util.Arrays;
+
+// the identifiers of one compilation, each interned once and numbered
+// densely from 0; scopes are keyed by these numbers, and the text of an
+// identifier is one shared String
+class NameTable {
+  String[] _text;	// by key
+  int _size;
+  int[] _slots;		// open addressing, key + 1, or 0 when free
+
+  NameTable() {
+    _text = new String[64];
+    _size = 0;
+    _slots = new int[128];
+  }
+
+  // starts with the names of base under the same keys, e.g. the intrinsics
+  NameTable(NameTable base) {
+    _text = Arrays.copyOf(base._text, Math.max(64, base._text.length));
+    _size = base._size;
+    _slots = base._slots.clone();
+  }
+
+  int size() { return _size; }
+  String text(int key) { return _text[key]; }
+
+  private static int hash(char[] buf, int start, int end) {
+    int h = 0;
+    for (int i=start; i<end; i++)
+      h = 31 * h + buf[i];
+    return h;
+  }
+
+  private static boolean same(String s, char[] buf, int start, int end) {
+    if (s.length() != end - start)
+      return false;
+    for (int i=start; i<end; i++)
+      if (s.charAt(i - start) != buf[i])
+        return false;
+    return true;
+  }
+
+  // the slot holding the name, or the free slot where it belongs
+  private int slot(int hash, String s, char[] buf, int start, int end) {
+    int mask = _slots.length - 1;
+    for (int i = (hash ^ hash >>> 16) & mask; ; i = (i + 1) & mask) {
+      int k = _slots[i] - 1;
+      if (k < 0 || (null != s ? s.equals(_text[k])
+                    : same(_text[k], buf, start, end)))
+        return i;
+    }
+  }
+
+  // the key of the name, or -1 if it was never interned
+  int find(String s) {
+    return _slots[slot(s.hashCode(), s, null, 0, 0)] - 1;
+  }
+
+  int intern(String s) {
+    int i = slot(s.hashCode(), s, null, 0, 0);
+    return 0 != _slots[i] ? _slots[i] - 1 : add(i, s);
+  }
+
+  // as intern, without making a String when the name is already there
+  int intern(char[] buf, int start, int end) {
+    int i = slot(hash(buf, start, end), null, buf, start, end);
+    return 0 != _slots[i] ? _slots[i] - 1
+      : add(i, new String(buf, start, end - start));
+  }
+
+  private int add(int slot, String s) {
+    if (_size == _text.length)
+      _text = Arrays.copyOf(_text, 2 * _size);
+    _text[_size] = s;
+    _slots[slot] = ++_size;
+    if (2 * _size > _slots.length)
+      rehash();
+    return _size - 1;
+  }
+
+  private void rehash() {
+    _slots = new int[2 * _slots.length];
+    int mask = _slots.length - 1;
+    for (int k=0; k<_size; k++) {
+      int h = _text[k].hashCode(), i = (h ^ h >>> 16) & mask;
+      while (0 != _slots[i])
+        i = (i + 1) & mask;
+      _slots[i] = k + 1;
+    }
+  }
+}
@@ -0,0 +1,112 @@
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// compiles programs nested thousands deep, in parentheses, runs of prefix
+// operators and blocks of every kind, with each parser and generator on the
+// stack the JVM gives the main thread, so run it without -Xss; a program
+// fails on a stack overflow, a nonzero status, or code that differs from
+// that of the default pipeline; SSA form is left out, as its code for
+// deep blocks grows with the square of the depth
+class NestingCheck {
+  static final String[] MODES = { "default", "hand-parser", "fused", "arena" };
+
+  static String repeat(String s, int n) {
+    StringBuilder result = new StringBuilder(s.length() * n);
+    for (int i=0; i<n; i++)
+      result.append(s);
+    return result.toString();
+  }
+
+  static BenchSource program(String name, int n, String stmts) {
+    return new BenchSource(name + "-" + n, "main = fun () -> int {\n"
+                           + "  a = [1, 2];\n  b = false;\n  x = 0;\n"
+                           + stmts + "  -> x;\n}\n");
+  }
+
+  static List<BenchSource> sources(int n) {
+    List<BenchSource> result = new ArrayList<BenchSource>();
+    result.add(program("parentheses", n, "  x := " + repeat("(", n) + "1"
+                       + repeat(")", n) + ";\n"));
+    result.add(program("negations", n, "  x := " + repeat("-", n) + "1;\n"
+                       + "  x := " + repeat("-(", n) + "1" + repeat(")", n)
+                       + ";\n"));
+    result.add(program("nots", n, "  b := " + repeat("!", n) + "true;\n"
+                       + "  if " + repeat("!(", n) + "b" + repeat(")", n)
+                       + " { x := 1; }\n"));
+    String[] opens = {
+      "if b { ", "if b { } else { ", "while b { ", "for v in a { ", "{ "
+    };
+    StringBuilder blocks = new StringBuilder("  ");
+    for (int i=0; i<n; i++)
+      blocks.append(opens[i % opens.length]);
+    blocks.append("x := x + 1; ").append(repeat("}", n)).append("\n");
+    result.add(program("blocks", n, blocks.toString()));
+    return result;
+  }
+
+  static CompileOptions options(String mode) {
+    CompileOptions result = new CompileOptions();
+    result._handParser = "hand-parser".equals(mode);
+    result._fused = "fused".equals(mode);
+    result._arena = "arena".equals(mode);
+    return result;
+  }
+
+  // the assembly code, or null with what went wrong added to problems
+  static String compile(BenchSource src, String mode, List<String> problems)
+    throws IOException {
+    Emitter out = new Emitter();
+    try {
+      int status = Main.compile(src._name, new StringReader(src._text), out,
+                                new ErrorPrinter(System.err, false),
+                                new PhaseTimer(src._name), options(mode),
+                                null);
+      if (0 != status) {
+        problems.add(mode + ": status " + status);
+        return null;
+      }
+    } catch (StackOverflowError e) {
+      problems.add(mode + ": stack overflow");
+      return null;
+    }
+    return new String(out._buf, 0, out._len, StandardCharsets.UTF_8);
+  }
+
+  // returns the number of programs that fail in some mode
+  static int check(List<BenchSource> sources) throws IOException {
+    int failures = 0;
+    for (BenchSource src : sources) {
+      List<String> problems = new ArrayList<String>();
+      String expected = compile(src, MODES[0], problems);
+      for (int i=1; i<MODES.length; i++) {
+        String code = compile(src, MODES[i], problems);
+        if (null != code && null != expected && !code.equals(expected))
+          problems.add(MODES[i] + ": different code");
+      }
+      System.out.println(String.format("%-24s %s", src._name,
+                                       problems.isEmpty() ? "ok" : problems));
+      if (!problems.isEmpty())
+        failures++;
+    }
+    return failures;
+  }
+
+  // usage: NestingCheck [depth]...
+  public static void main(String[] args) throws IOException {
+    List<Integer> depths = new ArrayList<Integer>();
+    for (String arg : args)
+      depths.add(Integer.parseInt(arg));
+    if (depths.isEmpty())
+      depths.addAll(Arrays.asList(300, 10000));
+    int failures = 0;
+    for (int n : depths)
+      failures += check(sources(n));
+    System.out.println(0 == failures ? "all programs compile"
+                       : failures + " program(s) fail");
+    System.exit(0 == failures ? 0 : 1);
+  }
+}
@@ -0,0 +1,147 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// the syntax tree with the location of every node
+class LocatedTreePrinter extends TreeKeyPrinter {
+  LocatedTreePrinter(PrintWriter writer) { super(writer); }
+  SyntaxTreePrinter begin(AstNode ast, String attr) {
+    super.begin(ast, attr);
+    return p("@").p(Integer.toString(ast._loc)).p("\n");
+  }
+}
+
+// checks that HandParser builds the tree that TackParser and TreeNormalizer
+// build, node for node and location for location, or fails at the same
+// place, and compares the time and memory the two take
+class ParserCheck {
+  int _runs = 5;
+
+  // the located tree, or the syntax error
+  static String rats(BenchSource src) throws IOException {
+    TackParser parser = new TackParser(new StringReader(src._text),
+                                       src._name, src._text.length());
+    xtc.parser.Result result = parser.pprogram(0);
+    if (!result.hasValue())
+      return parser.location(result.index) + ": Syntax error.";
+    return print(BenchPhase.normalize(result.semanticValue()));
+  }
+
+  static String hand(BenchSource src) throws IOException {
+    try {
+      return print(HandParser.parse(src._name, new StringReader(src._text)));
+    } catch (SyntaxError e) {
+      return e.getMessage();
+    }
+  }
+
+  static String print(Program ast) {
+    StringWriter result = new StringWriter();
+    PrintWriter w = new PrintWriter(result);
+    ast.accept(new LocatedTreePrinter(w));
+    w.flush();
+    return result.toString();
+  }
+
+  // the first line on which the two differ, for the report
+  static String firstDifference(String a, String b) {
+    String[] as = a.split("\n", -1), bs = b.split("\n", -1);
+    for (int i=0; i<Math.min(as.length, bs.length); i++)
+      if (!as[i].equals(bs[i]))
+        return "line " + (i + 1) + ": " + as[i] + " | " + bs[i];
+    return "lengths " + as.length + " | " + bs.length;
+  }
+
+  // best time and the allocation of that run, of _runs runs
+  long[] measure(BenchSource src, boolean hand) throws IOException {
+    long[] best = { Long.MAX_VALUE, 0 };
+    for (int i=0; i<_runs; i++) {
+      long a0 = PhaseTimer.allocatedBytes();
+      long t0 = System.nanoTime();
+      if (hand)
+        HandParser.parse(src._name, new StringReader(src._text));
+      else
+        BenchPhase.normalize(BenchPhase.parse(src));
+      long nanos = System.nanoTime() - t0;
+      if (nanos < best[0]) {
+        best[0] = nanos;
+        best[1] = PhaseTimer.allocatedBytes() - a0;
+      }
+    }
+    return best;
+  }
+
+  // returns the number of sources on which the parsers disagree
+  int check(List<BenchSource> sources, PrintStream out) throws IOException {
+    int failures = 0;
+    out.println(String.format("%-24s %-8s %10s %10s %8s %10s %10s",
+                              "source", "trees", "rats ms", "hand ms",
+                              "speedup", "rats KB", "hand KB"));
+    for (BenchSource src : sources) {
+      String expected = rats(src), actual = hand(src);
+      boolean same = expected.equals(actual);
+      if (!same)
+        failures++;
+      boolean parsed = !expected.endsWith("Syntax error.");
+      String times = "";
+      if (same && parsed) {
+        long[] r = measure(src, false), h = measure(src, true);
+        times = String.format("%10.3f %10.3f %7.1fx %10d %10d",
+                              r[0] / 1e6, h[0] / 1e6, (double)r[0] / h[0],
+                              r[1] >> 10, h[1] >> 10);
+      }
+      out.println(String.format("%-24s %-8s %s", src._name,
+                                !same ? "DIFFER" : parsed ? "same" : "error",
+                                times));
+      if (!same)
+        out.println("  " + firstDifference(expected, actual));
+    }
+    return failures;
+  }
+
+  // every .tack file of the directory, error tests included
+  static List<BenchSource> corpus(String dir) throws IOException {
+    List<BenchSource> result = new ArrayList<BenchSource>();
+    String[] names = new File(dir).list();
+    Arrays.sort(names);
+    for (String name : names)
+      if (name.endsWith(".tack")) {
+        File f = new File(dir, name);
+        result.add(new BenchSource(f.getPath(), new String(
+          Files.readAllBytes(f.toPath()), StandardCharsets.UTF_8)));
+      }
+    return result;
+  }
+
+  // usage: ParserCheck [-r runs] [-g functions]... [-c corpus-dir]
+  //                    [file.tack]...
+  public static void main(String[] args) throws IOException {
+    ParserCheck check = new ParserCheck();
+    String corpusDir = "test";
+    List<BenchSource> sources = new ArrayList<BenchSource>();
+    List<Integer> sizes = new ArrayList<Integer>();
+    for (int i=0; i<args.length; i++) {
+      if ("-r".equals(args[i])) check._runs = Integer.parseInt(args[++i]);
+      else if ("-g".equals(args[i])) sizes.add(Integer.parseInt(args[++i]));
+      else if ("-c".equals(args[i])) corpusDir = args[++i];
+      else sources.add(new BenchSource(args[i], new String(
+        Files.readAllBytes(new File(args[i]).toPath()), StandardCharsets.UTF_8)));
+    }
+    if (sources.isEmpty())
+      sources.addAll(corpus(corpusDir));
+    for (int n : sizes)
+      sources.add(Bench.synthetic(n));
+    int failures = check.check(sources, System.out);
+    System.out.println(0 == failures ? "all trees agree"
+                       : failures + " source(s) disagree");
+    System.exit(0 == failures ? 0 : 1);
+  }
+}
@@ -0,0 +1,168 @@
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// shows up in a flight recording, one event per phase and file, and one
+// per function for the phases that run function by function
+@Name("tack.Phase")
+@Label("Compiler Phase")
+@Category("Tack")
+@StackTrace(false)
+class PhaseEvent extends Event {
+  @Label("Phase") String phase;
+  @Label("Source File") String file;
+  @Label("Function") String function;
+  @Label("Allocated") @DataAmount long allocated;
+}
+
+class PhaseStats {
+  final String _name;
+  long _wallNanos, _taskNanos, _cpuNanos, _allocated;
+  int _tasks;
+  PhaseStats(String name) { _name = name; }
+}
+
+// a phase, or one function's share of it, being measured on one thread;
+// a parallel phase counts only the allocations of its tasks, since the
+// coordinating thread may run some of them itself
+class PhaseMark {
+  final PhaseStats _stats;
+  final boolean _task, _parallel;
+  final long _startNanos, _startCpu, _startBytes;
+  final PhaseEvent _event;
+  PhaseMark(PhaseStats stats, boolean task, boolean parallel, String file,
+            String function) {
+    _stats = stats;
+    _task = task;
+    _parallel = parallel;
+    _event = new PhaseEvent();
+    _event.phase = stats._name;
+    _event.file = file;
+    _event.function = function;
+    _event.begin();
+    _startBytes = parallel ? stats._allocated : PhaseTimer.allocatedBytes();
+    _startCpu = parallel ? 0 : PhaseTimer.cpuNanos();
+    _startNanos = System.nanoTime();
+  }
+}
+
+// wall time, CPU time and allocated bytes per compiler phase; for the
+// parallel phases, task time, CPU time and allocation are summed over the
+// worker threads
+class PhaseTimer {
+  static final com.sun.management.ThreadMXBean THREADS = threads();
+  final String _file;
+  final List<PhaseStats> _phases;
+  final Map<String, long[]> _ratios;	// part and whole, by name
+
+  PhaseTimer(String file) {
+    _file = file;
+    _phases = new ArrayList<PhaseStats>();
+    _ratios = new LinkedHashMap<String, long[]>();
+  }
+
+  private static com.sun.management.ThreadMXBean threads() {
+    Object bean = ManagementFactory.getThreadMXBean();
+    if (bean instanceof com.sun.management.ThreadMXBean) {
+      com.sun.management.ThreadMXBean result =
+        (com.sun.management.ThreadMXBean)bean;
+      if (result.isThreadAllocatedMemorySupported()) {
+        result.setThreadAllocatedMemoryEnabled(true);
+        return result;
+      }
+    }
+    return null;
+  }
+
+  static long allocatedBytes() {
+    return null == THREADS ? 0 : THREADS.getCurrentThreadAllocatedBytes();
+  }
+
+  // of the current thread, so other threads and the collector do not count
+  static long cpuNanos() {
+    return null == THREADS ? 0 : THREADS.getCurrentThreadCpuTime();
+  }
+
+  synchronized PhaseStats stats(String phase) {
+    for (PhaseStats s : _phases)
+      if (s._name.equals(phase))
+        return s;
+    PhaseStats result = new PhaseStats(phase);
+    _phases.add(result);
+    return result;
+  }
+
+  PhaseMark begin(String phase) {
+    return new PhaseMark(stats(phase), false, false, _file, null);
+  }
+  PhaseMark beginParallel(String phase) {
+    PhaseStats stats = stats(phase);
+    synchronized (this) {
+      return new PhaseMark(stats, false, true, _file, null);
+    }
+  }
+  PhaseMark beginTask(String phase, String function) {
+    return new PhaseMark(stats(phase), true, false, _file, function);
+  }
+
+  // e.g. the hits of a cache among its lookups, reported after the phases
+  synchronized void ratio(String name, long part, long whole) {
+    long[] r = _ratios.get(name);
+    if (null == r)
+      _ratios.put(name, r = new long[2]);
+    r[0] += part;
+    r[1] += whole;
+  }
+
+  void end(PhaseMark mark) {
+    long nanos = System.nanoTime() - mark._startNanos;
+    long bytes = mark._parallel ? 0 : allocatedBytes() - mark._startBytes;
+    long cpu = mark._parallel ? 0 : cpuNanos() - mark._startCpu;
+    PhaseStats s = mark._stats;
+    synchronized (this) {
+      s._allocated += bytes;
+      s._cpuNanos += cpu;
+      if (mark._task) {
+        s._taskNanos += nanos;
+        s._tasks++;
+      } else {
+        s._wallNanos += nanos;
+      }
+      if (mark._parallel)
+        bytes = s._allocated - mark._startBytes;
+    }
+    mark._event.allocated = bytes;
+    mark._event.commit();
+  }
+
+  synchronized void report(PrintStream out) {
+    out.println(String.format("%-12s %10s %10s %6s %14s",
+                              "phase", "wall ms", "task ms", "tasks",
+                              "allocated"));
+    long wall = 0, allocated = 0;
+    for (PhaseStats s : _phases) {
+      out.println(String.format("%-12s %10.2f %10.2f %6d %14d", s._name,
+                                s._wallNanos / 1e6, s._taskNanos / 1e6,
+                                s._tasks, s._allocated));
+      wall += s._wallNanos;
+      allocated += s._allocated;
+    }
+    out.println(String.format("%-12s %10.2f %10s %6s %14d", "total",
+                              wall / 1e6, "", "", allocated));
+    for (Map.Entry<String, long[]> e : _ratios.entrySet()) {
+      long[] r = e.getValue();
+      out.println(String.format("%-12s %10d of %d (%.1f%%)", e.getKey(),
+                                r[0], r[1],
+                                0 == r[1] ? 0.0 : 100.0 * r[0] / r[1]));
+    }
+  }
+}
@@ -0,0 +1,261 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// writes valid, type-correct Tack programs of a requested shape; every
+// block has _stmts simple statements and, while _depth allows, one compound
+// statement nesting further, so size grows linearly in every parameter
+class ProgramGenerator {
+  int _functions = 10;
+  int _stmts = 10;
+  int _depth = 2;
+  int _exprDepth = 2;
+  int _literalSize = 4;
+  int _recordWidth = 2;
+  Random _random;
+  StringBuilder _b;
+  int _indent;
+  int _names;
+  List<String> _ints, _strings, _records, _arrays;
+
+  ProgramGenerator(long seed) {
+    _random = new Random(seed);
+  }
+  ProgramGenerator(long seed, int functions) {
+    this(seed);
+    _functions = functions;
+  }
+
+  String generate() {
+    _b = new StringBuilder();
+    for (int i=0; i<_functions; i++)
+      funDef(i);
+    _b.append("main = fun () -> int {\n");
+    _b.append("  print(").append(function(_functions - 1))
+      .append("(1, \"m\") : string + \"\\n\");\n");
+    _b.append("  -> 0;\n}\n");
+    String result = _b.toString();
+    _b = null;
+    return result;
+  }
+
+  // the trailing underscore keeps generated labels apart, e.g. L_g1_0
+  // versus L_g10_
+  static String function(int i) { return "g" + i + "_"; }
+
+  private void funDef(int i) {
+    _names = 0;
+    _ints = new ArrayList<String>();
+    _strings = new ArrayList<String>();
+    _records = new ArrayList<String>();
+    _arrays = new ArrayList<String>();
+    _ints.add("a");
+    _strings.add("s");
+    _b.append(function(i)).append(" = fun (a: int, s: string) -> int {\n");
+    _indent = 1;
+    block(_depth, i);
+    line().append("-> ").append(intExpr(_exprDepth)).append(";\n");
+    _b.append("}\n");
+  }
+
+  private StringBuilder line() {
+    for (int i=0; i<_indent; i++)
+      _b.append("  ");
+    return _b;
+  }
+
+  private String fresh(String prefix) { return prefix + _names++; }
+
+  private String pick(List<String> names) {
+    return names.get(_random.nextInt(names.size()));
+  }
+
+  // the statements of a block, without the braces
+  private void block(int depth, int fun) {
+    int ints = _ints.size(), strings = _strings.size();
+    int records = _records.size(), arrays = _arrays.size();
+    for (int i=0; i<_stmts; i++)
+      simpleStmt(fun);
+    if (0 < depth)
+      compoundStmt(depth, fun);
+    truncate(_ints, ints);
+    truncate(_strings, strings);
+    truncate(_records, records);
+    truncate(_arrays, arrays);
+  }
+
+  private static void truncate(List<String> names, int size) {
+    while (names.size() > size)
+      names.remove(names.size() - 1);
+  }
+
+  private void simpleStmt(int fun) {
+    int choice = _random.nextInt(8);
+    if (5 == choice && 0 == fun)
+      choice = 6;			// no earlier function to call
+    switch (choice) {
+    case 0: {
+      String v = fresh("r");
+      line().append(v).append(" = ").append(recordLit()).append(";\n");
+      _records.add(v);
+      break;
+    }
+    case 1: {
+      String v = fresh("arr");
+      line().append(v).append(" = ").append(arrayLit()).append(";\n");
+      _arrays.add(v);
+      break;
+    }
+    case 2: {
+      String v = fresh("t");
+      line().append(v).append(" = ").append(stringExpr(_exprDepth))
+        .append(";\n");
+      _strings.add(v);
+      break;
+    }
+    case 3:
+      line().append(pick(_ints)).append(" := ").append(intExpr(_exprDepth))
+        .append(";\n");
+      break;
+    case 4:
+      line().append("print(").append(stringExpr(_exprDepth))
+        .append(");\n");
+      break;
+    case 5:
+      line().append(pick(_ints)).append(" := ")
+        .append(function(_random.nextInt(fun))).append("(")
+        .append(intExpr(_exprDepth)).append(", ")
+        .append(stringExpr(_exprDepth)).append(");\n");
+      break;
+    default: {
+      String v = fresh("x");
+      line().append(v).append(" = ").append(intExpr(_exprDepth))
+        .append(";\n");
+      _ints.add(v);
+      break;
+    }
+    }
+  }
+
+  private void compoundStmt(int depth, int fun) {
+    switch (depth % 3) {
+    case 0: {
+      line().append("if ").append(boolExpr(_exprDepth)).append(" {\n");
+      nested(depth, fun);
+      line().append("} else {\n");
+      nested(1, fun);
+      line().append("}\n");
+      break;
+    }
+    case 1: {
+      String w = fresh("w");
+      line().append(w).append(" = 3;\n");
+      line().append("while (").append(w).append(" > 0) {\n");
+      _indent++;
+      line().append(w).append(" := ").append(w).append(" - 1;\n");
+      _indent--;
+      nested(depth, fun);
+      line().append("}\n");
+      break;
+    }
+    default: {
+      String arr = fresh("arr"), e = fresh("e");
+      line().append(arr).append(" = ").append(arrayLit()).append(";\n");
+      line().append("for ").append(e).append(" in ").append(arr)
+        .append(" {\n");
+      _ints.add(e);
+      nested(depth, fun);
+      _ints.remove(_ints.size() - 1);
+      line().append("}\n");
+      break;
+    }
+    }
+  }
+
+  private void nested(int depth, int fun) {
+    _indent++;
+    block(depth - 1, fun);
+    _indent--;
+  }
+
+  private String intAtom() {
+    switch (_random.nextInt(6)) {
+    case 0: return Integer.toString(_random.nextInt(1000));
+    case 1:
+      if (!_records.isEmpty())
+        return pick(_records) + ".f" + _random.nextInt(_recordWidth);
+      break;
+    case 2:
+      if (!_arrays.isEmpty())
+        return pick(_arrays) + "[" + _random.nextInt(_literalSize) + "]";
+      break;
+    case 3: return "length(" + pick(_strings) + ")";
+    }
+    return pick(_ints);
+  }
+
+  // depth counts nested operators along one spine of the tree
+  private String intExpr(int depth) {
+    if (0 == depth)
+      return intAtom();
+    switch (_random.nextInt(4)) {
+    case 0: return "(" + intAtom() + " + " + intExpr(depth - 1) + ")";
+    case 1: return "(" + intExpr(depth - 1) + " - " + intAtom() + ")";
+    case 2: return "(" + intAtom() + " * " + intExpr(depth - 1) + ")";
+    default: return "-" + intExpr(depth - 1);
+    }
+  }
+
+  private String boolExpr(int depth) {
+    if (0 == depth)
+      return intAtom() + " < " + intAtom();
+    switch (_random.nextInt(3)) {
+    case 0: return intAtom() + " == " + intAtom() + " || "
+      + boolExpr(depth - 1);
+    case 1: return intAtom() + " >= " + intAtom() + " && "
+      + boolExpr(depth - 1);
+    default: return "!(" + boolExpr(depth - 1) + ")";
+    }
+  }
+
+  private String stringLit() {
+    StringBuilder result = new StringBuilder("\"");
+    for (int i=0; i<_literalSize; i++)
+      result.append((char)('a' + _random.nextInt(26)));
+    return result.append("\"").toString();
+  }
+
+  private String stringAtom() {
+    switch (_random.nextInt(3)) {
+    case 0: return stringLit();
+    case 1: return intAtom() + " : string";
+    default: return pick(_strings);
+    }
+  }
+
+  private String stringExpr(int depth) {
+    if (0 == depth)
+      return stringAtom();
+    return stringAtom() + " + " + stringExpr(depth - 1);
+  }
+
+  private String recordLit() {
+    StringBuilder result = new StringBuilder("(");
+    for (int i=0; i<_recordWidth; i++) {
+      if (0 < i)
+        result.append(", ");
+      result.append("f").append(i).append(" = ").append(intAtom());
+    }
+    return result.append(")").toString();
+  }
+
+  private String arrayLit() {
+    StringBuilder result = new StringBuilder("[");
+    for (int i=0; i<_literalSize; i++) {
+      if (0 < i)
+        result.append(", ");
+      result.append(intAtom());
+    }
+    return result.append("]").toString();
+  }
+}
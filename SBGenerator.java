@@ -1,16 +1,12 @@
-import java.io.PrintWriter;
-
 class SBGenerator extends IRVisitor {
-  PrintWriter _writer; 
-  int _lcount;
   int _ocount;
   SymbolTable _symTab;
+  FunDef _fun;			// being laid out
 
-  SBGenerator(PrintWriter writer, SymbolTable symTab) {
-    _writer = writer;
-    _lcount = 0;
+  SBGenerator(SymbolTable symTab) {
     _ocount = -1;	// init value
     _symTab = symTab;
+    _fun = null;
   }
 
   SBGenerator p(Address ir) {
@@ -26,15 +22,20 @@ class SBGenerator extends IRVisitor {
   SBGenerator pln() {
     return this;
   }
-  String getNewLabel() {
-	  return "S_" + _lcount++;
+  // string labels are numbered across the program, in function order
+  static int labelStrings(FunDef fun, int first) {
+    for (ConstantAddr stringAddr : fun._heldScope._rodatas)
+      stringAddr._label = fun._name._id + ".S_" + first++;
+    return first;
   }
   
   // ---------------- top-level ----------------
   Object visit(Program ir) {
+    int strings = 0;
     for (int i=0, n=ir._functions.size(); i<n; i++) {
       FunDef fun = ir._functions.get(i);
       fun.accept(this);
+      strings = labelStrings(fun, strings);
       if (i != n - 1)
 	pln();
     }
@@ -43,12 +44,15 @@ class SBGenerator extends IRVisitor {
 
   Object visit(FunDef ir) {
 	  _symTab.push(ir._heldScope);
+	  _fun = ir;
 	  ir._stack = new CCStack();
+	  ir._stack.clear(ir._sym._addresses.values());
+	  ir._stack.clear(ir._sym._temps);
     p(ir._name._id).p(" = fun ").p(ir._type.toString()).pln();
 
     // firstly push defined local on formal parameters 
 	  for (FieldType s :ir._type._formals._fields) {
-		  ir._stack.push(s._field._id);
+		  ir._stack.push(((VarSym)ir._heldScope.get(s._field._key))._addr);
 	  }
 	  
     for (Instruction instr : ir._sym._instructions) {
@@ -77,10 +81,7 @@ class SBGenerator extends IRVisitor {
 
   // ---------------- addresses ----------------
   Object visit(NameAddr ir) {
-	  assert _symTab._current._owner instanceof FunDef;
-	  FunDef owner = (FunDef)_symTab._current._owner;
-	  
-	  owner._stack.push(ir);
+	  _fun._stack.push(ir);
 	  
     p(ir._name);
     return null;
@@ -88,19 +89,14 @@ class SBGenerator extends IRVisitor {
 
   Object visit(ConstantAddr ir) {
     if (ir._literal instanceof StringLit) {
-	  assert _symTab._current._owner instanceof FunDef;
-	  FunDef owner = (FunDef)_symTab._current._owner;
-	  ir._label = owner._name._id + "." + getNewLabel();
-	  _symTab._current._rodatas.add(ir);
+	  _fun._heldScope._rodatas.add(ir);
     }
     p(ir._literal.toString());
     return ir._literal.toString();
   }
 
   Object visit(TempAddr ir) {
-	  assert _symTab._current._owner instanceof FunDef;
-	  FunDef owner = (FunDef)_symTab._current._owner;
-	  owner._stack.push(ir);
+	  _fun._stack.push(ir);
     p(ir._name);
     return null;
   }
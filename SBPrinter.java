@@ -1,4 +1,3 @@
-import java.io.PrintWriter;
 import java.util.ArrayList;
 import java.util.List;
 class RegisterAddr {
@@ -82,7 +81,7 @@ class Registers {
 }
 
 class SBPrinter extends IRVisitor {
-  PrintWriter _writer; 
+  Emitter _emitter;
   int _lcount;
   int _indent;
   boolean _lineStart;
@@ -90,9 +89,10 @@ class SBPrinter extends IRVisitor {
   SymbolTable _symTab;
   Registers _regAddr;
   FunDef _owner;
+  IRNames _names;	// of _owner
 
-  SBPrinter(PrintWriter writer, SymbolTable symTab) {
-    _writer = writer;
+  SBPrinter(Emitter emitter, SymbolTable symTab) {
+    _emitter = emitter;
     _lcount = 0;
     _indent = 0;
     _rodatas = new ArrayList<String>();
@@ -100,6 +100,7 @@ class SBPrinter extends IRVisitor {
     _lineStart = true;
     _regAddr = new Registers();
     _owner = null;
+    _names = null;
   }
 
   SBPrinter p(Address ir) {
@@ -108,16 +109,16 @@ class SBPrinter extends IRVisitor {
   }
   SBPrinter p(String s) {
 	  printIndentIfLineStart();
-    _writer.print(s);
+    _emitter.print(s);
     return this;
   }
   SBPrinter p(int i) {
 	  printIndentIfLineStart();
-    _writer.print(i);
+    _emitter.print(i);
     return this;
   }
   SBPrinter pln() {
-    _writer.println();
+    _emitter.println();
     _lineStart = true;
     return this;
   }
@@ -134,7 +135,7 @@ class SBPrinter extends IRVisitor {
 	  if (_lineStart) {
 		  _lineStart = false;
 		  for (int i = 0; i < _indent; i++)
-			  _writer.print("    ");
+			  _emitter.print("    ");
 	  }
 	  return this;
   }
@@ -158,19 +159,12 @@ class SBPrinter extends IRVisitor {
   SBPrinter move(String a, Address b) { return p("mov ").p(a).p(", ").p(b); }
   SBPrinter move(Address a, String b) { return p("mov ").p(a).p(", ").p(b); }
   SBPrinter move(Address a, Address b) { return p("mov ").p(a).p(", ").p(b); }
-  int getRecordOffset(Type t, String name) {
-	  if (t instanceof RecordType) {
-		  RecordType rt = (RecordType)t;
-		  int i = 0;
-		  for ( FieldType f : rt._fields) {
-			  if (f._field._id.equals(name))
-				  return i;
-			  i-=8;
-		  }
-		  assert false : "no such " + name + " defined";
-	  } else
-		  assert false : "unexpected error";
-	  return 0;
+  // the offsets are those of the canonical record, see TypeTable
+  int getRecordOffset(Type t, int key) {
+	  assert t._canon instanceof RecordType : "unexpected error";
+	  Symbol field = ((RecordType)t._canon)._heldScope.get(key);
+	  assert null != field : "no such " + key + " defined";
+	  return ((FieldType)((FieldSym)field)._def)._field._offset;
   }
   // ---------------- top-level ----------------
   Object visit(Program ir) {
@@ -189,6 +183,7 @@ class SBPrinter extends IRVisitor {
 	  _symTab.push(ir._heldScope);
 	  assert _owner == null;
 	  _owner = ir;	// held owner
+	  _names = new IRNames(ir._sym);
 	  // beginning of .rodata section (string literals)
 	  if (!_symTab._current._rodatas.isEmpty()) {
 		  List<ConstantAddr> rodatas = _symTab._current._rodatas;
@@ -218,15 +213,16 @@ class SBPrinter extends IRVisitor {
 	  // calling conventions
 	  for (int i = 0; i < ir._type._formals._fields.size(); i++) {
 		  assert ir._type._formals._fields.get(i)._field != null;
-		  String param = ir._type._formals._fields.get(i)._field._id;
+		  FieldId formal = ir._type._formals._fields.get(i)._field;
+		  int param = ((VarSym)ir._heldScope.get(formal._key))._addr._offset;
 		  if (i < 6) {
 			  // move param's local, caller-save reg
-			  indent().p("mov [%rbp").p(ir._stack.getOffset(param)).p("], ").p(_regAddr.getParamReg(i)).pln().dedent();
+			  indent().p("mov [%rbp").p(param).p("], ").p(_regAddr.getParamReg(i)).pln().dedent();
 			  _regAddr.freeAllRegister();
 		  }
 		  else {
 			  // move param's local, caller's memory
-			  indent().p("mov [%rbp").p(ir._stack.getOffset(param)).p("], [%rbp+").p(8*(i-4)).p("]").pln().dedent();
+			  indent().p("mov [%rbp").p(param).p("], [%rbp+").p(8*(i-4)).p("]").pln().dedent();
 		  }
 	  }
 	  
@@ -234,15 +230,13 @@ class SBPrinter extends IRVisitor {
 
 	  // for each instructions' part
 	  
-    for (Instruction instr : ir._sym._instructions) {
-      for (Label label : instr._labels)
-        p(label).p(":");
-      if (!instr._labels.isEmpty())
-        pln();
-      //p("  ");
-      indent();
-      instr.accept(this);
-      dedent();
+    if (null == ir._sym._cfg) {
+      for (Instruction instr : ir._sym._instructions)
+        emit(instr);
+    } else {
+      for (BasicBlock b : ir._sym._cfg._blocks)
+        for (Instruction instr : b._instrs)
+          emit(instr);
     }
     
     // epilogue belongs to returnInstruction
@@ -254,19 +248,30 @@ class SBPrinter extends IRVisitor {
     return null;
   }
 
+  private void emit(Instruction instr) {
+    for (Label label : instr._labels)
+      p(label).p(":");
+    if (!instr._labels.isEmpty())
+      pln();
+    //p("  ");
+    indent();
+    instr.accept(this);
+    dedent();
+  }
+
   Object visit(Type ir) {
     assert false : "use 'p(Type t)' instead";
     return null;
   }
 
   Object visit(Label ir) {
-    p(ir._name);
+    p(_names.name(ir));
     return null;
   }
 
   // ---------------- addresses ----------------
   Object visit(NameAddr ir) {
-	  p(_owner._stack.getMemory(ir._name));
+	  p("[%rbp").p(ir._offset).p("]");
     return null;
   }
 
@@ -296,39 +301,13 @@ class SBPrinter extends IRVisitor {
   }
 
   Object visit(TempAddr ir) {
-	  p(_owner._stack.getMemory(ir._name));
+	  p("[%rbp").p(ir._offset).p("]");
     return null;
   }
   
-  int getElemType(Type tgt) {
-	  if (tgt instanceof ArrayType) {
-		  ArrayType arrtype = (ArrayType)tgt;
-		  return getElemType(arrtype._elem);
-	  }
-	  else if (tgt instanceof FieldType) {
-		  assert false : "not implemented";
-		  FieldType fdtype = (FieldType)tgt;
-		  fdtype._sym.type();
-	  }
-	  else if (tgt instanceof RecordType) {
-		  return 8;
-	  }
-	  else if ("int".equals(tgt.toString()))
-		  return 8;
-	  else if ("string".equals(tgt.toString()))
-		  return 8;
-	  else if ("bool".equals(tgt.toString()))
-		  return 8;
-	  else if ("void".equals(tgt.toString()))
-		  return 8;
-	  else
-		  assert false: "not expected case";
-	  return 0;
-  }
-
   Object visit(SizeofAddr ir) {
-	int elemsize = getElemType(ir._ofType);
-	  p(elemsize);
+	  assert ir._ofType == ir._ofType._canon : "not expected case";
+	  p(ir._ofType._size);
     return null;
   }
 
@@ -433,41 +412,46 @@ class SBPrinter extends IRVisitor {
     return null;
   }
 
+  // the name of a primitive type, else null; names are interned
+  private static String primitive(Type t) {
+	  return t instanceof PrimitiveType ? ((PrimitiveType)t)._name : null;
+  }
+
   Object visit(CastInstr ir) {
 	  //assert false: "not yet implemented";
-	  String outType = ir._type.toString();
-	  String inType = ir._in.type().toString();
+	  String outType = primitive(ir._type);
+	  String inType = primitive(ir._in.type());
 	  String rdi = _regAddr.getThisReg("%rdi");
-	  if (outType.toString().equals(inType)) {
+	  if (outType == inType) {
 		  move(rdi, ir._in).pln();
 		  move(ir._out, rdi).pln();
 	  }
-	  else if ("string".equals(inType) && "int".equals(outType)) {
+	  else if (PrimitiveType.STRING == inType && PrimitiveType.INT == outType) {
 		  move(rdi, ir._in).pln();
 		  p("call string2int").pln();
 		  move(ir._out, "%rax").pln();
 	  }
-	  else if ("int".equals(inType) && "string".equals(outType)) {
+	  else if (PrimitiveType.INT == inType && PrimitiveType.STRING == outType) {
 		  move(rdi, ir._in).pln();
 		  p("call int2string").pln();
 		  move(ir._out, "%rax").pln();
 	  }
-	  else if ("bool".equals(inType) && "int".equals(outType)) {
+	  else if (PrimitiveType.BOOL == inType && PrimitiveType.INT == outType) {
 		  move(rdi, ir._in).pln();
 		  p("call bool2int").pln();
 		  move(ir._out, "%rax").pln();
 	  }
-	  else if ("int".equals(inType) && "bool".equals(outType)) {
+	  else if (PrimitiveType.INT == inType && PrimitiveType.BOOL == outType) {
 		  move(rdi, ir._in).pln();
 		  p("call int2bool").pln();
 		  move(ir._out, "%rax").pln();
 	  }
-	  else if ("string".equals(inType) && "bool".equals(outType)) {
+	  else if (PrimitiveType.STRING == inType && PrimitiveType.BOOL == outType) {
 		  move(rdi, ir._in).pln();
 		  p("call string2bool").pln();
 		  move(ir._out, "%rax").pln();
 	  }
-	  else if ("bool".equals(inType) && "string".equals(outType)) {
+	  else if (PrimitiveType.BOOL == inType && PrimitiveType.STRING == outType) {
 		  move(rdi, ir._in).pln();
 		  p("call int2string").pln();
 		  move(ir._out, "%rax").pln();
@@ -594,7 +578,7 @@ class SBPrinter extends IRVisitor {
   Object visit(RecReadInstr ir) {
 	  String reg1 = _regAddr.getFreeReg();
 	  String reg2 = _regAddr.getFreeReg();
-	  int offset = getRecordOffset(ir._base.type(), ir._field.name());
+	  int offset = getRecordOffset(ir._base.type(), ir._field.key());
 	  move(reg1, ir._base).pln();
 	  p("add ").p(reg1).p(", ").p(offset).pln();
 	  move(reg2, "[" + reg1 + "]").pln();
@@ -604,10 +588,15 @@ class SBPrinter extends IRVisitor {
     return null;
   }
   
+  Object visit(PhiInstr ir) {
+    assert false : "phi after SSAForm.destruct";
+    return null;
+  }
+
   Object visit(RecWriteInstr ir) {
 	  String reg1 = _regAddr.getFreeReg();
 	  String reg2 = _regAddr.getFreeReg();
-	  int offset = getRecordOffset(ir._base.type(), ir._field.name());
+	  int offset = getRecordOffset(ir._base.type(), ir._field.key());
 	  move(reg1, ir._base).pln();
 	  move(reg2, ir._in).pln();
 	  p("add ").p(reg1).p(", ").p(offset).pln();
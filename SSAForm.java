@@ -0,0 +1,499 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+abstract class AddressMap {
+  abstract Address map(Address a);
+}
+
+// puts the IR of a function, through its ControlFlowGraph, into static
+// single assignment form and takes it out again. Only variables and
+// temporaries defined more than once are renamed, each definition to a
+// fresh temporary; phis go on the iterated dominance frontiers of their
+// definitions, for those live across blocks only (semi-pruned SSA).
+// Translating out puts the parallel copy of each edge at the end of its
+// source, or in a block of its own when the source branches, and
+// sequentializes it after Boissinot et al., with a temporary per cycle
+class SSAForm {
+  final FunSym _fun;
+  final ControlFlowGraph _cfg;
+  final Map<Address, Integer> _vars;	// the defined ones, numbered
+  final List<Address> _originals;	// by number
+  final List<List<Address>> _stacks;	// current versions, by number
+  boolean[] _renamed;
+  boolean[] _global;			// used in a block before defined in it
+  int[] _killed;			// last block defining it, by rpo
+  int _block;				// rpo of the one being scanned
+
+  private SSAForm(FunSym fun) {
+    _fun = fun;
+    _cfg = fun._cfg;
+    _vars = new IdentityHashMap<Address, Integer>();
+    _originals = new ArrayList<Address>();
+    _stacks = new ArrayList<List<Address>>();
+    _renamed = null;
+    _global = null;
+    _killed = null;
+    _block = -1;
+  }
+
+  static void construct(FunSym fun) {
+    if (!fun._cfg._rpo.isEmpty())
+      new SSAForm(fun).construct();
+  }
+
+  // ---------------- definitions and uses ----------------
+  static Address def(Instruction instr) {
+    if (instr instanceof CopyInstr) return ((CopyInstr)instr)._out;
+    if (instr instanceof InfixInstr) return ((InfixInstr)instr)._out;
+    if (instr instanceof PrefixInstr) return ((PrefixInstr)instr)._out;
+    if (instr instanceof CastInstr) return ((CastInstr)instr)._out;
+    if (instr instanceof CallInstr) return ((CallInstr)instr)._out;
+    if (instr instanceof ArrReadInstr) return ((ArrReadInstr)instr)._out;
+    if (instr instanceof RecReadInstr) return ((RecReadInstr)instr)._out;
+    if (instr instanceof PhiInstr) return ((PhiInstr)instr)._out;
+    return null;
+  }
+
+  static void setDef(Instruction instr, Address a) {
+    if (instr instanceof CopyInstr) ((CopyInstr)instr)._out = a;
+    else if (instr instanceof InfixInstr) ((InfixInstr)instr)._out = a;
+    else if (instr instanceof PrefixInstr) ((PrefixInstr)instr)._out = a;
+    else if (instr instanceof CastInstr) ((CastInstr)instr)._out = a;
+    else if (instr instanceof CallInstr) ((CallInstr)instr)._out = a;
+    else if (instr instanceof ArrReadInstr) ((ArrReadInstr)instr)._out = a;
+    else if (instr instanceof RecReadInstr) ((RecReadInstr)instr)._out = a;
+    else ((PhiInstr)instr)._out = a;
+  }
+
+  // replaces every address the instruction reads, other than in a phi, by
+  // what map makes of it
+  static void uses(Instruction instr, AddressMap map) {
+    if (instr instanceof CopyInstr) {
+      CopyInstr i = (CopyInstr)instr;
+      i._in = map.map(i._in);
+    } else if (instr instanceof InfixInstr) {
+      InfixInstr i = (InfixInstr)instr;
+      i._lhs = map.map(i._lhs);
+      i._rhs = map.map(i._rhs);
+    } else if (instr instanceof PrefixInstr) {
+      PrefixInstr i = (PrefixInstr)instr;
+      i._in = map.map(i._in);
+    } else if (instr instanceof CastInstr) {
+      CastInstr i = (CastInstr)instr;
+      i._in = map.map(i._in);
+    } else if (instr instanceof TrueJumpInstr) {
+      TrueJumpInstr i = (TrueJumpInstr)instr;
+      i._cond = map.map(i._cond);
+    } else if (instr instanceof FalseJumpInstr) {
+      FalseJumpInstr i = (FalseJumpInstr)instr;
+      i._cond = map.map(i._cond);
+    } else if (instr instanceof RelopJumpInstr) {
+      RelopJumpInstr i = (RelopJumpInstr)instr;
+      i._lhs = map.map(i._lhs);
+      i._rhs = map.map(i._rhs);
+    } else if (instr instanceof ParamInstr) {
+      ParamInstr i = (ParamInstr)instr;
+      i._in = map.map(i._in);
+    } else if (instr instanceof ReturnInstr) {
+      ReturnInstr i = (ReturnInstr)instr;
+      if (null != i._val)
+        i._val = map.map(i._val);
+    } else if (instr instanceof ArrReadInstr) {
+      ArrReadInstr i = (ArrReadInstr)instr;
+      i._base = map.map(i._base);
+      i._subscript = map.map(i._subscript);
+    } else if (instr instanceof ArrWriteInstr) {
+      ArrWriteInstr i = (ArrWriteInstr)instr;
+      i._base = map.map(i._base);
+      i._subscript = map.map(i._subscript);
+      i._in = map.map(i._in);
+    } else if (instr instanceof RecReadInstr) {
+      RecReadInstr i = (RecReadInstr)instr;
+      i._base = map.map(i._base);
+    } else if (instr instanceof RecWriteInstr) {
+      RecWriteInstr i = (RecWriteInstr)instr;
+      i._base = map.map(i._base);
+      i._in = map.map(i._in);
+    }
+  }
+
+  private static boolean variable(Address a) {
+    return a instanceof NameAddr || a instanceof TempAddr;
+  }
+
+  // -1 for constants and for what is never defined
+  private int var(Address a) {
+    Integer v = null == a ? null : _vars.get(a);
+    return null == v ? -1 : v;
+  }
+
+  private int define(Address a) {
+    int v = var(a);
+    if (-1 == v) {
+      v = _originals.size();
+      _vars.put(a, v);
+      _originals.add(a);
+    }
+    return v;
+  }
+
+  private TempAddr version(int v) {
+    TempAddr result = new TempAddr(_originals.get(v).type(),
+                                   _fun._temps.size());
+    _fun._temps.add(result);
+    _stacks.get(v).add(result);
+    return result;
+  }
+
+  private Address current(int v) {
+    List<Address> stack = _stacks.get(v);
+    return stack.get(stack.size() - 1);
+  }
+
+  // ---------------- construction ----------------
+  private void construct() {
+    List<BasicBlock> rpo = _cfg._rpo;
+    int n = rpo.size();
+    List<List<BasicBlock>> defBlocks = new ArrayList<List<BasicBlock>>();
+    List<Integer> defCount = new ArrayList<Integer>();
+    BasicBlock entry = rpo.get(0);
+    for (FieldType f : _fun._def._type._formals._fields) {
+      Address formal = ((VarSym)_fun._def._heldScope.get(f._field._key))._addr;
+      defined(define(formal), entry, defBlocks, defCount);
+    }
+    for (BasicBlock b : rpo)
+      for (Instruction instr : b._instrs) {
+        Address d = def(instr);
+        if (variable(d))
+          defined(define(d), b, defBlocks, defCount);
+      }
+    int vars = _originals.size();
+    _renamed = new boolean[vars];
+    _global = new boolean[vars];
+    _killed = new int[vars];
+    Arrays.fill(_killed, -1);
+    AddressMap scan = new AddressMap() {
+      Address map(Address a) {
+        int v = var(a);
+        if (-1 != v && _block != _killed[v])
+          _global[v] = true;
+        return a;
+      }
+    };
+    for (BasicBlock b : rpo) {
+      _block = b._rpo;
+      for (Instruction instr : b._instrs) {
+        uses(instr, scan);
+        int v = var(def(instr));
+        if (-1 != v)
+          _killed[v] = _block;
+      }
+    }
+    for (int v=0; v<vars; v++) {
+      _renamed[v] = 1 < defCount.get(v);
+      List<Address> stack = new ArrayList<Address>();
+      stack.add(_originals.get(v));
+      _stacks.add(stack);
+    }
+    List<List<BasicBlock>> frontiers = frontiers();
+    List<List<PhiInstr>> phis = new ArrayList<List<PhiInstr>>(n);
+    for (int i=0; i<n; i++)
+      phis.add(new ArrayList<PhiInstr>(0));
+    int[] hasPhi = new int[n], queued = new int[n];
+    Arrays.fill(hasPhi, -1);
+    Arrays.fill(queued, -1);
+    List<BasicBlock> work = new ArrayList<BasicBlock>();
+    for (int v=0; v<vars; v++) {
+      if (!_renamed[v] || !_global[v])
+        continue;
+      for (BasicBlock b : defBlocks.get(v)) {
+        queued[b._rpo] = v;
+        work.add(b);
+      }
+      while (!work.isEmpty()) {
+        BasicBlock b = work.remove(work.size() - 1);
+        for (BasicBlock f : frontiers.get(b._rpo)) {
+          if (v == hasPhi[f._rpo])
+            continue;
+          hasPhi[f._rpo] = v;
+          // the entry may be a loop header, and then one more operand
+          // holds the value from the start of the function
+          phis.get(f._rpo).add(new PhiInstr(f._instrs.get(0)._loc,
+                                            _originals.get(v),
+                                            f._preds.size()
+                                            + (entry == f ? 1 : 0)));
+          if (v != queued[f._rpo]) {
+            queued[f._rpo] = v;
+            work.add(f);
+          }
+        }
+      }
+    }
+    rename(phis);
+    for (BasicBlock b : rpo) {
+      List<PhiInstr> p = phis.get(b._rpo);
+      if (p.isEmpty())
+        continue;
+      for (PhiInstr phi : p)
+        for (int j=0; j<phi._in.length; j++)
+          if (null == phi._in[j])	// from the start or unreachable
+            phi._in[j] = phi._var;
+      Instruction first = b._instrs.get(0);
+      p.get(0)._labels.addAll(first._labels);
+      first._labels.clear();
+      b._instrs.addAll(0, p);
+    }
+  }
+
+  private static void defined(int v, BasicBlock b,
+                              List<List<BasicBlock>> defBlocks,
+                              List<Integer> defCount) {
+    if (v == defBlocks.size()) {
+      defBlocks.add(new ArrayList<BasicBlock>(1));
+      defCount.add(0);
+    }
+    List<BasicBlock> blocks = defBlocks.get(v);
+    if (blocks.isEmpty() || b != blocks.get(blocks.size() - 1))
+      blocks.add(b);
+    defCount.set(v, defCount.get(v) + 1);
+  }
+
+  // by reverse postorder number, after Cooper, Harvey and Kennedy
+  private List<List<BasicBlock>> frontiers() {
+    int n = _cfg._rpo.size();
+    List<List<BasicBlock>> result = new ArrayList<List<BasicBlock>>(n);
+    for (int i=0; i<n; i++)
+      result.add(new ArrayList<BasicBlock>(0));
+    BasicBlock entry = _cfg._rpo.get(0);
+    for (BasicBlock b : _cfg._rpo) {
+      int reachable = entry == b ? 1 : 0;	// the start of the function
+      for (BasicBlock p : b._preds)
+        if (p.reachable())
+          reachable++;
+      if (2 > reachable)
+        continue;
+      for (BasicBlock p : b._preds) {
+        if (!p.reachable())
+          continue;
+        for (BasicBlock r = p; null != r && r != b._idom; r = r._idom) {
+          List<BasicBlock> df = result.get(r._rpo);
+          if (df.isEmpty() || b != df.get(df.size() - 1))
+            df.add(b);
+        }
+      }
+    }
+    return result;
+  }
+
+  // over the dominator tree with an explicit stack, as it can be as deep
+  // as the function is long
+  private void rename(List<List<PhiInstr>> phis) {
+    int n = _cfg._rpo.size();
+    BasicBlock[] stack = new BasicBlock[n];
+    int[] next = new int[n];
+    int[] pushedFrom = new int[n];
+    List<Integer> pushed = new ArrayList<Integer>();
+    AddressMap current = new AddressMap() {
+      Address map(Address a) {
+        int v = var(a);
+        return -1 == v || !_renamed[v] ? a : current(v);
+      }
+    };
+    int top = 0;
+    stack[0] = _cfg._rpo.get(0);
+    pushedFrom[0] = 0;
+    enter(stack[0], phis, current, pushed);
+    while (0 <= top) {
+      BasicBlock b = stack[top];
+      if (next[top] < b._dominated.size()) {
+        BasicBlock c = b._dominated.get(next[top]++);
+        stack[++top] = c;
+        next[top] = 0;
+        pushedFrom[top] = pushed.size();
+        enter(c, phis, current, pushed);
+      } else {
+        for (int i=pushed.size() - 1; i>=pushedFrom[top]; i--) {
+          List<Address> versions = _stacks.get(pushed.remove(i));
+          versions.remove(versions.size() - 1);
+        }
+        top--;
+      }
+    }
+  }
+
+  private void enter(BasicBlock b, List<List<PhiInstr>> phis,
+                     AddressMap current, List<Integer> pushed) {
+    for (PhiInstr phi : phis.get(b._rpo)) {
+      int v = var(phi._var);
+      phi._out = version(v);
+      pushed.add(v);
+    }
+    for (Instruction instr : b._instrs) {
+      uses(instr, current);
+      int v = var(def(instr));
+      if (-1 != v && _renamed[v]) {
+        setDef(instr, version(v));
+        pushed.add(v);
+      }
+    }
+    for (BasicBlock s : b._succs) {
+      List<PhiInstr> p = phis.get(s._rpo);
+      if (p.isEmpty())
+        continue;
+      int j = s._preds.indexOf(b);
+      for (PhiInstr phi : p)
+        phi._in[j] = current(var(phi._var));
+    }
+  }
+
+  // ---------------- destruction ----------------
+  static void destruct(FunSym fun) {
+    ControlFlowGraph cfg = fun._cfg;
+    Map<BasicBlock, List<Instruction>> after =
+      new HashMap<BasicBlock, List<Instruction>>();
+    List<Instruction> appended = new ArrayList<Instruction>();
+    boolean any = false;
+    for (BasicBlock s : cfg._blocks) {
+      int phis = 0;
+      while (phis < s._instrs.size() && s._instrs.get(phis) instanceof PhiInstr)
+        phis++;
+      if (0 == phis)
+        continue;
+      any = true;
+      for (int j=0; j<s._preds.size(); j++) {
+        BasicBlock p = s._preds.get(j);
+        if (!p.reachable())
+          continue;
+        List<Address> dsts = new ArrayList<Address>(phis);
+        List<Address> srcs = new ArrayList<Address>(phis);
+        for (int i=0; i<phis; i++) {
+          PhiInstr phi = (PhiInstr)s._instrs.get(i);
+          if (phi._out != phi._in[j]) {
+            dsts.add(phi._out);
+            srcs.add(phi._in[j]);
+          }
+        }
+        if (!dsts.isEmpty())
+          copy(fun, p, s, sequentialize(fun, p.last()._loc, dsts, srcs),
+               after, appended);
+      }
+      Instruction first = s._instrs.get(0);
+      List<Address> dsts = new ArrayList<Address>(phis);
+      List<Address> srcs = new ArrayList<Address>(phis);
+      int start = s._preds.size();
+      for (int i=0; i<phis; i++) {
+        PhiInstr phi = (PhiInstr)s._instrs.get(i);
+        if (start < phi._in.length && phi._out != phi._in[start]) {
+          dsts.add(phi._out);
+          srcs.add(phi._in[start]);
+        }
+      }
+      s._instrs.subList(0, phis).clear();
+      s._instrs.get(0)._labels.addAll(0, first._labels);
+      if (!dsts.isEmpty())	// before the labels loops jump to
+        s._instrs.addAll(0, sequentialize(fun, first._loc, dsts, srcs));
+    }
+    if (!any)
+      return;
+    List<Instruction> result = new ArrayList<Instruction>();
+    for (BasicBlock b : cfg._blocks) {
+      result.addAll(b._instrs);
+      List<Instruction> split = after.get(b);
+      if (null != split)
+        result.addAll(split);
+    }
+    result.addAll(appended);
+    fun._instructions = result;
+    fun._cfg = new ControlFlowGraph(fun);
+  }
+
+  // the copies of edge p to s go at the end of p unless it branches; else
+  // into a block of their own, right after p when p falls through to s,
+  // or after all others, ending with a jump to s
+  private static void copy(FunSym fun, BasicBlock p, BasicBlock s,
+                           List<Instruction> copies,
+                           Map<BasicBlock, List<Instruction>> after,
+                           List<Instruction> appended) {
+    Instruction last = p.last();
+    Label target = ControlFlowGraph.target(last);
+    boolean branches = null != target && !(last instanceof UncondJumpInstr);
+    if (!branches) {
+      int at = null == target ? p._instrs.size() : p._instrs.size() - 1;
+      if (0 == at) {
+        copies.get(0)._labels.addAll(last._labels);
+        last._labels.clear();
+      }
+      p._instrs.addAll(at, copies);
+      return;
+    }
+    List<Label> sLabels = s._instrs.get(0)._labels;
+    boolean jumps = sLabels.contains(target);
+    boolean fallsThrough = s._id == p._id + 1;
+    if (jumps) {
+      Label label = new Label(fun._labels.size());
+      fun._labels.add(label);
+      copies.get(0)._labels.add(label);
+      retarget(last, label);
+    }
+    if (fallsThrough) {
+      after.put(p, copies);
+    } else {
+      copies.add(new UncondJumpInstr(last._loc, sLabels.get(0)));
+      appended.addAll(copies);
+    }
+  }
+
+  private static void retarget(Instruction jump, Label label) {
+    if (jump instanceof TrueJumpInstr)
+      ((TrueJumpInstr)jump)._tgt = label;
+    else if (jump instanceof FalseJumpInstr)
+      ((FalseJumpInstr)jump)._tgt = label;
+    else
+      ((RelopJumpInstr)jump)._tgt = label;
+  }
+
+  // the copies dsts[i] = srcs[i], all at once, as a sequence
+  private static List<Instruction> sequentialize(FunSym fun, int loc,
+                                                 List<Address> dsts,
+                                                 List<Address> srcs) {
+    List<Instruction> result = new ArrayList<Instruction>();
+    Map<Address, Address> at = new IdentityHashMap<Address, Address>();
+    Map<Address, Address> from = new IdentityHashMap<Address, Address>();
+    Map<Address, Address> done = new IdentityHashMap<Address, Address>();
+    List<Address> ready = new ArrayList<Address>();
+    List<Address> todo = new ArrayList<Address>();
+    for (int i=0; i<dsts.size(); i++) {
+      at.put(srcs.get(i), srcs.get(i));
+      from.put(dsts.get(i), srcs.get(i));
+      todo.add(dsts.get(i));
+    }
+    for (Address d : dsts)
+      if (!at.containsKey(d))	// not read by any other copy
+        ready.add(d);
+    while (!todo.isEmpty()) {
+      while (!ready.isEmpty()) {
+        Address d = ready.remove(ready.size() - 1);
+        Address s = from.get(d);
+        Address c = at.get(s);
+        result.add(new CopyInstr(loc, d, c));
+        done.put(d, d);
+        at.put(s, d);
+        if (s == c && from.containsKey(s))
+          ready.add(s);
+      }
+      Address d = todo.remove(todo.size() - 1);
+      if (!done.containsKey(d)) {	// on a cycle
+        TempAddr t = new TempAddr(d.type(), fun._temps.size());
+        fun._temps.add(t);
+        result.add(new CopyInstr(loc, t, d));
+        at.put(d, t);
+        ready.add(d);
+      }
+    }
+    return result;
+  }
+}
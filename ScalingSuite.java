@@ -0,0 +1,204 @@
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+// one knob of the generator, turned up step by step from a small program
+abstract class ScalingDimension {
+  final String _name;
+  final int[] _sizes;
+  ScalingDimension(String name, int... sizes) { _name = name; _sizes = sizes; }
+  abstract void set(ProgramGenerator g, int size);
+}
+
+// compiles generated programs of growing size and fits, per phase, the
+// exponent k of time ~ (source length)^k, using the CPU time of the
+// compiling threads so that collections and scheduling do not count; a
+// phase fails when k is clearly above 1 in every one of a few measurements
+// of its dimension, and a stack overflow fails the whole dimension
+class ScalingSuite {
+  static final ScalingDimension[] DIMENSIONS = {
+    new ScalingDimension("functions", 125, 250, 500, 1000) {
+      void set(ProgramGenerator g, int n) { g._functions = n; }
+    },
+    new ScalingDimension("statements", 50, 100, 200, 400) {
+      void set(ProgramGenerator g, int n) { g._functions = 2; g._stmts = n; }
+    },
+    new ScalingDimension("nesting", 25, 50, 100, 200) {
+      void set(ProgramGenerator g, int n) {
+        g._functions = 2; g._stmts = 2; g._depth = n;
+      }
+    },
+    new ScalingDimension("expressions", 25, 50, 100, 200) {
+      void set(ProgramGenerator g, int n) {
+        g._functions = 20; g._stmts = 4; g._exprDepth = n;
+      }
+    },
+    new ScalingDimension("literals", 125, 250, 500, 1000) {
+      void set(ProgramGenerator g, int n) {
+        g._functions = 20; g._stmts = 4; g._literalSize = n;
+      }
+    },
+    new ScalingDimension("records", 50, 100, 200, 400) {
+      void set(ProgramGenerator g, int n) {
+        g._functions = 20; g._stmts = 4; g._recordWidth = n;
+      }
+    },
+  };
+  double _maxExponent = 1.3;
+  long _minNanos = 50000000L;	// phases faster than this are noise
+  int _repeats = 5;
+  int _confirm = 2;		// measurements more before a phase fails
+  double _scale = 1.0;
+
+  static List<PhaseStats> compileOnce(String name, String source)
+    throws IOException {
+    PhaseTimer timer = new PhaseTimer(name);
+    int status = Main.compile(name, new StringReader(source), new Emitter(),
+                              new ErrorPrinter(System.err, false), timer);
+    if (0 != status)
+      throw new IllegalStateException(name + ": status " + status);
+    return timer._phases;
+  }
+
+  // CPU time where the platform measures it
+  static long nanos(PhaseStats s) {
+    return 0 < s._cpuNanos ? s._cpuNanos : s._wallNanos;
+  }
+
+  // the fastest of a few compilations, per phase, each on a collected heap
+  List<PhaseStats> compile(String name, String source) throws IOException {
+    List<PhaseStats> best = null;
+    for (int r=0; r<_repeats; r++) {
+      System.gc();
+      List<PhaseStats> phases = compileOnce(name, source);
+      if (null == best) {
+        best = phases;
+      } else {
+        for (int i=0; i<best.size(); i++)
+          if (nanos(phases.get(i)) < nanos(best.get(i)))
+            best.set(i, phases.get(i));
+      }
+    }
+    return best;
+  }
+
+  // least-squares slope of log(time) over log(size)
+  static double exponent(double[] sizes, double[] nanos) {
+    int n = sizes.length;
+    double mx = 0, my = 0;
+    for (int i=0; i<n; i++) {
+      mx += Math.log(sizes[i]) / n;
+      my += Math.log(nanos[i]) / n;
+    }
+    double sxy = 0, sxx = 0;
+    for (int i=0; i<n; i++) {
+      double dx = Math.log(sizes[i]) - mx;
+      sxy += dx * (Math.log(nanos[i]) - my);
+      sxx += dx * dx;
+    }
+    return sxy / sxx;
+  }
+
+  boolean run(ScalingDimension d) throws IOException {
+    Set<String> failed = measure(d);
+    for (int i=0; i<_confirm && null != failed && !failed.isEmpty(); i++) {
+      System.out.println(String.format("%-12s measuring again for %s",
+                                       d._name, failed));
+      Set<String> again = measure(d);
+      if (null == again)
+        failed = null;
+      else
+        failed.retainAll(again);
+    }
+    if (null == failed)
+      return false;
+    if (!failed.isEmpty())
+      System.out.println(String.format("%-12s FAIL in every measurement: %s",
+                                       d._name, failed));
+    return failed.isEmpty();
+  }
+
+  // prints one line per phase, and returns the phases that grew too fast,
+  // or null on a stack overflow
+  Set<String> measure(ScalingDimension d) throws IOException {
+    int n = d._sizes.length;
+    double[] lengths = new double[n];
+    String[] names = new String[n], sources = new String[n];
+    for (int i=0; i<n; i++) {
+      ProgramGenerator g = new ProgramGenerator(i);
+      int size = Math.max(1, (int)(d._sizes[i] * _scale));
+      d.set(g, size);
+      sources[i] = g.generate();
+      lengths[i] = sources[i].length();
+      names[i] = d._name + "-" + size;
+    }
+    List<List<PhaseStats>> results = new ArrayList<List<PhaseStats>>();
+    int at = 0;
+    try {
+      // every size once untimed first, so that the JIT has seen all of
+      // them before the smallest is measured
+      for (at=0; at<n; at++)
+        compileOnce(names[at], sources[at]);
+      for (at=0; at<n; at++)
+        results.add(compile(names[at], sources[at]));
+    } catch (StackOverflowError e) {
+      System.out.println(String.format("%-12s FAIL stack overflow at %s "
+                                       + "(%d chars)", d._name, names[at],
+                                       sources[at].length()));
+      return null;
+    }
+    Set<String> failed = new LinkedHashSet<String>();
+    List<PhaseStats> first = results.get(0);
+    for (int p=0; p<first.size(); p++) {
+      double[] nanos = new double[n];
+      for (int i=0; i<n; i++)
+        nanos[i] = Math.max(1, nanos(results.get(i).get(p)));
+      String phase = first.get(p)._name;
+      StringBuilder times = new StringBuilder();
+      for (int i=0; i<n; i++)
+        times.append(String.format(" %9.1f", nanos[i] / 1e6));
+      String verdict;
+      double k = exponent(lengths, nanos);
+      if (nanos[n - 1] < _minNanos) {
+        verdict = "   (too fast to judge)";
+      } else if (k > _maxExponent) {
+        verdict = String.format(" k=%.2f FAIL", k);
+        failed.add(phase);
+      } else {
+        verdict = String.format(" k=%.2f ok", k);
+      }
+      System.out.println(String.format("%-12s %-10s", d._name, phase)
+                         + times + " ms" + verdict);
+    }
+    return failed;
+  }
+
+  // usage: ScalingSuite [-k max-exponent] [-r repeats] [-c confirmations]
+  //                     [-s scale] [dim]...
+  public static void main(String[] args) throws IOException {
+    ScalingSuite suite = new ScalingSuite();
+    List<String> only = new ArrayList<String>();
+    for (int i=0; i<args.length; i++) {
+      if ("-k".equals(args[i]))
+        suite._maxExponent = Double.parseDouble(args[++i]);
+      else if ("-r".equals(args[i])) suite._repeats = Integer.parseInt(args[++i]);
+      else if ("-c".equals(args[i])) suite._confirm = Integer.parseInt(args[++i]);
+      else if ("-s".equals(args[i])) suite._scale = Double.parseDouble(args[++i]);
+      else only.add(args[i]);
+    }
+    // warm up the JIT so that the smallest size is not penalized
+    ProgramGenerator warm = new ProgramGenerator(42);
+    for (int i=0; i<10; i++)
+      compileOnce("warmup", warm.generate());
+    boolean ok = true;
+    for (ScalingDimension d : DIMENSIONS)
+      if (only.isEmpty() || only.contains(d._name))
+        ok &= suite.run(d);
+    System.out.println(ok ? "scaling ok" : "scaling FAILED");
+    if (!ok)
+      System.exit(1);
+  }
+}
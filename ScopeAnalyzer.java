@@ -1,37 +1,58 @@
 class ScopeAnalyzer extends DepthFirstVisitor {
   SymbolTable _symTab;
+  ErrorPrinter _errors;
 
-  ScopeAnalyzer() {
-    _symTab = new SymbolTable();
+  ScopeAnalyzer(ErrorPrinter errors) {
+    this(new SymbolTable(), errors);
+  }
+  ScopeAnalyzer(SymbolTable symTab, ErrorPrinter errors) {
+    _symTab = symTab;
+    _errors = errors;
   }
 
   private void def(Symbol sym) {
-    if (_symTab.contains(sym.name())) {
-      ErrorPrinter.print(sym.loc(),
-                         "Duplicate definition of '" + sym.name() + "'");
-      ErrorPrinter.print(_symTab.get(sym.name()).loc(),
-                         "... previous definition of '" + sym.name() + "'");
-    } else {
+    if (_symTab.contains(sym.key()))
+      duplicate(sym);
+    else
       _symTab.def(sym);
-    }
+  }
+
+  // FusedGenerator defines the variables of a block ahead and reports
+  // their duplicates here once it gets to them
+  void duplicate(Symbol sym) {
+    _errors.print(sym.loc(), "Duplicate definition of '" + sym.name() + "'");
+    _errors.print(_symTab.get(sym.key()).loc(),
+                  "... previous definition of '" + sym.name() + "'");
   }
 
   // ---------------- top-level ----------------
   Object visit(FunDef ast) {
+    signature(ast);
+    body(ast);
+    return null;
+  }
+
+  // what other functions see of this one; ArenaPasses defines all of them
+  // before it looks at any body
+  void signature(FunDef ast) {
     FunSym sym = new FunSym(_symTab._current, ast);
     def(sym);
     ast._heldScope = new Scope(ast, _symTab._current);
     _symTab.push(ast._heldScope);
     ast._type.accept(this);
-    for (Symbol formal : ast._type._formals._heldScope._symbols.values()) {
+    for (Symbol formal : ast._type._formals._heldScope.symbols()) {
       FieldSym field = (FieldSym)formal;
       VarSym var = new VarSym(ast._heldScope, field._def);
       _symTab.def(var);
     }
+    _symTab.pop(ast._heldScope);
+  }
+
+  void body(FunDef ast) {
+    _symTab.push(ast._heldScope);
     ast._body._needsScope = false;
     ast._body.accept(this);
     _symTab.pop(ast._heldScope);
-    return null;
   }
 
   // ---------------- types ----------------
@@ -61,22 +82,25 @@ class ScopeAnalyzer extends DepthFirstVisitor {
     return null;
   }
 
-  Object visit(BlockStmt ast) {
+  void enter(BlockStmt ast) {
     if (ast._needsScope) {
       ast._heldScope = new Scope(ast, _symTab._current);
       _symTab.push(ast._heldScope);
     }
-    for (Stmt s : ast._stmts) {
-      if (s instanceof BlockStmt)
-	((BlockStmt)s)._needsScope = true;
-      s.accept(this);
-    }
+  }
+
+  void before(BlockStmt ast, int i) {
+    Stmt s = ast._stmts.get(i);
+    if (s instanceof BlockStmt)
+      ((BlockStmt)s)._needsScope = true;
+  }
+
+  void leave(BlockStmt ast) {
     if (ast._needsScope)
       _symTab.pop(ast._heldScope);
-    return null;
   }
 
-  Object visit(ForStmt ast) {
+  void enter(ForStmt ast) {
     ast._heldScope = new Scope(ast, _symTab._current);
     _symTab.push(ast._heldScope);
     VarSym sym = new VarSym(_symTab._current, ast);
@@ -84,19 +108,20 @@ class ScopeAnalyzer extends DepthFirstVisitor {
     ast._var.accept(this);
     ast._expr.accept(this);
     ast._body._needsScope = false;
-    ast._body.accept(this);
+  }
+
+  void leave(ForStmt ast) {
     _symTab.pop(ast._heldScope);
-    return null;
   }
 
-  Object visit(IfStmt ast) {
+  void enter(IfStmt ast) {
     ast._thenBranch._needsScope = true;
-    return super.visit(ast);
+    super.enter(ast);
   }
 
-  Object visit(WhileStmt ast) {
+  void enter(WhileStmt ast) {
     ast._body._needsScope = true;
-    return super.visit(ast);
+    super.enter(ast);
   }
 
   // ---------------- literals ----------------
@@ -1,17 +1,29 @@
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import xtc.tree.Location;
 
 class SemanticAnalyzer extends DepthFirstVisitor {
   SymbolTable _symTab;
+  TypeTable _types;
+  ErrorPrinter _errors;
+  FunDef _fun;			// being analyzed
+  boolean _forward;		// a variable was used before its definition
   static final NullType NULL_TYPE = new NullType();
 
-  SemanticAnalyzer(SymbolTable symTab) { _symTab = symTab; }
+  // every type an expression gets is canonical, see TypeTable
+  SemanticAnalyzer(SymbolTable symTab, TypeTable types, ErrorPrinter errors) {
+    _symTab = symTab;
+    _types = types;
+    _errors = errors;
+    _fun = null;
+    _forward = false;
+  }
 
   private static boolean knownType(Type type) {
     if (null == type)
       return false;
+    if (type == type._canon)
+      return true;
     if (type instanceof ArrayType)
       return knownType(((ArrayType)type)._elem);
     if (type instanceof RecordType)
@@ -27,14 +39,48 @@ class SemanticAnalyzer extends DepthFirstVisitor {
   }
 
   private static boolean sameType(Type t1, Type t2) {
-    if (t1 == null || t2 == null)
+    if (t1 == null || t2 == null || t1 == t2)
       return true;
+    if (t1 == t1._canon && t2 == t2._canon)
+      return false;
     return t1.equals(t2);
   }
 
- private  static boolean subType(Type t1, Type t2) {
+  // the fields of two canonical records are never the same object
+  private static boolean sameField(FieldType f1, FieldType f2) {
+    return f1._field._key == f2._field._key && sameType(f1._type, f2._type);
+  }
+
+  // both memoized for canonical types, false results too, see TypeTable
+  private boolean subType(Type t1, Type t2) {
+    if (sameType(t1, t2))
+      return true;
+    TypeShape key = _types.relation(TypeShape.SUBTYPE, t1, t2);
+    if (null == key)
+      return isSubType(t1, t2);
+    Boolean known = _types.related(key);
+    if (null == known) {
+      known = isSubType(t1, t2);
+      _types.relate(key, known);
+    }
+    return known;
+  }
+
+  private boolean castable(Type t1, Type t2) {
     if (sameType(t1, t2))
       return true;
+    TypeShape key = _types.relation(TypeShape.CASTABLE, t1, t2);
+    if (null == key)
+      return isCastable(t1, t2);
+    Boolean known = _types.related(key);
+    if (null == known) {
+      known = isCastable(t1, t2);
+      _types.relate(key, known);
+    }
+    return known;
+  }
+
+  private boolean isSubType(Type t1, Type t2) {
     if (t1 instanceof NullType)
       return t2 instanceof NullType || t2 instanceof RecordType;
     if (t1.getClass() != t2.getClass())
@@ -48,12 +94,12 @@ class SemanticAnalyzer extends DepthFirstVisitor {
       if (r1._fields.size() < r2._fields.size())
         return false;
       for (int i=0, n=r2._fields.size(); i<n; i++)
-        if (!sameType(r1._fields.get(i), r2._fields.get(i)))
+        if (!sameField(r1._fields.get(i), r2._fields.get(i)))
           return false;
       return true;
     }
     if (t1 instanceof FieldType)
-      return sameType(t1, t2);
+      return sameField((FieldType)t1, (FieldType)t2);
     if (t1 instanceof FunType) {
       FunType f1 = (FunType)t1, f2 = (FunType)t2;
       return subType(f2._formals, f1._formals)
@@ -63,7 +109,7 @@ class SemanticAnalyzer extends DepthFirstVisitor {
     return false;
   }
 
-  private static boolean castable(Type t1, Type t2) {
+  private boolean isCastable(Type t1, Type t2) {
     if (subType(t1, t2))
       return true;
     if (t1 instanceof RecordType && t2 instanceof NullType)
@@ -77,7 +123,7 @@ class SemanticAnalyzer extends DepthFirstVisitor {
     if (t1 instanceof RecordType)
       return subType(t1, t2) || subType(t2, t1);
     if (t1 instanceof FieldType)
-      return sameType(t1, t2);
+      return sameField((FieldType)t1, (FieldType)t2);
     if (t1 instanceof FunType) {
       FunType f1 = (FunType)t1, f2 = (FunType)t2;
       return castable(f2._formals, f1._formals)
@@ -89,6 +135,7 @@ class SemanticAnalyzer extends DepthFirstVisitor {
 
   // ---------------- top-level ----------------
   Object visit(FunDef ast) {
+    _fun = ast;
     _symTab.push(ast._heldScope);
     super.visit(ast);
     _symTab.pop(ast._heldScope);
@@ -108,8 +155,8 @@ class SemanticAnalyzer extends DepthFirstVisitor {
   Object visit(VarDef ast) {
     Type type = (Type)ast._rhs.accept(this);
     if (!knownType(type))
-      ErrorPrinter.print(ast._loc, "Could not resolve type for variable '"
-                         + ast._var._id + "'");
+      _errors.print(ast._loc, "Could not resolve type for variable '"
+                    + ast._var._id + "'");
     return null;
   }
 
@@ -123,88 +170,95 @@ class SemanticAnalyzer extends DepthFirstVisitor {
         if (subType(rhsType, lhsType))
           ast._rhs = new CastExpr(ast._rhs, lhsType);
         else
-          ErrorPrinter.print(ast._loc, "Cannot assign to '" + lhsType
-                             + "' from '" + rhsType + "'");
+          _errors.print(ast._loc, "Cannot assign to '" + lhsType
+                        + "' from '" + rhsType + "'");
       }
     } else {
-      ErrorPrinter.print(ast._loc, "Assignment to immutable expression");
+      _errors.print(ast._loc, "Assignment to immutable expression");
     }
     return null;
   }
 
-  Object visit(BlockStmt ast) {
+  void enter(BlockStmt ast) {
     if (null != ast._heldScope)
       _symTab.push(ast._heldScope);
-    for (Stmt s : ast._stmts)
-      s.accept(this);
+  }
+
+  void leave(BlockStmt ast) {
     if (null != ast._heldScope)
       _symTab.pop(ast._heldScope);
-    return null;
   }
 
-  Object visit(ForStmt ast) {
+  void enter(ForStmt ast) {
     _symTab.push(ast._heldScope);
+    subject(ast);
+  }
+
+  void leave(ForStmt ast) {
+    _symTab.pop(ast._heldScope);
+  }
+
+  // the parts of compound statements before their bodies, which
+  // FusedGenerator checks on their own; the for scope is current
+  void subject(ForStmt ast) {
     String varName = ast._var._id;
     Type exprType = (Type)ast._expr.accept(this);
     if (knownType(exprType)) {
       if (!(exprType instanceof ArrayType))
-        ErrorPrinter.print(ast._loc, "Subject of for-loop must be array");
+        _errors.print(ast._loc, "Subject of for-loop must be array");
     } else {
-      ErrorPrinter.print(ast._loc, "Could not resolve type for variable '"
-                         + varName + "'");
+      _errors.print(ast._loc, "Could not resolve type for variable '"
+                    + varName + "'");
     }
-    ast._body.accept(this);
-    _symTab.pop(ast._heldScope);
-    return null;
   }
 
-  Object visit(IfStmt ast) {
-    Type condType = (Type)ast._cond.accept(this);
+  void condition(Expr cond) {
+    Type condType = (Type)cond.accept(this);
     if (!sameType(condType, PrimitiveType.BOOLT))
-      ErrorPrinter.print(ast._cond._loc, "Boolean expected");
-    ast._thenBranch.accept(this);
-    if (null != ast._elseBranch)
-      ast._elseBranch.accept(this);
-    return null;
+      _errors.print(cond._loc, "Boolean expected");
+  }
+
+  void enter(IfStmt ast) {
+    condition(ast._cond);
   }
 
   Object visit(ReturnStmt ast) {
     Type act = PrimitiveType.VOIDT;
     if (null != ast._expr)
       act = (Type)ast._expr.accept(this);
-    FunDef fun = null;
-    for (Scope s = _symTab._current; null != s; s = s._parent)
-      if (null != s._owner && s._owner instanceof FunDef)
-        fun = (FunDef)s._owner;
-    Type frm = fun._type._returnType;
+    Type frm = _types.canon(_fun._type._returnType);
     if (!sameType(act, frm)) {
       if (subType(act, frm))
         ast._expr = new CastExpr(ast._expr, frm);
       else
-        ErrorPrinter.print(ast._loc, "Expected return value of type '"
-                           + frm + "', found '" + act + "'");
+        _errors.print(ast._loc, "Expected return value of type '"
+                      + frm + "', found '" + act + "'");
     }
     return null;
   }
 
-  Object visit(WhileStmt ast) {
-    Type condType = (Type)ast._cond.accept(this);
-    if (!sameType(condType, PrimitiveType.BOOLT))
-      ErrorPrinter.print(ast._cond._loc, "Boolean expected");
-    ast._body.accept(this);
-    return null;
+  void enter(WhileStmt ast) {
+    condition(ast._cond);
   }
 
   // ---------------- expressions ----------------
   Object visit(InfixExpr ast) {
-    Type lhsType = (Type)ast._lhs.accept(this);
+    List<InfixExpr> spine = leftSpine(ast);
+    Type type = (Type)spine.get(spine.size() - 1)._lhs.accept(this);
+    for (int i=spine.size() - 1; 0 <= i; i--)
+      type = infix(spine.get(i), type);
+    return type;
+  }
+
+  // the lhs is already analyzed
+  private Type infix(InfixExpr ast, Type lhsType) {
     Type rhsType = (Type)ast._rhs.accept(this);
     if ("||".equals(ast._op) || "&&".equals(ast._op)) {
       ast._type = PrimitiveType.BOOLT;
       if (!sameType(lhsType, PrimitiveType.BOOLT))
-        ErrorPrinter.print(ast._lhs._loc, "Boolean expected");
+        _errors.print(ast._lhs._loc, "Boolean expected");
       if (!sameType(rhsType, PrimitiveType.BOOLT))
-        ErrorPrinter.print(ast._rhs._loc, "Boolean expected");
+        _errors.print(ast._rhs._loc, "Boolean expected");
     } else if ("==".equals(ast._op) || "!=".equals(ast._op)) {
       ast._type = PrimitiveType.BOOLT;
       if (!sameType(lhsType, rhsType)) {
@@ -212,17 +266,17 @@ class SemanticAnalyzer extends DepthFirstVisitor {
             castable(lhsType, rhsType)) {
           //no explicit conversion required to compare pointers to records
         } else {
-          ErrorPrinter.print(ast._loc, "Cannot compare '"
-                             + lhsType + "' and '" + rhsType + "'");
+          _errors.print(ast._loc, "Cannot compare '"
+                        + lhsType + "' and '" + rhsType + "'");
         }
       }
     } else if ("<=".equals(ast._op) || "<".equals(ast._op)
                || ">=".equals(ast._op) || ">".equals(ast._op)) {
       ast._type = PrimitiveType.BOOLT;
       if (!sameType(lhsType, PrimitiveType.INTT))
-        ErrorPrinter.print(ast._lhs._loc, "Integer expected");
+        _errors.print(ast._lhs._loc, "Integer expected");
       if (!sameType(rhsType, PrimitiveType.INTT))
-        ErrorPrinter.print(ast._rhs._loc, "Integer expected");
+        _errors.print(ast._rhs._loc, "Integer expected");
     } else if ("+".equals(ast._op)) {
       if (sameType(lhsType, PrimitiveType.STRINGT) ||
 	  sameType(rhsType, PrimitiveType.STRINGT)) {
@@ -231,46 +285,64 @@ class SemanticAnalyzer extends DepthFirstVisitor {
           if (castable(lhsType, PrimitiveType.STRINGT))
             ast._lhs = new CastExpr(ast._lhs, PrimitiveType.STRINGT);
           else
-            ErrorPrinter.print(ast._lhs._loc, "Cannot convert from type '"
-                               + lhsType + "' to type 'string'");
+            _errors.print(ast._lhs._loc, "Cannot convert from type '"
+                          + lhsType + "' to type 'string'");
         }
         if (!sameType(rhsType, PrimitiveType.STRINGT)) {
           if (castable(rhsType, PrimitiveType.STRINGT))
             ast._rhs = new CastExpr(ast._rhs, PrimitiveType.STRINGT);
           else
-            ErrorPrinter.print(ast._rhs._loc, "Cannot convert from type '"
-                               + rhsType + "' to type 'string'");
+            _errors.print(ast._rhs._loc, "Cannot convert from type '"
+                          + rhsType + "' to type 'string'");
         }
       } else {
         ast._type = PrimitiveType.INTT;
         if (!sameType(lhsType, PrimitiveType.INTT))
-          ErrorPrinter.print(ast._lhs._loc, "Integer expected");
+          _errors.print(ast._lhs._loc, "Integer expected");
         if (!sameType(rhsType, PrimitiveType.INTT))
-          ErrorPrinter.print(ast._rhs._loc, "Integer expected");
+          _errors.print(ast._rhs._loc, "Integer expected");
       }
     } else if ("-".equals(ast._op) || "*".equals(ast._op)
                || "/".equals(ast._op) || "%".equals(ast._op)) {
       ast._type = PrimitiveType.INTT;
       if (!sameType(lhsType, PrimitiveType.INTT))
-        ErrorPrinter.print(ast._lhs._loc, "Integer expected");
+        _errors.print(ast._lhs._loc, "Integer expected");
       if (!sameType(rhsType, PrimitiveType.INTT))
-        ErrorPrinter.print(ast._rhs._loc, "Integer expected");
+        _errors.print(ast._rhs._loc, "Integer expected");
     } else {
       assert false : ast._op;
     }
     return ast._type;
   }
 
+  // a run of them is typed from the operand up
   Object visit(PrefixExpr ast) {
-    Type baseType = (Type)ast._base.accept(this);
+    return unaryType(ast);
+  }
+
+  private Type unaryType(Expr ast) {
+    List<Expr> run = unaryRun(ast);
+    Type type = (Type)unaryBase(run.get(run.size() - 1)).accept(this);
+    for (int i=run.size() - 1; 0 <= i; i--) {
+      Expr e = run.get(i);
+      if (e instanceof PrefixExpr)
+        type = prefix((PrefixExpr)e, type);
+      else
+        e._type = type;
+    }
+    return type;
+  }
+
+  // the base is already analyzed
+  private Type prefix(PrefixExpr ast, Type baseType) {
     if ("-".equals(ast._op)) {
       ast._type = PrimitiveType.INTT;
       if (!sameType(baseType, PrimitiveType.INTT))
-        ErrorPrinter.print(ast._base._loc, "Integer expected");
+        _errors.print(ast._base._loc, "Integer expected");
     } else if ("!".equals(ast._op)) {
       ast._type = PrimitiveType.BOOLT;
       if (!sameType(baseType, PrimitiveType.BOOLT))
-        ErrorPrinter.print(ast._base._loc, "Boolean expected");
+        _errors.print(ast._base._loc, "Boolean expected");
     } else {
       assert false : ast._op;
     }
@@ -282,17 +354,18 @@ class SemanticAnalyzer extends DepthFirstVisitor {
     if (ast._base instanceof FunId)
       callee = (FunSym)ast._base.accept(this);
     else
-      ErrorPrinter.print(ast._loc, "Function name must be simple identifier");
+      _errors.print(ast._loc, "Function name must be simple identifier");
     List<Type> actuals = new ArrayList<Type>();
     for (Expr expr : ast._actuals)
       actuals.add((Type)expr.accept(this));
     if (null != callee) {
       FunType funType = callee._def._type;
-      ast._type = funType._returnType;
+      ast._type = _types.canon(funType._returnType);
       List<FieldType> formals = funType._formals._fields;
       if (actuals.size() == formals.size())
         for (int i=0, n=formals.size(); i<n; i++) {
-          Type act = actuals.get(i), frm = formals.get(i)._type;
+          Type act = actuals.get(i);
+          Type frm = _types.canon(formals.get(i)._type);
           if (!sameType(act, frm)) {
             if (subType(act, frm))
               ast._actuals.set(i, new CastExpr(ast._actuals.get(i), frm));
@@ -300,28 +373,28 @@ class SemanticAnalyzer extends DepthFirstVisitor {
                      act instanceof ArrayType)
               /*allow any array type for generic intrinsic*/;
             else
-              ErrorPrinter.print(ast._actuals.get(i)._loc,
-                                 "Formal '" + formals.get(i)._field._id
-                                 + "' of function '" + callee.name()
-                                 + "' expects '" + frm + "', found '"
-                                 + act + "' instead");
+              _errors.print(ast._actuals.get(i)._loc,
+                            "Formal '" + formals.get(i)._field._id
+                            + "' of function '" + callee.name()
+                            + "' expects '" + frm + "', found '"
+                            + act + "' instead");
           }
         }
       else
-        ErrorPrinter.print(ast._loc, "Function '" + callee.name() + "' has "
-                           + formals.size() + " formals, but there are "
-                           + actuals.size() + " actuals");
+        _errors.print(ast._loc, "Function '" + callee.name() + "' has "
+                      + formals.size() + " formals, but there are "
+                      + actuals.size() + " actuals");
     }
     return ast._type;
   }
 
   Object visit(CastExpr ast) {
     Type srcType = (Type)ast._base.accept(this);
-    Type tgtType = ast._targetType;
-    ast._type = ast._targetType;
+    Type tgtType = _types.canon(ast._targetType);
+    ast._type = tgtType;
     if (!castable(srcType, tgtType))
-      ErrorPrinter.print(ast._loc, "Cannot cast from type '" + srcType
-                         + "' to type '" + tgtType + "'");
+      _errors.print(ast._loc, "Cannot cast from type '" + srcType
+                    + "' to type '" + tgtType + "'");
     return ast._type;
   }
 
@@ -330,16 +403,16 @@ class SemanticAnalyzer extends DepthFirstVisitor {
     if (knownType(baseType)) {
       if (baseType instanceof RecordType) {
         Scope scope = ((RecordType)baseType)._heldScope;
-        String name = ast._field._id;
-        if (scope.contains(name)) {
-          FieldSym sym = (FieldSym)scope.get(name);
+        FieldSym sym = (FieldSym)scope.get(ast._field._key);
+        if (null != sym) {
           ast._field._sym = sym;
           ast._type = sym.type()._type;
         } else {
-          ErrorPrinter.print(ast._field._loc, "Unknown field '" + name + "'");
+          _errors.print(ast._field._loc,
+                        "Unknown field '" + ast._field._id + "'");
         }
       } else {
-        ErrorPrinter.print(ast._loc, "Base of field expression must be record");
+        _errors.print(ast._loc, "Base of field expression must be record");
       }
     }
     return ast._type;
@@ -352,52 +425,53 @@ class SemanticAnalyzer extends DepthFirstVisitor {
       if (baseType instanceof ArrayType)
         ast._type = ((ArrayType)baseType)._elem;
       else
-        ErrorPrinter.print(ast._loc, "Base of subscript must be array");
+        _errors.print(ast._loc, "Base of subscript must be array");
     }
     if (null != subscriptType) {
       if (!sameType(subscriptType, PrimitiveType.INTT))
-        ErrorPrinter.print(ast._subscript._loc, "Integer expected");
+        _errors.print(ast._subscript._loc, "Integer expected");
     }
     return ast._type;
   }
 
   Object visit(ParenExpr ast) {
-    ast._type = (Type)ast._base.accept(this);
-    return ast._type;
+    return unaryType(ast);
   }
 
   // ---------------- identifiers ----------------
   Object visit(FieldId ast) {
-    Symbol s = _symTab.lookup(ast._id);
+    Symbol s = _symTab.lookup(ast._key);
     if (null == s)
-      ErrorPrinter.print(ast._loc, "Unknown field '" + ast._id + "'");
+      _errors.print(ast._loc, "Unknown field '" + ast._id + "'");
     else if (!(s instanceof FieldSym))
-      ErrorPrinter.print(ast._loc, "Field name expected");
+      _errors.print(ast._loc, "Field name expected");
     else
       ast._sym = s;
     return null == ast._sym ? null : ast._sym.type();
   }
 
   Object visit(FunId ast) {
-    Symbol s = _symTab.lookup(ast._id);
+    Symbol s = _symTab.lookup(ast._key);
     if (null == s)
-      ErrorPrinter.print(ast._loc, "Unknown function '" + ast._id + "'");
+      _errors.print(ast._loc, "Unknown function '" + ast._id + "'");
     else if (!(s instanceof FunSym))
-      ErrorPrinter.print(ast._loc, "Function name expected");
+      _errors.print(ast._loc, "Function name expected");
     else
       ast._sym = (FunSym)s;
     return null == ast._sym ? null : ast._sym;
   }
 
   Object visit(VarId ast) {
-    Symbol s = _symTab.lookup(ast._id);
+    Symbol s = _symTab.lookup(ast._key);
     if (null == s) {
-      ErrorPrinter.print(ast._loc, "Unknown variable '" + ast._id + "'");
+      _errors.print(ast._loc, "Unknown variable '" + ast._id + "'");
     } else if (!(s instanceof VarSym)) {
-      ErrorPrinter.print(ast._loc, "Variable name expected");
+      _errors.print(ast._loc, "Variable name expected");
     } else {
       ast._sym = (VarSym)s;
-      ast._type = ast._sym.type();
+      ast._type = _types.canon(ast._sym.type());
+      if (null == ast._type)
+        _forward = true;
     }
     return ast._type;
   }
@@ -410,17 +484,17 @@ class SemanticAnalyzer extends DepthFirstVisitor {
       if (knownType(typ)) {
         if (knownType(elemType)) {
           if (!sameType(typ, elemType))
-            ErrorPrinter.print(expr._loc,
-                               "Expected element of type '" + elemType +
-                               "', found '" + typ + "'");
+            _errors.print(expr._loc,
+                          "Expected element of type '" + elemType +
+                          "', found '" + typ + "'");
         } else {
           elemType = typ;
         }
       } else {
-        ErrorPrinter.print(expr._loc, "Could not resolve array element type");
+        _errors.print(expr._loc, "Could not resolve array element type");
       }
     }
-    ast._type = new ArrayType(ast._loc, elemType);
+    ast._type = _types.canon(new ArrayType(ast._loc, elemType));
     return ast._type;
   }
 
@@ -433,11 +507,8 @@ class SemanticAnalyzer extends DepthFirstVisitor {
     for (FieldType typ : fieldTypes)
       if (null == typ)
         anyNull = true;
-    if (!anyNull) {
-      RecordType result = new RecordType(ast._loc, fieldTypes);
-      result._heldScope = ast._heldScope;
-      ast._type = result;
-    }
+    if (!anyNull)
+      ast._type = _types.canon(new RecordType(ast._loc, fieldTypes));
     _symTab.pop(ast._heldScope);
     return ast._type;
   }
@@ -448,18 +519,18 @@ class SemanticAnalyzer extends DepthFirstVisitor {
     if (knownType(type))
       ast._type = new FieldType(ast._loc, ast._field, type);
     else
-      ErrorPrinter.print(ast._loc, "Could not resolve type for field '"
-                         + ast._field._id + "'");
+      _errors.print(ast._loc, "Could not resolve type for field '"
+                    + ast._field._id + "'");
     return ast._type;
   }
 
   Object visit(BoolLit ast) {
-    ast._type = new PrimitiveType(ast._loc, PrimitiveType.BOOL);
+    ast._type = PrimitiveType.BOOLT;
     return ast._type;
   }
 
   Object visit(IntLit ast) {
-    ast._type = new PrimitiveType(ast._loc, PrimitiveType.INT);
+    ast._type = PrimitiveType.INTT;
     return ast._type;
   }
 
@@ -469,7 +540,7 @@ class SemanticAnalyzer extends DepthFirstVisitor {
   }
 
   Object visit(StringLit ast) {
-    ast._type = new PrimitiveType(ast._loc, PrimitiveType.STRING);
+    ast._type = PrimitiveType.STRINGT;
     return ast._type;
   }
 }
@@ -1,18 +1,19 @@
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.TreeMap;
 import java.util.TreeSet;
-import xtc.tree.Location;
 
 abstract class Symbol {
   Scope _scope;
   Symbol(Scope scope) { _scope = scope;}
-  abstract Location loc();
+  abstract int loc();
   abstract String name();
+  abstract int key();
   abstract Type type();
 }
 
@@ -26,13 +27,18 @@ class FieldSym extends Symbol {
     else
       ((FieldType)def)._sym = this;
   }
-  Location loc() { return _def._loc; }
+  int loc() { return _def._loc; }
   static String name(AstNode def) {
     if (def instanceof FieldLit)
       return ((FieldLit)def)._field._id;
     return ((FieldType)def)._field._id;
   }
   String name() { return name(_def); }
+  int key() {
+    if (_def instanceof FieldLit)
+      return ((FieldLit)_def)._field._key;
+    return ((FieldType)_def)._field._key;
+  }
   static FieldType type(AstNode def) {
     if (def instanceof FieldLit)
       return ((FieldLit)def)._type;
@@ -44,17 +50,24 @@ class FieldSym extends Symbol {
 class FunSym extends Symbol {
   FunDef _def;
   List<Instruction> _instructions;
-  Map<String, Address> _addresses;
+  Map<String, Address> _addresses;	// of the variables, by their IR names
+  List<TempAddr> _temps;		// by number
+  List<Label> _labels;			// by number
+  ControlFlowGraph _cfg;		// of _instructions, once built
   FunSym(Scope scope, FunDef def) {
     super(scope);
     _def = def;
     _instructions = null;
     _addresses = null;
+    _temps = null;
+    _labels = null;
+    _cfg = null;
     def._sym = this;
   }
-  Location loc() { return _def._loc; }
+  int loc() { return _def._loc; }
   static String name(FunDef def) { return def._name._id; }
   String name() { return name(_def); }
+  int key() { return _def._name._key; }
   FunType type() { return _def._type; }
 }
 
@@ -79,7 +92,7 @@ class VarSym extends Symbol {
     _def = def;
     _addr = null;
   }
-  Location loc() { return _def._loc; }
+  int loc() { return _def._loc; }
   static String name(AstNode def) {
     if (def instanceof FieldType)
       return ((FieldType)def)._field._id;
@@ -89,6 +102,14 @@ class VarSym extends Symbol {
       return ((VarDef)def)._var._id;
   }
   String name() { return name(_def); }
+  int key() {
+    if (_def instanceof FieldType)
+      return ((FieldType)_def)._field._key;
+    if (_def instanceof ForStmt)
+      return ((ForStmt)_def)._var._key;
+    else
+      return ((VarDef)_def)._var._key;
+  }
   static Type type(AstNode def) {
     if (def instanceof FieldType) {
       return ((FieldType)def)._type;
@@ -108,7 +129,11 @@ class SymbolTable {
   Scope _topLevel;
   Scope _current;
   SymbolTable() {
-    _topLevel = new Scope(null, null);
+    this(new Scope(null, null));
+  }
+  // a separate cursor over shared scopes, e.g. one per function and thread
+  SymbolTable(Scope topLevel) {
+    _topLevel = topLevel;
     _current = _topLevel;
   }
   Scope pop(Scope scope) {
@@ -120,13 +145,15 @@ class SymbolTable {
     assert _current == scope._parent : _current + " not parent of " + scope;
     _current = scope;
   }
-  boolean contains(String key) { return _current.contains(key); }
+  boolean contains(int key) { return _current.contains(key); }
   void def(Symbol sym) { _current.def(sym); }
-  Symbol get(String key) { return _current.get(key); }
-  Symbol lookup(String key) {
-    for (Scope s = _current; null != s; s = s._parent)
-      if (s.contains(key))
-        return s.get(key);
+  Symbol get(int key) { return _current.get(key); }
+  Symbol lookup(int key) {
+    for (Scope s = _current; null != s; s = s._parent) {
+      Symbol result = s.get(key);
+      if (null != result)
+        return result;
+    }
     return null;
   }
   PrintWriter print(PrintWriter w) {
@@ -140,7 +167,11 @@ class Scope implements Comparable<Scope> {
   AstNode _owner;
   Scope _parent;
   Set<Scope> _children;
-  Map<String, Symbol> _symbols;
+  // open addressing on the NameTable keys, which are dense and small, so
+  // a key is its own hash
+  int[] _keys;
+  Symbol[] _symbols;
+  int _size;
   List<ConstantAddr> _rodatas;	// for assembly code
   Scope(AstNode owner, Scope parent) {
     _owner = owner;
@@ -148,8 +179,9 @@ class Scope implements Comparable<Scope> {
     if (null != parent)
       _parent._children.add(this);
     _children = new TreeSet<Scope>();
-    _symbols = new TreeMap<String, Symbol>();
-    
+    _keys = null;
+    _symbols = null;
+    _size = 0;
     _rodatas = new ArrayList<ConstantAddr>();
   }
   public int compareTo(Scope other) {
@@ -162,16 +194,63 @@ class Scope implements Comparable<Scope> {
       if (null == other._owner)
         return +1;
       else
-        return _owner._loc.compareTo(other._owner._loc);    
+        return Integer.compare(_owner._loc, other._owner._loc);
+  }
+  private int slot(int key) {
+    int mask = _keys.length - 1, i = key & mask;
+    while (null != _symbols[i] && key != _keys[i])
+      i = (i + 1) & mask;
+    return i;
   }
-  boolean contains(String key) { return _symbols.containsKey(key); }
+  boolean contains(int key) { return null != get(key); }
   void def(Symbol sym) {
-    String key = sym.name();
-    assert !_symbols.containsKey(key);
-    _symbols.put(key, sym);
+    if (null == _symbols) {
+      _keys = new int[4];
+      _symbols = new Symbol[4];
+    } else if (2 * (_size + 1) > _symbols.length) {
+      Symbol[] old = _symbols;
+      _keys = new int[2 * old.length];
+      _symbols = new Symbol[2 * old.length];
+      for (Symbol s : old)
+        if (null != s) {
+          int i = slot(s.key());
+          _keys[i] = s.key();
+          _symbols[i] = s;
+        }
+    }
+    int i = slot(sym.key());
+    assert null == _symbols[i];
+    _keys[i] = sym.key();
+    _symbols[i] = sym;
+    _size++;
+  }
+  Symbol get(int key) {
+    return null == _symbols ? null : _symbols[slot(key)];
+  }
+  // forgets all symbols and nested scopes, e.g. once a function is compiled
+  // and only its signature, whose scopes hang off this one, is still needed
+  void clear() {
+    _children.clear();
+    _keys = null;
+    _symbols = null;
+    _size = 0;
+    _rodatas.clear();
   }
-  Symbol get(String key) { return _symbols.get(key); }
-  
+  // by name, as printed and as IRGenerator names their addresses
+  List<Symbol> symbols() {
+    List<Symbol> result = new ArrayList<Symbol>(_size);
+    if (null != _symbols)
+      for (Symbol s : _symbols)
+        if (null != s)
+          result.add(s);
+    Collections.sort(result, new Comparator<Symbol>() {
+      public int compare(Symbol a, Symbol b) {
+        return a.name().compareTo(b.name());
+      }
+    });
+    return result;
+  }
+
   PrintWriter print(PrintWriter w, int indent) {
     for (int i=0; i<indent; i++)
       w.print("  ");
@@ -186,7 +265,7 @@ class Scope implements Comparable<Scope> {
     }
     w.print("symbols (");
     boolean first = true;
-    for (Symbol s : _symbols.values()) {
+    for (Symbol s : symbols()) {
       if (first) first = false;
       else w.print(", ");
       w.print(s.name());
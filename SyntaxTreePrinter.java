@@ -205,7 +205,10 @@ class SyntaxTreePrinter extends Visitor {
     return end(ast);
   }
   Object visit(CallExprTail ast) {
-    return begin(ast).p(ast._actuals).p(ast._tail).end(ast);
+    begin(ast);
+    for (Expr e : ast._actuals)
+      p(e);
+    return p(ast._tail).end(ast);
   }
 
   Object visit(CastExpr ast) {
@@ -0,0 +1,79 @@
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// what one compilation produced; _ir is null unless it was asked for, and
+// _asm is empty unless _status is 0
+class CompileResult {
+  final int _status;
+  final List<String> _diagnostics;
+  final String _ir;
+  final byte[] _asm;
+  final PhaseTimer _timer;
+  CompileResult(int status, List<String> diagnostics, String ir, byte[] asm,
+                PhaseTimer timer) {
+    _status = status;
+    _diagnostics = diagnostics;
+    _ir = ir;
+    _asm = asm;
+    _timer = timer;
+  }
+  boolean ok() { return 0 == _status; }
+  String asm() { return new String(_asm, StandardCharsets.UTF_8); }
+}
+
+// the compiler for hosts that keep running, e.g. a build service: nothing
+// goes to System.out or System.err, nothing calls System.exit, and every
+// compilation has its own state, so one instance may serve many threads
+class TackCompiler {
+  final CompileOptions _options;
+  final boolean _emitIR;
+
+  TackCompiler() { this(new CompileOptions(), false); }
+  TackCompiler(CompileOptions options, boolean emitIR) {
+    _options = options;
+    _emitIR = emitIR;
+  }
+
+  CompileResult compile(String fileName, String source) throws IOException {
+    return compile(fileName, new StringReader(source));
+  }
+
+  CompileResult compile(String fileName, Reader source) throws IOException {
+    ByteArrayOutputStream err = new ByteArrayOutputStream();
+    PrintStream errStream = new PrintStream(err, true, "UTF-8");
+    Emitter out = new Emitter();
+    StringWriter ir = _emitIR ? new StringWriter() : null;
+    PhaseTimer timer = new PhaseTimer(fileName);
+    int status;
+    try {
+      status = Main.compile(fileName, source, out,
+                            new ErrorPrinter(errStream, false), timer,
+                            _options, null == ir ? null : new PrintWriter(ir));
+    } catch (CompileAbort e) {
+      status = e._status;
+    }
+    errStream.flush();
+    List<String> diagnostics = new ArrayList<String>();
+    String text = new String(err.toByteArray(), StandardCharsets.UTF_8);
+    for (int start=0, end; start < text.length(); start = end + 1) {
+      end = text.indexOf('\n', start);
+      if (-1 == end)
+        end = text.length();
+      diagnostics.add(text.substring(start, end));
+    }
+    return new CompileResult(status,
+                             Collections.unmodifiableList(diagnostics),
+                             null == ir || 0 != status ? null : ir.toString(),
+                             0 == status ? out.toByteArray() : new byte[0],
+                             timer);
+  }
+}
@@ -0,0 +1,208 @@
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+// scans a whole source up front into parallel arrays, one entry per token;
+// a token's position is its start offset, see LineTable
+class TackLexer {
+  static final int EOF = 0, ID = 1, INT_LIT = 2, STRING_LIT = 3, ERROR = 4;
+  // keywords
+  static final int BOOL = 5, ELSE = 6, FALSE = 7, FOR = 8, FUN = 9, IF = 10,
+    IN = 11, INT = 12, NULL = 13, STRING = 14, TRUE = 15, TYPE = 16,
+    VOID = 17, WHILE = 18;
+  // punctuation
+  static final int ARROW = 19, DOT = 20, COLON = 21, COLONEQ = 22,
+    COMMA = 23, EQ = 24, SEMI = 25, LBRACKET = 26, RBRACKET = 27,
+    LCURLY = 28, RCURLY = 29, LPAREN = 30, RPAREN = 31;
+  // operators
+  static final int OR = 32, AND = 33, EQEQ = 34, NE = 35, LE = 36, LT = 37,
+    GE = 38, GT = 39, PLUS = 40, MINUS = 41, TIMES = 42, DIV = 43, MOD = 44,
+    NOT = 45;
+  static final String[] TEXT = {
+    "end of file", "identifier", "integer", "string", "bad character",
+    "bool", "else", "false", "for", "fun", "if", "in", "int", "null",
+    "string", "true", "type", "void", "while",
+    "->", ".", ":", ":=", ",", "=", ";", "[", "]", "{", "}", "(", ")",
+    "||", "&&", "==", "!=", "<=", "<", ">=", ">", "+", "-", "*", "/", "%", "!"
+  };
+
+  // character classes of 7-bit characters; anything else is OTHER
+  static final byte OTHER = 0, SPACE = 1, TAB = 2, CR = 3, LF = 4,
+    LETTER = 5, DIGIT = 6, PUNCT = 7, QUOTE = 8, HASH = 9;
+  static final byte[] CLASS = new byte[128];
+  // the token of each single-character punctuator, or of the first
+  // character of a two-character one
+  static final byte[] SINGLE = new byte[128];
+  static {
+    CLASS[' '] = SPACE;
+    CLASS['\f'] = SPACE;
+    CLASS['\t'] = TAB;
+    CLASS['\r'] = CR;
+    CLASS['\n'] = LF;
+    for (char c='a'; c<='z'; c++)
+      CLASS[c] = LETTER;
+    for (char c='A'; c<='Z'; c++)
+      CLASS[c] = LETTER;
+    CLASS['_'] = LETTER;
+    for (char c='0'; c<='9'; c++)
+      CLASS[c] = DIGIT;
+    CLASS['"'] = QUOTE;
+    CLASS['#'] = HASH;
+    String punct = ".:,=;[]{}()|&<>+-*/%!";
+    int[] kinds = { DOT, COLON, COMMA, EQ, SEMI, LBRACKET, RBRACKET, LCURLY,
+                    RCURLY, LPAREN, RPAREN, ERROR, ERROR, LT, GT, PLUS, MINUS,
+                    TIMES, DIV, MOD, NOT };
+    for (int i=0; i<punct.length(); i++) {
+      CLASS[punct.charAt(i)] = PUNCT;
+      SINGLE[punct.charAt(i)] = (byte)kinds[i];
+    }
+  }
+
+  final char[] _text;
+  final int _length;
+  int _count;
+  int[] _kind, _start, _end;
+  private int _at;
+
+  TackLexer(char[] text, int length) {
+    _text = text;
+    _length = length;
+    int capacity = Math.max(16, length / 4);
+    _kind = new int[capacity];
+    _start = new int[capacity];
+    _end = new int[capacity];
+    _count = 0;
+    _at = 0;
+    scan();
+  }
+
+  // the whole input, in one array sized from the hint when there is one
+  static TackLexer of(Reader reader, int sizeHint) throws IOException {
+    char[] buf = new char[Math.max(16, sizeHint + 1)];
+    int n = 0;
+    for (int r; -1 != (r = reader.read(buf, n, buf.length - n)); ) {
+      n += r;
+      if (n == buf.length)
+        buf = Arrays.copyOf(buf, 2 * buf.length);
+    }
+    return new TackLexer(buf, n);
+  }
+
+  String text(int token) {
+    return new String(_text, _start[token], _end[token] - _start[token]);
+  }
+
+  private void add(int kind, int start) {
+    if (_count == _kind.length) {
+      int n = 2 * _count;
+      _kind = Arrays.copyOf(_kind, n);
+      _start = Arrays.copyOf(_start, n);
+      _end = Arrays.copyOf(_end, n);
+    }
+    _kind[_count] = kind;
+    _start[_count] = start;
+    _end[_count] = _at;
+    _count++;
+  }
+
+  private byte charClass(int at) {
+    char c = _text[at];
+    return c < 128 ? CLASS[c] : OTHER;
+  }
+
+  // stops after the end of file or the first bad character
+  private void scan() {
+    char[] t = _text;
+    int kind;
+    do {
+      // white space and comments
+      while (_at < _length) {
+        byte k = charClass(_at);
+        if (SPACE == k || TAB == k || CR == k || LF == k)
+          _at++;
+        else if (HASH == k)
+          while (_at < _length && '\n' != t[_at] && '\r' != t[_at])
+            _at++;
+        else
+          break;
+      }
+      int start = _at;
+      kind = _at == _length ? EOF : token();
+      add(kind, start);
+    } while (EOF != kind && ERROR != kind);
+  }
+
+  // the kind of the token at _at, which ends up after it
+  private int token() {
+    char[] t = _text;
+    int start = _at, kind;
+    switch (charClass(_at)) {
+    case LETTER:
+      do
+        _at++;
+      while (_at < _length
+             && (LETTER == charClass(_at) || DIGIT == charClass(_at)));
+      kind = keyword(start, _at);
+      break;
+    case DIGIT:
+      // as INT_LIT: a leading 0 is the whole literal
+      if ('0' != t[_at++])
+        while (_at < _length && DIGIT == charClass(_at))
+          _at++;
+      kind = INT_LIT;
+      break;
+    case QUOTE:
+      // may span lines
+      _at++;
+      while (_at < _length && '"' != t[_at]) {
+        if ('\\' == t[_at] && _at + 1 < _length)
+          _at++;
+        _at++;
+      }
+      if (_at == _length)
+        return ERROR;
+      _at++;
+      return STRING_LIT;
+    case PUNCT:
+      char c = t[_at++], d = _at < _length ? t[_at] : 0;
+      kind = SINGLE[c];
+      if ('-' == c && '>' == d) kind = ARROW;
+      else if (':' == c && '=' == d) kind = COLONEQ;
+      else if ('=' == c && '=' == d) kind = EQEQ;
+      else if ('!' == c && '=' == d) kind = NE;
+      else if ('<' == c && '=' == d) kind = LE;
+      else if ('>' == c && '=' == d) kind = GE;
+      else if ('|' == c && '|' == d) kind = OR;
+      else if ('&' == c && '&' == d) kind = AND;
+      if (SINGLE[c] != kind)
+        _at++;
+      break;
+    default:
+      return ERROR;
+    }
+    return kind;
+  }
+
+  private int keyword(int start, int end) {
+    int n = end - start;
+    if (n < 2 || 6 < n)
+      return ID;
+    switch (new String(_text, start, n)) {
+    case "bool": return BOOL;
+    case "else": return ELSE;
+    case "false": return FALSE;
+    case "for": return FOR;
+    case "fun": return FUN;
+    case "if": return IF;
+    case "in": return IN;
+    case "int": return INT;
+    case "null": return NULL;
+    case "string": return STRING;
+    case "true": return TRUE;
+    case "type": return TYPE;
+    case "void": return VOID;
+    case "while": return WHILE;
+    default: return ID;
+    }
+  }
+}
@@ -2,12 +2,26 @@ import java.util.*;
 
 //see aho_et_al_2007 Figure 5.13 (Page 321)
 class TreeNormalizer extends Visitor {
+  // the parser builds lists with loops, and so does this: no recursion per
+  // element, however long the list or infix chain
+  private <T extends AstNode> void normalize(List<T> asts) {
+    for (int i=0, n=asts.size(); i<n; i++) {
+      @SuppressWarnings("unchecked")
+        T ast = (T)asts.get(i).accept(this);
+      asts.set(i, ast);
+    }
+  }
+
   // ---------------- top-level ----------------
   Object visit(Program ast) {
-    @SuppressWarnings("unchecked")
-      List<FunDef> functions = (List<FunDef>)ast._raw.accept(this);
-    ast._functions = functions;
-    ast._raw = null;
+    if (null != ast._raw) {
+      @SuppressWarnings("unchecked")
+        List<FunDef> functions = (List<FunDef>)ast._raw.accept(this);
+      ast._functions = functions;
+      ast._raw = null;
+    } else {
+      normalize(ast._functions);
+    }
     return ast;
   }
 
@@ -27,11 +41,9 @@ class TreeNormalizer extends Visitor {
     return ast._tail.accept(this);
   }
   Object visit(FunDefListTail ast) {
-    if (null == ast._next)
-      return ast._inh;
-    ast._inh.add((FunDef)ast._next.accept(this));
-    ast._tail._inh = ast._inh;
-    return ast._tail.accept(this);
+    for (FunDefListTail t = ast; null != t._next; t = t._tail)
+      ast._inh.add((FunDef)t._next.accept(this));
+    return ast._inh;
   }
 
   // ---------------- types ----------------
@@ -59,11 +71,9 @@ class TreeNormalizer extends Visitor {
     return ast._tail.accept(this);
   }
   Object visit(FieldTypeListTail ast) {
-    if (null == ast._next)
-      return ast._inh;
-    ast._inh.add((FieldType)ast._next.accept(this));
-    ast._tail._inh = ast._inh;
-    return ast._tail.accept(this);
+    for (FieldTypeListTail t = ast; null != t._next; t = t._tail)
+      ast._inh.add((FieldType)t._next.accept(this));
+    return ast._inh;
   }
 
   Object visit(FieldType ast) {
@@ -96,10 +106,14 @@ class TreeNormalizer extends Visitor {
   }
 
   Object visit(BlockStmt ast) {
-    @SuppressWarnings("unchecked")
-      List<Stmt> stmts = (List<Stmt>)ast._raw.accept(this);
-    ast._stmts = stmts;
-    ast._raw = null;
+    if (null != ast._raw) {
+      @SuppressWarnings("unchecked")
+        List<Stmt> stmts = (List<Stmt>)ast._raw.accept(this);
+      ast._stmts = stmts;
+      ast._raw = null;
+    } else {
+      normalize(ast._stmts);
+    }
     return ast;
   }
 
@@ -144,11 +158,9 @@ class TreeNormalizer extends Visitor {
     return ast._tail.accept(this);
   }
   Object visit(StmtListTail ast) {
-    if (null == ast._next)
-      return ast._inh;
-    ast._inh.add((Stmt)ast._next.accept(this));
-    ast._tail._inh = ast._inh;
-    return ast._tail.accept(this);
+    for (StmtListTail t = ast; null != t._next; t = t._tail)
+      ast._inh.add((Stmt)t._next.accept(this));
+    return ast._inh;
   }
 
   // ---------------- expressions ----------------
@@ -157,16 +169,52 @@ class TreeNormalizer extends Visitor {
     return ast._tail.accept(this);
   }
   Object visit(InfixExprTail ast) {
-    if (null == ast._rhs)
-      return ast._inh;
-    Expr rhs = (Expr)ast._rhs.accept(this);
-    ast._tail._inh = new InfixExpr(ast._inh._loc, ast._op, ast._inh, rhs);
-    return ast._tail.accept(this);
+    Expr result = ast._inh;
+    for (InfixExprTail t = ast; null != t._rhs; t = t._tail) {
+      Expr rhs = (Expr)t._rhs.accept(this);
+      result = new InfixExpr(result._loc, t._op, result, rhs);
+    }
+    return result;
   }
 
   Object visit(PrefixExpr ast) {
-    ast._base = (Expr)ast._base.accept(this);
-    return ast;
+    return unary(ast);
+  }
+
+  // a run of prefix operators and parentheses nests as deep as it is long,
+  // and so do the infix and postfix heads without tails that the parser
+  // puts around every operand in between; the run is walked down in a loop
+  // and linked back up from a list
+  private Expr unary(Expr ast) {
+    List<Expr> run = new ArrayList<Expr>();
+    Expr e = ast;
+    while (true) {
+      if (e instanceof PrefixExpr) {
+        run.add(e);
+        e = ((PrefixExpr)e)._base;
+      } else if (e instanceof ParenExpr) {
+        run.add(e);
+        e = ((ParenExpr)e)._base;
+      } else if (e instanceof InfixExprHead
+                 && null == ((InfixExprHead)e)._tail._rhs) {
+        e = ((InfixExprHead)e)._lhs;
+      } else if (e instanceof PostfixExprHead && PostfixExprTail.class
+                 == ((PostfixExprHead)e)._tail.getClass()) {
+        e = ((PostfixExprHead)e)._base;
+      } else {
+        break;
+      }
+    }
+    Expr result = (Expr)e.accept(this);
+    for (int i=run.size() - 1; 0 <= i; i--) {
+      Expr x = run.get(i);
+      if (x instanceof PrefixExpr)
+        ((PrefixExpr)x)._base = result;
+      else
+        ((ParenExpr)x)._base = result;
+      result = x;
+    }
+    return result;
   }
 
   Object visit(PostfixExprHead ast) {
@@ -178,11 +226,13 @@ class TreeNormalizer extends Visitor {
     return ast._inh;
   }
   Object visit(CallExprTail ast) {
-    @SuppressWarnings("unchecked")
-      List<Expr> actuals = (List<Expr>)ast._actuals.accept(this);
+    List<Expr> actuals = ast._actuals;
+    normalize(actuals);
     Expr callee = ast._inh;
-    if (callee instanceof VarId)
-      callee = new FunId(callee._loc, ((VarId)callee)._id);
+    if (callee instanceof VarId) {
+      VarId var = (VarId)callee;
+      callee = new FunId(var._loc, var._id, var._key);
+    }
     ast._tail._inh = new CallExpr(callee._loc, callee, actuals);
     return ast._tail.accept(this);
   }
@@ -212,16 +262,13 @@ class TreeNormalizer extends Visitor {
     return ast._tail.accept(this);
   }
   Object visit(ExprListTail ast) {
-    if (null == ast._next)
-      return ast._inh;
-    ast._inh.add((Expr)ast._next.accept(this));
-    ast._tail._inh = ast._inh;
-    return ast._tail.accept(this);
+    for (ExprListTail t = ast; null != t._next; t = t._tail)
+      ast._inh.add((Expr)t._next.accept(this));
+    return ast._inh;
   }
 
   Object visit(ParenExpr ast) {
-    ast._base = (Expr)ast._base.accept(this);
-    return ast;
+    return unary(ast);
   }
 
   // ---------------- identifiers ----------------
@@ -239,18 +286,26 @@ class TreeNormalizer extends Visitor {
 
   // ---------------- literals ----------------
   Object visit(ArrayLit ast) {
-    @SuppressWarnings("unchecked")
-      List<Expr> elems = (List<Expr>)ast._raw.accept(this);
-    ast._elems = elems;
-    ast._raw = null;
+    if (null != ast._raw) {
+      @SuppressWarnings("unchecked")
+        List<Expr> elems = (List<Expr>)ast._raw.accept(this);
+      ast._elems = elems;
+      ast._raw = null;
+    } else {
+      normalize(ast._elems);
+    }
     return ast;
   }
 
   Object visit(RecordLit ast) {
-    @SuppressWarnings("unchecked")
-      List<FieldLit> fields = (List<FieldLit>)ast._raw.accept(this);
-    ast._fields = fields;
-    ast._raw = null;
+    if (null != ast._raw) {
+      @SuppressWarnings("unchecked")
+        List<FieldLit> fields = (List<FieldLit>)ast._raw.accept(this);
+      ast._fields = fields;
+      ast._raw = null;
+    } else {
+      normalize(ast._fields);
+    }
     return ast;
   }
 
@@ -263,11 +318,9 @@ class TreeNormalizer extends Visitor {
     return ast._tail.accept(this);
   }
   Object visit(FieldLitListTail ast) {
-    if (null == ast._next)
-      return ast._inh;
-    ast._inh.add((FieldLit)ast._next.accept(this));
-    ast._tail._inh = ast._inh;
-    return ast._tail.accept(this);
+    for (FieldLitListTail t = ast; null != t._next; t = t._tail)
+      ast._inh.add((FieldLit)t._next.accept(this));
+    return ast._inh;
   }
 
   Object visit(FieldLit ast) {
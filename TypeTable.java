@@ -0,0 +1,197 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// the structure of a type in terms of its canonical parts, so that hashing
+// and comparing it takes no recursion; also a relation between two types
+final class TypeShape {
+  static final int ARRAY = 1, RECORD = 2, FUN = 3;
+  static final int SUBTYPE = 4, CASTABLE = 5;
+  final int _kind;
+  final Type[] _parts;		// canonical
+  final int[] _keys;		// of the fields of a record, else null
+  final int _hash;
+  TypeShape(int kind, Type[] parts, int[] keys) {
+    _kind = kind;
+    _parts = parts;
+    _keys = keys;
+    int h = kind;
+    for (Type t : parts)
+      h = 31 * h + t._hash;
+    if (null != keys)
+      h = 31 * h + Arrays.hashCode(keys);
+    _hash = 0 == h ? 1 : h;
+  }
+  public int hashCode() { return _hash; }
+  public boolean equals(Object o) {
+    if (!(o instanceof TypeShape))
+      return false;
+    TypeShape s = (TypeShape)o;
+    if (_kind != s._kind || _hash != s._hash
+        || _parts.length != s._parts.length || !Arrays.equals(_keys, s._keys))
+      return false;
+    for (int i=0; i<_parts.length; i++)
+      if (_parts[i] != s._parts[i])
+        return false;
+    return true;
+  }
+}
+
+// one instance of every known type, so that equal types are the same
+// object; a canonical type t has t._canon == t, a nonzero _hash and its
+// _size, and the fields of a canonical record know their offsets; other
+// types remember their canonical instance in _canon once it is asked for.
+// Each compilation starts with the table of the intrinsics, like NameTable
+class TypeTable {
+  static {
+    for (Type t : new Type[] { PrimitiveType.BOOLT, PrimitiveType.INTT,
+                               PrimitiveType.STRINGT, PrimitiveType.VOIDT,
+                               SemanticAnalyzer.NULL_TYPE })
+      canonical(t, t.toString().hashCode(), 8);
+  }
+  final ConcurrentHashMap<TypeShape, Type> _types;
+  // what SemanticAnalyzer found out about pairs of canonical types
+  final ConcurrentHashMap<TypeShape, Boolean> _relations;
+  final LongAdder _lookups, _hits;
+
+  TypeTable() {
+    this(new ConcurrentHashMap<TypeShape, Type>());
+  }
+  TypeTable(TypeTable base) {
+    this(new ConcurrentHashMap<TypeShape, Type>(base._types));
+  }
+  private TypeTable(ConcurrentHashMap<TypeShape, Type> types) {
+    _types = types;
+    _relations = new ConcurrentHashMap<TypeShape, Boolean>();
+    _lookups = new LongAdder();
+    _hits = new LongAdder();
+  }
+
+  private static <T extends Type> T canonical(T t, int hash, int size) {
+    t._canon = t;
+    t._hash = 0 == hash ? 1 : hash;
+    t._size = size;
+    return t;
+  }
+
+  // null for null, and the type itself while any part of it is unknown
+  Type canon(Type t) {
+    if (null == t)
+      return null;
+    if (null != t._canon)
+      return t._canon;
+    Type result = null;
+    if (t instanceof PrimitiveType) {
+      String name = ((PrimitiveType)t)._name;
+      result = PrimitiveType.BOOL == name ? PrimitiveType.BOOLT
+        : PrimitiveType.INT == name ? PrimitiveType.INTT
+        : PrimitiveType.STRING == name ? PrimitiveType.STRINGT
+        : PrimitiveType.VOIDT;
+    } else if (t instanceof NullType) {
+      result = SemanticAnalyzer.NULL_TYPE;
+    } else if (t instanceof ArrayType) {
+      Type elem = canon(((ArrayType)t)._elem);
+      if (null != elem && elem == elem._canon)
+        result = array(elem);
+    } else if (t instanceof RecordType) {
+      result = record(((RecordType)t)._fields);
+    } else if (t instanceof FunType) {
+      FunType f = (FunType)t;
+      Type formals = canon(f._formals), returnType = canon(f._returnType);
+      if (null != formals && formals == formals._canon
+          && null != returnType && returnType == returnType._canon)
+        result = intern(new TypeShape(TypeShape.FUN,
+                                      new Type[] { formals, returnType },
+                                      null));
+    }
+    if (null == result)
+      return t;
+    t._canon = result;
+    return result;
+  }
+
+  // all of a function's signature, before its callers look at it from
+  // other threads
+  void signature(FunDef fun) {
+    canon(fun._type);
+    for (FieldType f : fun._type._formals._fields)
+      canon(f._type);
+  }
+
+  Type array(Type elem) {
+    return intern(new TypeShape(TypeShape.ARRAY, new Type[] { elem }, null));
+  }
+
+  private Type record(List<FieldType> fields) {
+    int n = fields.size();
+    Type[] parts = new Type[n];
+    int[] keys = new int[n];
+    for (int i=0; i<n; i++) {
+      FieldType f = fields.get(i);
+      parts[i] = canon(f._type);
+      if (null == parts[i] || parts[i] != parts[i]._canon)
+        return null;
+      keys[i] = f._field._key;
+    }
+    TypeShape shape = new TypeShape(TypeShape.RECORD, parts, keys);
+    Type result = _types.get(shape);
+    if (null != result)
+      return result;
+    List<FieldType> own = new ArrayList<FieldType>(n);
+    for (int i=0; i<n; i++) {
+      FieldId id = fields.get(i)._field;
+      FieldId field = new FieldId(LineTable.NONE, id._id, id._key);
+      field._offset = -8 * i;
+      own.add(new FieldType(LineTable.NONE, field, parts[i]));
+    }
+    RecordType record = new RecordType(LineTable.NONE, own);
+    record._heldScope = new Scope(record, null);
+    for (FieldType f : own)
+      if (!record._heldScope.contains(f._field._key))
+        record._heldScope.def(new FieldSym(record._heldScope, f));
+    return putIfAbsent(shape, canonical(record, shape._hash, 8));
+  }
+
+  private Type intern(TypeShape shape) {
+    Type result = _types.get(shape);
+    if (null != result)
+      return result;
+    Type t;
+    if (TypeShape.ARRAY == shape._kind)
+      t = canonical(new ArrayType(LineTable.NONE, shape._parts[0]),
+                    shape._hash, shape._parts[0]._size);
+    else
+      t = canonical(new FunType(LineTable.NONE, (RecordType)shape._parts[0],
+                                shape._parts[1]), shape._hash, 8);
+    return putIfAbsent(shape, t);
+  }
+
+  // ---------------- relations ----------------
+  // the key of a relation, null unless both types are canonical
+  TypeShape relation(int kind, Type t1, Type t2) {
+    if (t1 != t1._canon || t2 != t2._canon)
+      return null;
+    return new TypeShape(kind, new Type[] { t1, t2 }, null);
+  }
+
+  // null when not yet known
+  Boolean related(TypeShape relation) {
+    _lookups.increment();
+    Boolean result = _relations.get(relation);
+    if (null != result)
+      _hits.increment();
+    return result;
+  }
+
+  void relate(TypeShape relation, boolean holds) {
+    _relations.put(relation, holds);
+  }
+
+  // another thread may have made the same type in the meantime
+  private Type putIfAbsent(TypeShape shape, Type t) {
+    Type old = _types.putIfAbsent(shape, t);
+    return null == old ? t : old;
+  }
+}
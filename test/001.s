@@ -0,0 +1,22 @@
+.intel_syntax
+.section .rodata
+    main.S_0:
+        .string	"Hello, world!\n"
+.text
+        .global	main
+        .type	main,	@function
+    main:
+        push %rbp
+        mov %rbp, %rsp
+        mov %rdi, OFFSET FLAT:main.S_0
+        call print
+    L_main0:
+        mov %rax, 0
+        mov %rsp, %rbp
+        pop  %rbp
+        ret
+    L_main:
+        mov %rax, 0
+        mov %rsp, %rbp
+        pop  %rbp
+        ret
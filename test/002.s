@@ -0,0 +1,84 @@
+.intel_syntax
+.section .rodata
+    main.S_0:
+        .string	""
+    main.S_1:
+        .string	"hello"
+    main.S_2:
+        .string	"\"Hello\"\n"
+.text
+        .global	main
+        .type	main,	@function
+    main:
+        push %rbp
+        mov %rbp, %rsp
+        sub %rsp, 112
+        mov %r10, 1 /* true */
+        mov [%rbp-8], %r10
+    L_main0:
+        mov %r10, 0 /* false */
+        mov [%rbp-16], %r10
+    L_main1:
+        mov %r10, 0
+        mov [%rbp-24], %r10
+    L_main2:
+        mov %r10, 123
+        mov [%rbp-32], %r10
+    L_main3:
+        mov %r10, OFFSET FLAT:main.S_0
+        mov [%rbp-40], %r10
+    L_main4:
+        mov %r10, OFFSET FLAT:main.S_1
+        mov [%rbp-48], %r10
+    L_main5:
+        mov %r10, OFFSET FLAT:main.S_2
+        mov [%rbp-56], %r10
+    L_main6:
+        mov %rdi, [%rbp-8]
+        call int2string
+        mov [%rbp-64], %rax
+        mov %rdi, [%rbp-64]
+        call print
+    L_main7:
+        mov %rdi, [%rbp-16]
+        call int2string
+        mov [%rbp-72], %rax
+        mov %rdi, [%rbp-72]
+        call print
+    L_main8:
+        mov %rdi, [%rbp-24]
+        call int2string
+        mov [%rbp-80], %rax
+        mov %rdi, [%rbp-80]
+        call print
+    L_main9:
+        mov %rdi, [%rbp-32]
+        call int2string
+        mov [%rbp-88], %rax
+        mov %rdi, [%rbp-88]
+        call print
+    L_main10:
+        mov %rdi, [%rbp-40]
+        mov [%rbp-96], %rdi
+        mov %rdi, [%rbp-96]
+        call print
+    L_main11:
+        mov %rdi, [%rbp-48]
+        mov [%rbp-104], %rdi
+        mov %rdi, [%rbp-104]
+        call print
+    L_main12:
+        mov %rdi, [%rbp-56]
+        mov [%rbp-112], %rdi
+        mov %rdi, [%rbp-112]
+        call print
+    L_main13:
+        mov %rax, 0
+        mov %rsp, %rbp
+        pop  %rbp
+        ret
+    L_main:
+        mov %rax, 0
+        mov %rsp, %rbp
+        pop  %rbp
+        ret
@@ -0,0 +1,93 @@
+.intel_syntax
+.text
+        .global	main
+        .type	main,	@function
+    main:
+        push %rbp
+        mov %rbp, %rsp
+        sub %rsp, 144
+        mov %r10, 1
+        mov %r11, 1
+        add %r10, %r11
+        mov [%rbp-8], %r10
+        mov %r10, [%rbp-8]
+        mov [%rbp-16], %r10
+    L_main0:
+        mov %r10, 1
+        mov %r11, 1
+        sub %r10, %r11
+        mov [%rbp-24], %r10
+        mov %r10, [%rbp-24]
+        mov %r11, 1
+        sub %r10, %r11
+        mov [%rbp-32], %r10
+        mov %r10, [%rbp-32]
+        mov [%rbp-40], %r10
+    L_main1:
+        mov %r10, 3
+        mov %r11, 4
+        imul %r10, %r11
+        mov [%rbp-48], %r10
+        mov %r10, 2
+        mov %r11, [%rbp-48]
+        add %r10, %r11
+        mov [%rbp-56], %r10
+        mov %r10, [%rbp-56]
+        mov [%rbp-64], %r10
+    L_main2:
+        mov %r10, 1
+        mov %r11, 2
+        imul %r10, %r11
+        mov [%rbp-72], %r10
+        mov %r10, [%rbp-72]
+        mov %r11, 3
+        imul %r10, %r11
+        mov [%rbp-80], %r10
+        mov %r10, 4
+        mov %r11, 5
+        imul %r10, %r11
+        mov [%rbp-88], %r10
+        mov %r10, [%rbp-88]
+        mov %r11, 6
+        imul %r10, %r11
+        mov [%rbp-96], %r10
+        mov %r10, [%rbp-80]
+        mov %r11, [%rbp-96]
+        add %r10, %r11
+        mov [%rbp-104], %r10
+        mov %r10, [%rbp-104]
+        mov [%rbp-112], %r10
+    L_main3:
+        mov %rdi, [%rbp-16]
+        call int2string
+        mov [%rbp-120], %rax
+        mov %rdi, [%rbp-120]
+        call print
+    L_main4:
+        mov %rdi, [%rbp-40]
+        call int2string
+        mov [%rbp-128], %rax
+        mov %rdi, [%rbp-128]
+        call print
+    L_main5:
+        mov %rdi, [%rbp-64]
+        call int2string
+        mov [%rbp-136], %rax
+        mov %rdi, [%rbp-136]
+        call print
+    L_main6:
+        mov %rdi, [%rbp-112]
+        call int2string
+        mov [%rbp-144], %rax
+        mov %rdi, [%rbp-144]
+        call print
+    L_main7:
+        mov %rax, 0
+        mov %rsp, %rbp
+        pop  %rbp
+        ret
+    L_main:
+        mov %rax, 0
+        mov %rsp, %rbp
+        pop  %rbp
+        ret
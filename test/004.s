@@ -0,0 +1,172 @@
+.intel_syntax
+.section .rodata
+    main.S_0:
+        .string	"\n"
+    main.S_1:
+        .string	"\n"
+    main.S_2:
+        .string	"\n"
+    main.S_3:
+        .string	"\n"
+    main.S_4:
+        .string	"\n"
+.text
+        .global	main
+        .type	main,	@function
+    main:
+        push %rbp
+        mov %rbp, %rsp
+        sub %rsp, 192
+        mov %r10, 1
+        mov [%rbp-8], %r10
+    L_main0:
+        mov %r10, 1 /* true */
+        mov [%rbp-16], %r10
+        mov %r10, [%rbp-8]
+        mov %r11, 0
+        cmp %r10, %r11
+        jl L_main2
+        jmp L_main4
+    L_main4:
+        mov %r10, [%rbp-8]
+        mov %r11, 10
+        cmp %r10, %r11
+        jg L_main2
+        jmp L_main3
+    L_main3:
+        mov %r10, 0 /* false */
+        mov [%rbp-16], %r10
+    L_main2:
+        mov %r10, [%rbp-16]
+        mov [%rbp-24], %r10
+    L_main1:
+        mov %r10, 1 /* true */
+        mov [%rbp-32], %r10
+        mov %r10, [%rbp-8]
+        mov %r11, 0
+        cmp %r10, %r11
+        jge L_main8
+        jmp L_main7
+    L_main8:
+        mov %r10, [%rbp-8]
+        mov %r11, 10
+        cmp %r10, %r11
+        jle L_main6
+        jmp L_main7
+    L_main7:
+        mov %r10, 0 /* false */
+        mov [%rbp-32], %r10
+    L_main6:
+        mov %r10, [%rbp-32]
+        mov [%rbp-40], %r10
+    L_main5:
+        mov %r10, 1 /* true */
+        mov [%rbp-48], %r10
+        mov %r10, [%rbp-8]
+        mov %r11, 1
+        add %r10, %r11
+        mov [%rbp-56], %r10
+        mov %r10, 2
+        mov %r11, [%rbp-8]
+        imul %r10, %r11
+        mov [%rbp-64], %r10
+        mov %r10, [%rbp-64]
+        mov %r11, 1
+        sub %r10, %r11
+        mov [%rbp-72], %r10
+        mov %r10, [%rbp-56]
+        mov %r11, [%rbp-72]
+        cmp %r10, %r11
+        jl L_main12
+        jmp L_main11
+    L_main12:
+        mov %r10, [%rbp-8]
+        mov %r11, 9
+        cmp %r10, %r11
+        jne L_main10
+        jmp L_main11
+    L_main11:
+        mov %r10, 0 /* false */
+        mov [%rbp-48], %r10
+    L_main10:
+        mov %r10, [%rbp-48]
+        mov [%rbp-80], %r10
+    L_main9:
+        mov %rax, [%rbp-8]
+        mov %r10, 7
+        mov %rdx, %rax
+        sar %rdx, 63
+        idiv %r10
+        mov [%rbp-88], %rax
+        mov %rax, [%rbp-8]
+        mov %r10, 5
+        mov %rdx, %rax
+        sar %rdx, 63
+        idiv %r10
+        mov [%rbp-96], %rdx
+        mov %r10, [%rbp-88]
+        mov %r11, [%rbp-96]
+        add %r10, %r11
+        mov [%rbp-104], %r10
+        mov %r10, [%rbp-104]
+        mov [%rbp-112], %r10
+    L_main13:
+        mov %rdi, [%rbp-8]
+        call int2string
+        mov [%rbp-120], %rax
+        mov %rdi, [%rbp-120]
+        mov %rsi, OFFSET FLAT:main.S_0
+        call append
+        mov [%rbp-128], %rax
+        mov %rdi, [%rbp-128]
+        call print
+    L_main14:
+        mov %rdi, [%rbp-24]
+        call int2string
+        mov [%rbp-136], %rax
+        mov %rdi, [%rbp-136]
+        mov %rsi, OFFSET FLAT:main.S_1
+        call append
+        mov [%rbp-144], %rax
+        mov %rdi, [%rbp-144]
+        call print
+    L_main15:
+        mov %rdi, [%rbp-40]
+        call int2string
+        mov [%rbp-152], %rax
+        mov %rdi, [%rbp-152]
+        mov %rsi, OFFSET FLAT:main.S_2
+        call append
+        mov [%rbp-160], %rax
+        mov %rdi, [%rbp-160]
+        call print
+    L_main16:
+        mov %rdi, [%rbp-80]
+        call int2string
+        mov [%rbp-168], %rax
+        mov %rdi, [%rbp-168]
+        mov %rsi, OFFSET FLAT:main.S_3
+        call append
+        mov [%rbp-176], %rax
+        mov %rdi, [%rbp-176]
+        call print
+    L_main17:
+        mov %rdi, [%rbp-112]
+        call int2string
+        mov [%rbp-184], %rax
+        mov %rdi, [%rbp-184]
+        mov %rsi, OFFSET FLAT:main.S_4
+        call append
+        mov [%rbp-192], %rax
+        mov %rdi, [%rbp-192]
+        call print
+    L_main18:
+        mov %rax, 0
+        mov %rsp, %rbp
+        pop  %rbp
+        ret
+    L_main:
+        mov %rax, 0
+        mov %rsp, %rbp
+        pop  %rbp
+        ret
@@ -0,0 +1,177 @@
+.intel_syntax
+.section .rodata
+    main.S_0:
+        .string	"\n"
+    main.S_1:
+        .string	"\n"
+    main.S_2:
+        .string	"\n"
+    main.S_3:
+        .string	"\n"
+    main.S_4:
+        .string	"\n"
+    main.S_5:
+        .string	"\n"
+    main.S_6:
+        .string	"\n"
+.text
+        .global	main
+        .type	main,	@function
+    main:
+        push %rbp
+        mov %rbp, %rsp
+        sub %rsp, 216
+        mov %r10, 1
+        mov %r11, 2
+        add %r10, %r11
+        mov [%rbp-8], %r10
+        mov %r10, [%rbp-8]
+        mov [%rbp-16], %r10
+    L_main0:
+        mov %rdi, 8
+        mov %rsi, 2
+        call newArray
+        mov [%rbp-24], %rax
+        mov %r10, [%rbp-24]
+        mov %r10, [%r10+8]
+        mov %r11, 0
+        sal %r11, 3
+        add %r11, %r10
+        mov %rbx, 1
+        mov [%r11], %rbx
+        mov %r10, [%rbp-24]
+        mov %r10, [%r10+8]
+        mov %r11, 1
+        sal %r11, 3
+        add %r11, %r10
+        mov %rbx, 2
+        mov [%r11], %rbx
+        mov %r10, [%rbp-24]
+        mov [%rbp-32], %r10
+    L_main1:
+        mov %rdi, 8
+        call newRecord
+        mov [%rbp-40], %rax
+        mov %r10, [%rbp-40]
+        mov %r11, 1
+        add %r10, 0
+        mov [%r10], %r11
+        mov %r10, [%rbp-40]
+        mov %r11, 2
+        add %r10, -8
+        mov [%r10], %r11
+        mov %r10, [%rbp-40]
+        mov [%rbp-48], %r10
+    L_main2:
+        mov %r10, [%rbp-48]
+        mov [%rbp-56], %r10
+    L_main3:
+        mov %rdi, [%rbp-16]
+        call int2string
+        mov [%rbp-64], %rax
+        mov %rdi, [%rbp-64]
+        mov %rsi, OFFSET FLAT:main.S_0
+        call append
+        mov [%rbp-72], %rax
+        mov %rdi, [%rbp-72]
+        call print
+    L_main4:
+        mov %r10, [%rbp-32]
+        mov %r10, [%r10+8]
+        mov %r11, 0
+        sal %r11, 3
+        add %r11, %r10
+        mov %r11, [%r11]
+        mov [%rbp-80], %r11
+        mov %rdi, [%rbp-80]
+        call int2string
+        mov [%rbp-88], %rax
+        mov %rdi, [%rbp-88]
+        mov %rsi, OFFSET FLAT:main.S_1
+        call append
+        mov [%rbp-96], %rax
+        mov %rdi, [%rbp-96]
+        call print
+    L_main5:
+        mov %r10, [%rbp-32]
+        mov %r10, [%r10+8]
+        mov %r11, 1
+        sal %r11, 3
+        add %r11, %r10
+        mov %r11, [%r11]
+        mov [%rbp-104], %r11
+        mov %rdi, [%rbp-104]
+        call int2string
+        mov [%rbp-112], %rax
+        mov %rdi, [%rbp-112]
+        mov %rsi, OFFSET FLAT:main.S_2
+        call append
+        mov [%rbp-120], %rax
+        mov %rdi, [%rbp-120]
+        call print
+    L_main6:
+        mov %r10, [%rbp-48]
+        add %r10, 0
+        mov %r11, [%r10]
+        mov [%rbp-128], %r11
+        mov %rdi, [%rbp-128]
+        call int2string
+        mov [%rbp-136], %rax
+        mov %rdi, [%rbp-136]
+        mov %rsi, OFFSET FLAT:main.S_3
+        call append
+        mov [%rbp-144], %rax
+        mov %rdi, [%rbp-144]
+        call print
+    L_main7:
+        mov %r10, [%rbp-48]
+        add %r10, -8
+        mov %r11, [%r10]
+        mov [%rbp-152], %r11
+        mov %rdi, [%rbp-152]
+        call int2string
+        mov [%rbp-160], %rax
+        mov %rdi, [%rbp-160]
+        mov %rsi, OFFSET FLAT:main.S_4
+        call append
+        mov [%rbp-168], %rax
+        mov %rdi, [%rbp-168]
+        call print
+    L_main8:
+        mov %r10, [%rbp-56]
+        add %r10, 0
+        mov %r11, [%r10]
+        mov [%rbp-176], %r11
+        mov %rdi, [%rbp-176]
+        call int2string
+        mov [%rbp-184], %rax
+        mov %rdi, [%rbp-184]
+        mov %rsi, OFFSET FLAT:main.S_5
+        call append
+        mov [%rbp-192], %rax
+        mov %rdi, [%rbp-192]
+        call print
+    L_main9:
+        mov %r10, [%rbp-56]
+        add %r10, -8
+        mov %r11, [%r10]
+        mov [%rbp-200], %r11
+        mov %rdi, [%rbp-200]
+        call int2string
+        mov [%rbp-208], %rax
+        mov %rdi, [%rbp-208]
+        mov %rsi, OFFSET FLAT:main.S_6
+        call append
+        mov [%rbp-216], %rax
+        mov %rdi, [%rbp-216]
+        call print
+    L_main10:
+        mov %rax, 0
+        mov %rsp, %rbp
+        pop  %rbp
+        ret
+    L_main:
+        mov %rax, 0
+        mov %rsp, %rbp
+        pop  %rbp
+        ret
@@ -0,0 +1,91 @@
+.intel_syntax
+.section .rodata
+    main.S_0:
+        .string	"\n"
+    main.S_1:
+        .string	"\n"
+    main.S_2:
+        .string	"\n"
+    main.S_3:
+        .string	"\n"
+.text
+        .global	main
+        .type	main,	@function
+    main:
+        push %rbp
+        mov %rbp, %rsp
+        sub %rsp, 112
+        mov %r10, 1 /* true */
+        mov [%rbp-8], %r10
+    L_main0:
+        mov %r10, 1 /* true */
+        mov [%rbp-16], %r10
+        mov %r10, [%rbp-8]
+        cmp %r10, 1
+        je L_main3
+        jmp L_main2
+    L_main3:
+        mov %r10, 0 /* false */
+        mov [%rbp-16], %r10
+    L_main2:
+        mov %r10, [%rbp-16]
+        mov [%rbp-24], %r10
+    L_main1:
+        mov %r10, 1
+        mov [%rbp-32], %r10
+    L_main4:
+        mov %r10, [%rbp-32]
+        neg %r10
+        mov [%rbp-40], %r10
+        mov %r10, [%rbp-40]
+        mov [%rbp-48], %r10
+    L_main5:
+        mov %rdi, [%rbp-8]
+        call int2string
+        mov [%rbp-56], %rax
+        mov %rdi, [%rbp-56]
+        mov %rsi, OFFSET FLAT:main.S_0
+        call append
+        mov [%rbp-64], %rax
+        mov %rdi, [%rbp-64]
+        call print
+    L_main6:
+        mov %rdi, [%rbp-24]
+        call int2string
+        mov [%rbp-72], %rax
+        mov %rdi, [%rbp-72]
+        mov %rsi, OFFSET FLAT:main.S_1
+        call append
+        mov [%rbp-80], %rax
+        mov %rdi, [%rbp-80]
+        call print
+    L_main7:
+        mov %rdi, [%rbp-32]
+        call int2string
+        mov [%rbp-88], %rax
+        mov %rdi, [%rbp-88]
+        mov %rsi, OFFSET FLAT:main.S_2
+        call append
+        mov [%rbp-96], %rax
+        mov %rdi, [%rbp-96]
+        call print
+    L_main8:
+        mov %rdi, [%rbp-48]
+        call int2string
+        mov [%rbp-104], %rax
+        mov %rdi, [%rbp-104]
+        mov %rsi, OFFSET FLAT:main.S_3
+        call append
+        mov [%rbp-112], %rax
+        mov %rdi, [%rbp-112]
+        call print
+    L_main9:
+        mov %rax, 0
+        mov %rsp, %rbp
+        pop  %rbp
+        ret
+    L_main:
+        mov %rax, 0
+        mov %rsp, %rbp
+        pop  %rbp
+        ret
@@ -0,0 +1,372 @@
+.intel_syntax
+.section .rodata
+    main.S_0:
+        .string	"a"
+    main.S_1:
+        .string	"b"
+    main.S_2:
+        .string	"\n"
+    main.S_3:
+        .string	"\n"
+    main.S_4:
+        .string	"\n"
+    main.S_5:
+        .string	"\n"
+    main.S_6:
+        .string	"\n"
+    main.S_7:
+        .string	"\n"
+    main.S_8:
+        .string	"\n"
+    main.S_9:
+        .string	"\n"
+    main.S_10:
+        .string	"\n"
+    main.S_11:
+        .string	"\n"
+    main.S_12:
+        .string	"\n"
+    main.S_13:
+        .string	"\n"
+    main.S_14:
+        .string	"\n"
+.text
+        .global	main
+        .type	main,	@function
+    main:
+        push %rbp
+        mov %rbp, %rsp
+        sub %rsp, 472
+        mov %rdi, OFFSET FLAT:main.S_0
+        mov %rsi, OFFSET FLAT:main.S_1
+        call append
+        mov [%rbp-8], %rax
+        mov %rdi, [%rbp-8]
+        call length
+        mov [%rbp-16], %rax
+        mov %r10, [%rbp-16]
+        mov [%rbp-24], %r10
+    L_main0:
+        mov %rdi, 12
+        call int2string
+        mov [%rbp-32], %rax
+        mov %r10, [%rbp-32]
+        mov [%rbp-40], %r10
+    L_main1:
+        mov %rdi, 8
+        call newRecord
+        mov [%rbp-48], %rax
+        mov %r10, [%rbp-48]
+        mov %r11, 1
+        add %r10, 0
+        mov [%r10], %r11
+        mov %r10, [%rbp-48]
+        mov %r11, 2
+        add %r10, -8
+        mov [%r10], %r11
+        mov %r10, [%rbp-48]
+        mov [%rbp-56], %r10
+    L_main2:
+        mov %r10, [%rbp-56]
+        add %r10, 0
+        mov %r11, [%r10]
+        mov [%rbp-64], %r11
+        mov %r10, [%rbp-64]
+        mov [%rbp-72], %r10
+    L_main3:
+        mov %rdi, 8
+        mov %rsi, 2
+        call newArray
+        mov [%rbp-80], %rax
+        mov %r10, [%rbp-80]
+        mov %r10, [%r10+8]
+        mov %r11, 0
+        sal %r11, 3
+        add %r11, %r10
+        mov %rbx, 1
+        mov [%r11], %rbx
+        mov %r10, [%rbp-80]
+        mov %r10, [%r10+8]
+        mov %r11, 1
+        sal %r11, 3
+        add %r11, %r10
+        mov %rbx, 2
+        mov [%r11], %rbx
+        mov %r10, [%rbp-80]
+        mov [%rbp-88], %r10
+    L_main4:
+        mov %r10, [%rbp-88]
+        mov %r10, [%r10+8]
+        mov %r11, 0
+        sal %r11, 3
+        add %r11, %r10
+        mov %r11, [%r11]
+        mov [%rbp-96], %r11
+        mov %r10, [%rbp-96]
+        mov [%rbp-104], %r10
+    L_main5:
+        mov %rdi, 8
+        mov %rsi, 2
+        call newArray
+        mov [%rbp-112], %rax
+        mov %rdi, 8
+        call newRecord
+        mov [%rbp-120], %rax
+        mov %r10, [%rbp-120]
+        mov %r11, 1
+        add %r10, 0
+        mov [%r10], %r11
+        mov %r10, [%rbp-120]
+        mov %r11, 2
+        add %r10, -8
+        mov [%r10], %r11
+        mov %r10, [%rbp-112]
+        mov %r10, [%r10+8]
+        mov %r11, 0
+        sal %r11, 3
+        add %r11, %r10
+        mov %rbx, [%rbp-120]
+        mov [%r11], %rbx
+        mov %rdi, 8
+        call newRecord
+        mov [%rbp-128], %rax
+        mov %r10, [%rbp-128]
+        mov %r11, 3
+        add %r10, 0
+        mov [%r10], %r11
+        mov %r10, [%rbp-128]
+        mov %r11, 4
+        add %r10, -8
+        mov [%r10], %r11
+        mov %r10, [%rbp-112]
+        mov %r10, [%r10+8]
+        mov %r11, 1
+        sal %r11, 3
+        add %r11, %r10
+        mov %rbx, [%rbp-128]
+        mov [%r11], %rbx
+        mov %r10, [%rbp-112]
+        mov [%rbp-136], %r10
+    L_main6:
+        mov %r10, [%rbp-136]
+        mov %r10, [%r10+8]
+        mov %r11, 1
+        sal %r11, 3
+        add %r11, %r10
+        mov %r11, [%r11]
+        mov [%rbp-144], %r11
+        mov %r10, [%rbp-144]
+        add %r10, -8
+        mov %r11, [%r10]
+        mov [%rbp-152], %r11
+        mov %rdi, [%rbp-152]
+        call int2string
+        mov [%rbp-160], %rax
+        mov %rdi, [%rbp-160]
+        call length
+        mov [%rbp-168], %rax
+        mov %r10, [%rbp-168]
+        mov [%rbp-176], %r10
+    L_main7:
+        mov %rdi, [%rbp-176]
+        call int2string
+        mov [%rbp-184], %rax
+        mov %rdi, [%rbp-184]
+        mov %rsi, OFFSET FLAT:main.S_2
+        call append
+        mov [%rbp-192], %rax
+        mov %rdi, [%rbp-192]
+        call print
+    L_main8:
+        mov %rdi, [%rbp-24]
+        call int2string
+        mov [%rbp-200], %rax
+        mov %rdi, [%rbp-200]
+        mov %rsi, OFFSET FLAT:main.S_3
+        call append
+        mov [%rbp-208], %rax
+        mov %rdi, [%rbp-208]
+        call print
+    L_main9:
+        mov %rdi, [%rbp-40]
+        mov %rsi, OFFSET FLAT:main.S_4
+        call append
+        mov [%rbp-216], %rax
+        mov %rdi, [%rbp-216]
+        call print
+    L_main10:
+        mov %r10, [%rbp-56]
+        add %r10, 0
+        mov %r11, [%r10]
+        mov [%rbp-224], %r11
+        mov %rdi, [%rbp-224]
+        call int2string
+        mov [%rbp-232], %rax
+        mov %rdi, [%rbp-232]
+        mov %rsi, OFFSET FLAT:main.S_5
+        call append
+        mov [%rbp-240], %rax
+        mov %rdi, [%rbp-240]
+        call print
+    L_main11:
+        mov %r10, [%rbp-56]
+        add %r10, -8
+        mov %r11, [%r10]
+        mov [%rbp-248], %r11
+        mov %rdi, [%rbp-248]
+        call int2string
+        mov [%rbp-256], %rax
+        mov %rdi, [%rbp-256]
+        mov %rsi, OFFSET FLAT:main.S_6
+        call append
+        mov [%rbp-264], %rax
+        mov %rdi, [%rbp-264]
+        call print
+    L_main12:
+        mov %rdi, [%rbp-72]
+        call int2string
+        mov [%rbp-272], %rax
+        mov %rdi, [%rbp-272]
+        mov %rsi, OFFSET FLAT:main.S_7
+        call append
+        mov [%rbp-280], %rax
+        mov %rdi, [%rbp-280]
+        call print
+    L_main13:
+        mov %r10, [%rbp-88]
+        mov %r10, [%r10+8]
+        mov %r11, 0
+        sal %r11, 3
+        add %r11, %r10
+        mov %r11, [%r11]
+        mov [%rbp-288], %r11
+        mov %rdi, [%rbp-288]
+        call int2string
+        mov [%rbp-296], %rax
+        mov %rdi, [%rbp-296]
+        mov %rsi, OFFSET FLAT:main.S_8
+        call append
+        mov [%rbp-304], %rax
+        mov %rdi, [%rbp-304]
+        call print
+    L_main14:
+        mov %r10, [%rbp-88]
+        mov %r10, [%r10+8]
+        mov %r11, 1
+        sal %r11, 3
+        add %r11, %r10
+        mov %r11, [%r11]
+        mov [%rbp-312], %r11
+        mov %rdi, [%rbp-312]
+        call int2string
+        mov [%rbp-320], %rax
+        mov %rdi, [%rbp-320]
+        mov %rsi, OFFSET FLAT:main.S_9
+        call append
+        mov [%rbp-328], %rax
+        mov %rdi, [%rbp-328]
+        call print
+    L_main15:
+        mov %rdi, [%rbp-104]
+        call int2string
+        mov [%rbp-336], %rax
+        mov %rdi, [%rbp-336]
+        mov %rsi, OFFSET FLAT:main.S_10
+        call append
+        mov [%rbp-344], %rax
+        mov %rdi, [%rbp-344]
+        call print
+    L_main16:
+        mov %r10, [%rbp-136]
+        mov %r10, [%r10+8]
+        mov %r11, 0
+        sal %r11, 3
+        add %r11, %r10
+        mov %r11, [%r11]
+        mov [%rbp-352], %r11
+        mov %r10, [%rbp-352]
+        add %r10, 0
+        mov %r11, [%r10]
+        mov [%rbp-360], %r11
+        mov %rdi, [%rbp-360]
+        call int2string
+        mov [%rbp-368], %rax
+        mov %rdi, [%rbp-368]
+        mov %rsi, OFFSET FLAT:main.S_11
+        call append
+        mov [%rbp-376], %rax
+        mov %rdi, [%rbp-376]
+        call print
+    L_main17:
+        mov %r10, [%rbp-136]
+        mov %r10, [%r10+8]
+        mov %r11, 0
+        sal %r11, 3
+        add %r11, %r10
+        mov %r11, [%r11]
+        mov [%rbp-384], %r11
+        mov %r10, [%rbp-384]
+        add %r10, -8
+        mov %r11, [%r10]
+        mov [%rbp-392], %r11
+        mov %rdi, [%rbp-392]
+        call int2string
+        mov [%rbp-400], %rax
+        mov %rdi, [%rbp-400]
+        mov %rsi, OFFSET FLAT:main.S_12
+        call append
+        mov [%rbp-408], %rax
+        mov %rdi, [%rbp-408]
+        call print
+    L_main18:
+        mov %r10, [%rbp-136]
+        mov %r10, [%r10+8]
+        mov %r11, 1
+        sal %r11, 3
+        add %r11, %r10
+        mov %r11, [%r11]
+        mov [%rbp-416], %r11
+        mov %r10, [%rbp-416]
+        add %r10, 0
+        mov %r11, [%r10]
+        mov [%rbp-424], %r11
+        mov %rdi, [%rbp-424]
+        call int2string
+        mov [%rbp-432], %rax
+        mov %rdi, [%rbp-432]
+        mov %rsi, OFFSET FLAT:main.S_13
+        call append
+        mov [%rbp-440], %rax
+        mov %rdi, [%rbp-440]
+        call print
+    L_main19:
+        mov %r10, [%rbp-136]
+        mov %r10, [%r10+8]
+        mov %r11, 1
+        sal %r11, 3
+        add %r11, %r10
+        mov %r11, [%r11]
+        mov [%rbp-448], %r11
+        mov %r10, [%rbp-448]
+        add %r10, -8
+        mov %r11, [%r10]
+        mov [%rbp-456], %r11
+        mov %rdi, [%rbp-456]
+        call int2string
+        mov [%rbp-464], %rax
+        mov %rdi, [%rbp-464]
+        mov %rsi, OFFSET FLAT:main.S_14
+        call append
+        mov [%rbp-472], %rax
+        mov %rdi, [%rbp-472]
+        call print
+    L_main20:
+        mov %rax, 0
+        mov %rsp, %rbp
+        pop  %rbp
+        ret
+    L_main:
+        mov %rax, 0
+        mov %rsp, %rbp
+        pop  %rbp
+        ret
@@ -0,0 +1,126 @@
+.intel_syntax
+.section .rodata
+    main.S_0:
+        .string	"a\n"
+    main.S_1:
+        .string	"b\n"
+    main.S_2:
+        .string	"c\n"
+    main.S_3:
+        .string	"e"
+    main.S_4:
+        .string	"f"
+    main.S_5:
+        .string	"g"
+    main.S_6:
+        .string	"h\n"
+    main.S_7:
+        .string	"i\n"
+.text
+        .global	main
+        .type	main,	@function
+    main:
+        push %rbp
+        mov %rbp, %rsp
+        sub %rsp, 48
+        mov %r10, 1
+        mov [%rbp-8], %r10
+    L_main0:
+        mov %r10, [%rbp-8]
+        mov %r11, 1
+        add %r10, %r11
+        mov [%rbp-16], %r10
+        mov %r10, [%rbp-16]
+        mov [%rbp-8], %r10
+    L_main1:
+        jmp L_main3
+    L_main3:
+        mov %rdi, OFFSET FLAT:main.S_0
+        call print
+        jmp L_main2
+    L_main4:
+        mov %rdi, OFFSET FLAT:main.S_1
+        call print
+    L_main2:L_main8:
+        jmp L_main6
+    L_main7:
+        mov %rdi, OFFSET FLAT:main.S_2
+        call print
+        jmp L_main8
+    L_main6:
+        mov %rdi, 8
+        mov %rsi, 3
+        call newArray
+        mov [%rbp-24], %rax
+        mov %r10, [%rbp-24]
+        mov %r10, [%r10+8]
+        mov %r11, 0
+        sal %r11, 3
+        add %r11, %r10
+        mov %rbx, OFFSET FLAT:main.S_3
+        mov [%r11], %rbx
+        mov %r10, [%rbp-24]
+        mov %r10, [%r10+8]
+        mov %r11, 1
+        sal %r11, 3
+        add %r11, %r10
+        mov %rbx, OFFSET FLAT:main.S_4
+        mov [%r11], %rbx
+        mov %r10, [%rbp-24]
+        mov %r10, [%r10+8]
+        mov %r11, 2
+        sal %r11, 3
+        add %r11, %r10
+        mov %rbx, OFFSET FLAT:main.S_5
+        mov [%r11], %rbx
+        mov %rdi, [%rbp-24]
+        call size
+        mov [%rbp-32], %rax
+        mov %r10, 0
+        mov [%rbp-40], %r10
+    L_main9:
+        mov %r10, [%rbp-40]
+        mov %r11, [%rbp-32]
+        cmp %r10, %r11
+        jge L_main5
+        mov %r10, [%rbp-24]
+        mov %r10, [%r10+8]
+        mov %r11, [%rbp-40]
+        sal %r11, 3
+        add %r11, %r10
+        mov %r11, [%r11]
+        mov [%rbp-48], %r11
+        mov %rdi, [%rbp-48]
+        call print
+    L_main10:
+        mov %r10, [%rbp-40]
+        mov %r11, 1
+        add %r10, %r11
+        mov [%rbp-40], %r10
+        jmp L_main9
+    L_main5:L_main13:
+        jmp L_main12
+    L_main12:
+        mov %rdi, OFFSET FLAT:main.S_6
+        call print
+    L_main14:
+        jmp L_main15
+    L_main15:
+        mov %rdi, OFFSET FLAT:main.S_7
+        call print
+    L_main16:
+        mov %rax, 0
+        mov %rsp, %rbp
+        pop  %rbp
+        ret
+        jmp L_main13
+    L_main11:
+        mov %rax, 0
+        mov %rsp, %rbp
+        pop  %rbp
+        ret
+    L_main:
+        mov %rax, 0
+        mov %rsp, %rbp
+        pop  %rbp
+        ret
@@ -0,0 +1,64 @@
+.intel_syntax
+.section .rodata
+    main.S_0:
+        .string	"x"
+    main.S_1:
+        .string	", "
+    main.S_2:
+        .string	", "
+.text
+        .global	main
+        .type	main,	@function
+    main:
+        push %rbp
+        mov %rbp, %rsp
+        sub %rsp, 96
+        mov %rdi, 1
+        mov [%rbp-8], %rdi
+        mov %r10, [%rbp-8]
+        mov [%rbp-16], %r10
+    L_main0:
+        mov %rdi, OFFSET FLAT:main.S_0
+        mov [%rbp-24], %rdi
+        mov %r10, [%rbp-24]
+        mov [%rbp-32], %r10
+    L_main1:
+        mov %rdi, 1 /* true */
+        mov [%rbp-40], %rdi
+        mov %r10, [%rbp-40]
+        mov [%rbp-48], %r10
+    L_main2:
+        mov %rdi, [%rbp-16]
+        call int2string
+        mov [%rbp-56], %rax
+        mov %rdi, [%rbp-56]
+        mov %rsi, OFFSET FLAT:main.S_1
+        call append
+        mov [%rbp-64], %rax
+        mov %rdi, [%rbp-64]
+        mov %rsi, [%rbp-32]
+        call append
+        mov [%rbp-72], %rax
+        mov %rdi, [%rbp-72]
+        mov %rsi, OFFSET FLAT:main.S_2
+        call append
+        mov [%rbp-80], %rax
+        mov %rdi, [%rbp-48]
+        call int2string
+        mov [%rbp-88], %rax
+        mov %rdi, [%rbp-80]
+        mov %rsi, [%rbp-88]
+        call append
+        mov [%rbp-96], %rax
+        mov %rdi, [%rbp-96]
+        call print
+    L_main3:
+        mov %rax, 0
+        mov %rsp, %rbp
+        pop  %rbp
+        ret
+    L_main:
+        mov %rax, 0
+        mov %rsp, %rbp
+        pop  %rbp
+        ret
@@ -0,0 +1,351 @@
+.intel_syntax
+.section .rodata
+    main.S_0:
+        .string	"Y"
+    main.S_1:
+        .string	", "
+    main.S_2:
+        .string	", "
+    main.S_3:
+        .string	", "
+    main.S_4:
+        .string	"\n"
+    main.S_5:
+        .string	", "
+    main.S_6:
+        .string	", "
+    main.S_7:
+        .string	"\n"
+    main.S_8:
+        .string	", "
+    main.S_9:
+        .string	", "
+    main.S_10:
+        .string	"\n"
+.text
+        .global	main
+        .type	main,	@function
+    main:
+        push %rbp
+        mov %rbp, %rsp
+        sub %rsp, 464
+        mov %rdi, 8
+        mov %rsi, 2
+        call newArray
+        mov [%rbp-8], %rax
+        mov %r10, [%rbp-8]
+        mov %r10, [%r10+8]
+        mov %r11, 0
+        sal %r11, 3
+        add %r11, %r10
+        mov %rbx, 1
+        mov [%r11], %rbx
+        mov %r10, [%rbp-8]
+        mov %r10, [%r10+8]
+        mov %r11, 1
+        sal %r11, 3
+        add %r11, %r10
+        mov %rbx, 2
+        mov [%r11], %rbx
+        mov %rdi, [%rbp-8]
+        mov [%rbp-16], %rdi
+        mov %r10, [%rbp-16]
+        mov [%rbp-24], %r10
+    L_main0:
+        mov %rdi, 8
+        call newRecord
+        mov [%rbp-32], %rax
+        mov %r10, [%rbp-32]
+        mov %r11, 1
+        add %r10, 0
+        mov [%r10], %r11
+        mov %r10, [%rbp-32]
+        mov %r11, OFFSET FLAT:main.S_0
+        add %r10, -8
+        mov [%r10], %r11
+        mov %rdi, [%rbp-32]
+        mov [%rbp-40], %rdi
+        mov %r10, [%rbp-40]
+        mov [%rbp-48], %r10
+    L_main1:
+        mov %rdi, 8
+        call newRecord
+        mov [%rbp-56], %rax
+        mov %rdi, 8
+        mov %rsi, 3
+        call newArray
+        mov [%rbp-64], %rax
+        mov %r10, [%rbp-64]
+        mov %r10, [%r10+8]
+        mov %r11, 0
+        sal %r11, 3
+        add %r11, %r10
+        mov %rbx, 1
+        mov [%r11], %rbx
+        mov %r10, [%rbp-64]
+        mov %r10, [%r10+8]
+        mov %r11, 1
+        sal %r11, 3
+        add %r11, %r10
+        mov %rbx, 2
+        mov [%r11], %rbx
+        mov %r10, [%rbp-64]
+        mov %r10, [%r10+8]
+        mov %r11, 2
+        sal %r11, 3
+        add %r11, %r10
+        mov %rbx, 3
+        mov [%r11], %rbx
+        mov %r10, [%rbp-56]
+        mov %r11, [%rbp-64]
+        add %r10, 0
+        mov [%r10], %r11
+        mov %rdi, 8
+        call newRecord
+        mov [%rbp-72], %rax
+        mov %rdi, 8
+        mov %rsi, 2
+        call newArray
+        mov [%rbp-80], %rax
+        mov %r10, [%rbp-80]
+        mov %r10, [%r10+8]
+        mov %r11, 0
+        sal %r11, 3
+        add %r11, %r10
+        mov %rbx, 4
+        mov [%r11], %rbx
+        mov %r10, [%rbp-80]
+        mov %r10, [%r10+8]
+        mov %r11, 1
+        sal %r11, 3
+        add %r11, %r10
+        mov %rbx, 5
+        mov [%r11], %rbx
+        mov %r10, [%rbp-72]
+        mov %r11, [%rbp-80]
+        add %r10, 0
+        mov [%r10], %r11
+        mov %r10, [%rbp-72]
+        mov %r11, 6
+        add %r10, -8
+        mov [%r10], %r11
+        mov %r10, [%rbp-56]
+        mov %r11, [%rbp-72]
+        add %r10, -8
+        mov [%r10], %r11
+        mov %rdi, [%rbp-56]
+        mov [%rbp-88], %rdi
+        mov %r10, [%rbp-88]
+        mov [%rbp-96], %r10
+    L_main2:
+        mov %rdi, 0
+        mov [%rbp-104], %rdi
+        mov %r10, [%rbp-104]
+        mov [%rbp-112], %r10
+    L_main3:
+        mov %r10, [%rbp-24]
+        mov %r10, [%r10+8]
+        mov %r11, 0
+        sal %r11, 3
+        add %r11, %r10
+        mov %r11, [%r11]
+        mov [%rbp-120], %r11
+        mov %rdi, [%rbp-120]
+        call int2string
+        mov [%rbp-128], %rax
+        mov %rdi, [%rbp-128]
+        mov %rsi, OFFSET FLAT:main.S_1
+        call append
+        mov [%rbp-136], %rax
+        mov %r10, [%rbp-24]
+        mov %r10, [%r10+8]
+        mov %r11, 1
+        sal %r11, 3
+        add %r11, %r10
+        mov %r11, [%r11]
+        mov [%rbp-144], %r11
+        mov %rdi, [%rbp-144]
+        call int2string
+        mov [%rbp-152], %rax
+        mov %rdi, [%rbp-136]
+        mov %rsi, [%rbp-152]
+        call append
+        mov [%rbp-160], %rax
+        mov %rdi, [%rbp-160]
+        mov %rsi, OFFSET FLAT:main.S_2
+        call append
+        mov [%rbp-168], %rax
+        mov %r10, [%rbp-48]
+        add %r10, 0
+        mov %r11, [%r10]
+        mov [%rbp-176], %r11
+        mov %rdi, [%rbp-176]
+        call int2string
+        mov [%rbp-184], %rax
+        mov %rdi, [%rbp-168]
+        mov %rsi, [%rbp-184]
+        call append
+        mov [%rbp-192], %rax
+        mov %rdi, [%rbp-192]
+        mov %rsi, OFFSET FLAT:main.S_3
+        call append
+        mov [%rbp-200], %rax
+        mov %r10, [%rbp-48]
+        add %r10, -8
+        mov %r11, [%r10]
+        mov [%rbp-208], %r11
+        mov %rdi, [%rbp-200]
+        mov %rsi, [%rbp-208]
+        call append
+        mov [%rbp-216], %rax
+        mov %rdi, [%rbp-216]
+        mov %rsi, OFFSET FLAT:main.S_4
+        call append
+        mov [%rbp-224], %rax
+        mov %rdi, [%rbp-224]
+        call print
+    L_main4:
+        mov %r10, [%rbp-96]
+        add %r10, 0
+        mov %r11, [%r10]
+        mov [%rbp-232], %r11
+        mov %r10, [%rbp-232]
+        mov %r10, [%r10+8]
+        mov %r11, 0
+        sal %r11, 3
+        add %r11, %r10
+        mov %r11, [%r11]
+        mov [%rbp-240], %r11
+        mov %rdi, [%rbp-240]
+        call int2string
+        mov [%rbp-248], %rax
+        mov %rdi, [%rbp-248]
+        mov %rsi, OFFSET FLAT:main.S_5
+        call append
+        mov [%rbp-256], %rax
+        mov %r10, [%rbp-96]
+        add %r10, 0
+        mov %r11, [%r10]
+        mov [%rbp-264], %r11
+        mov %r10, [%rbp-264]
+        mov %r10, [%r10+8]
+        mov %r11, 1
+        sal %r11, 3
+        add %r11, %r10
+        mov %r11, [%r11]
+        mov [%rbp-272], %r11
+        mov %rdi, [%rbp-272]
+        call int2string
+        mov [%rbp-280], %rax
+        mov %rdi, [%rbp-256]
+        mov %rsi, [%rbp-280]
+        call append
+        mov [%rbp-288], %rax
+        mov %rdi, [%rbp-288]
+        mov %rsi, OFFSET FLAT:main.S_6
+        call append
+        mov [%rbp-296], %rax
+        mov %r10, [%rbp-96]
+        add %r10, 0
+        mov %r11, [%r10]
+        mov [%rbp-304], %r11
+        mov %r10, [%rbp-304]
+        mov %r10, [%r10+8]
+        mov %r11, 2
+        sal %r11, 3
+        add %r11, %r10
+        mov %r11, [%r11]
+        mov [%rbp-312], %r11
+        mov %rdi, [%rbp-312]
+        call int2string
+        mov [%rbp-320], %rax
+        mov %rdi, [%rbp-296]
+        mov %rsi, [%rbp-320]
+        call append
+        mov [%rbp-328], %rax
+        mov %rdi, [%rbp-328]
+        mov %rsi, OFFSET FLAT:main.S_7
+        call append
+        mov [%rbp-336], %rax
+        mov %rdi, [%rbp-336]
+        call print
+    L_main5:
+        mov %r10, [%rbp-96]
+        add %r10, -8
+        mov %r11, [%r10]
+        mov [%rbp-344], %r11
+        mov %r10, [%rbp-344]
+        add %r10, 0
+        mov %r11, [%r10]
+        mov [%rbp-352], %r11
+        mov %r10, [%rbp-352]
+        mov %r10, [%r10+8]
+        mov %r11, 0
+        sal %r11, 3
+        add %r11, %r10
+        mov %r11, [%r11]
+        mov [%rbp-360], %r11
+        mov %rdi, [%rbp-360]
+        call int2string
+        mov [%rbp-368], %rax
+        mov %rdi, [%rbp-368]
+        mov %rsi, OFFSET FLAT:main.S_8
+        call append
+        mov [%rbp-376], %rax
+        mov %r10, [%rbp-96]
+        add %r10, -8
+        mov %r11, [%r10]
+        mov [%rbp-384], %r11
+        mov %r10, [%rbp-384]
+        add %r10, 0
+        mov %r11, [%r10]
+        mov [%rbp-392], %r11
+        mov %r10, [%rbp-392]
+        mov %r10, [%r10+8]
+        mov %r11, 1
+        sal %r11, 3
+        add %r11, %r10
+        mov %r11, [%r11]
+        mov [%rbp-400], %r11
+        mov %rdi, [%rbp-400]
+        call int2string
+        mov [%rbp-408], %rax
+        mov %rdi, [%rbp-376]
+        mov %rsi, [%rbp-408]
+        call append
+        mov [%rbp-416], %rax
+        mov %rdi, [%rbp-416]
+        mov %rsi, OFFSET FLAT:main.S_9
+        call append
+        mov [%rbp-424], %rax
+        mov %r10, [%rbp-96]
+        add %r10, -8
+        mov %r11, [%r10]
+        mov [%rbp-432], %r11
+        mov %r10, [%rbp-432]
+        add %r10, -8
+        mov %r11, [%r10]
+        mov [%rbp-440], %r11
+        mov %rdi, [%rbp-440]
+        call int2string
+        mov [%rbp-448], %rax
+        mov %rdi, [%rbp-424]
+        mov %rsi, [%rbp-448]
+        call append
+        mov [%rbp-456], %rax
+        mov %rdi, [%rbp-456]
+        mov %rsi, OFFSET FLAT:main.S_10
+        call append
+        mov [%rbp-464], %rax
+        mov %rdi, [%rbp-464]
+        call print
+    L_main6:
+        mov %rax, 0
+        mov %rsp, %rbp
+        pop  %rbp
+        ret
+    L_main:
+        mov %rax, 0
+        mov %rsp, %rbp
+        pop  %rbp
+        ret
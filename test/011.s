@@ -0,0 +1,105 @@
+.intel_syntax
+.text
+        .global	ping
+        .type	ping,	@function
+    ping:
+        push %rbp
+        mov %rbp, %rsp
+        sub %rsp, 24
+        mov [%rbp-8], %rdi
+        mov %r10, [%rbp-8]
+        mov %r11, 0
+        cmp %r10, %r11
+        jg L_ping1
+        jmp L_ping0
+    L_ping1:
+        mov %r10, [%rbp-8]
+        mov %r11, 1
+        sub %r10, %r11
+        mov [%rbp-16], %r10
+        mov %rdi, [%rbp-16]
+        call pong
+        mov [%rbp-24], %rax
+        mov %rax, [%rbp-24]
+        mov %rsp, %rbp
+        pop  %rbp
+        ret
+    L_ping0:
+        mov %rax, 1
+        mov %rsp, %rbp
+        pop  %rbp
+        ret
+    L_ping:
+        mov %rax, 0
+        mov %rsp, %rbp
+        pop  %rbp
+        ret
+
+.text
+        .global	pong
+        .type	pong,	@function
+    pong:
+        push %rbp
+        mov %rbp, %rsp
+        sub %rsp, 24
+        mov [%rbp-8], %rdi
+        mov %r10, [%rbp-8]
+        mov %r11, 0
+        cmp %r10, %r11
+        jg L_pong1
+        jmp L_pong0
+    L_pong1:
+        mov %r10, [%rbp-8]
+        mov %r11, 1
+        sub %r10, %r11
+        mov [%rbp-16], %r10
+        mov %rdi, [%rbp-16]
+        call ping
+        mov [%rbp-24], %rax
+        mov %rax, [%rbp-24]
+        mov %rsp, %rbp
+        pop  %rbp
+        ret
+    L_pong0:
+        mov %rax, 0
+        mov %rsp, %rbp
+        pop  %rbp
+        ret
+    L_pong:
+        mov %rax, 0
+        mov %rsp, %rbp
+        pop  %rbp
+        ret
+
+.section .rodata
+    main.S_0:
+        .string	"\n"
+.text
+        .global	main
+        .type	main,	@function
+    main:
+        push %rbp
+        mov %rbp, %rsp
+        sub %rsp, 24
+        mov %rdi, 5
+        call ping
+        mov [%rbp-8], %rax
+        mov %rdi, [%rbp-8]
+        call int2string
+        mov [%rbp-16], %rax
+        mov %rdi, [%rbp-16]
+        mov %rsi, OFFSET FLAT:main.S_0
+        call append
+        mov [%rbp-24], %rax
+        mov %rdi, [%rbp-24]
+        call print
+    L_main0:
+        mov %rax, 0
+        mov %rsp, %rbp
+        pop  %rbp
+        ret
+    L_main:
+        mov %rax, 0
+        mov %rsp, %rbp
+        pop  %rbp
+        ret
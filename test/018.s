@@ -0,0 +1,142 @@
+.intel_syntax
+.text
+        .global	recursiveFactorial
+        .type	recursiveFactorial,	@function
+    recursiveFactorial:
+        push %rbp
+        mov %rbp, %rsp
+        sub %rsp, 32
+        mov [%rbp-8], %rdi
+        mov %r10, 1
+        mov %r11, [%rbp-8]
+        cmp %r10, %r11
+        jge L_recursiveFactorial1
+        jmp L_recursiveFactorial0
+    L_recursiveFactorial1:
+        mov %rax, 1
+        mov %rsp, %rbp
+        pop  %rbp
+        ret
+    L_recursiveFactorial0:
+        mov %r10, [%rbp-8]
+        mov %r11, 1
+        sub %r10, %r11
+        mov [%rbp-16], %r10
+        mov %rdi, [%rbp-16]
+        call recursiveFactorial
+        mov [%rbp-24], %rax
+        mov %r10, [%rbp-8]
+        mov %r11, [%rbp-24]
+        imul %r10, %r11
+        mov [%rbp-32], %r10
+        mov %rax, [%rbp-32]
+        mov %rsp, %rbp
+        pop  %rbp
+        ret
+    L_recursiveFactorial:
+        mov %rax, 0
+        mov %rsp, %rbp
+        pop  %rbp
+        ret
+
+.text
+        .global	iterativeFactorial
+        .type	iterativeFactorial,	@function
+    iterativeFactorial:
+        push %rbp
+        mov %rbp, %rsp
+        sub %rsp, 32
+        mov [%rbp-8], %rdi
+        mov %r10, 1
+        mov [%rbp-16], %r10
+    L_iterativeFactorial0:L_iterativeFactorial3:
+        mov %r10, 1
+        mov %r11, [%rbp-8]
+        cmp %r10, %r11
+        jle L_iterativeFactorial2
+        jmp L_iterativeFactorial1
+    L_iterativeFactorial2:
+        mov %r10, [%rbp-16]
+        mov %r11, [%rbp-8]
+        imul %r10, %r11
+        mov [%rbp-24], %r10
+        mov %r10, [%rbp-24]
+        mov [%rbp-16], %r10
+    L_iterativeFactorial4:
+        mov %r10, [%rbp-8]
+        mov %r11, 1
+        sub %r10, %r11
+        mov [%rbp-32], %r10
+        mov %r10, [%rbp-32]
+        mov [%rbp-8], %r10
+        jmp L_iterativeFactorial3
+    L_iterativeFactorial1:
+        mov %rax, [%rbp-16]
+        mov %rsp, %rbp
+        pop  %rbp
+        ret
+    L_iterativeFactorial:
+        mov %rax, 0
+        mov %rsp, %rbp
+        pop  %rbp
+        ret
+
+.section .rodata
+    main.S_0:
+        .string	"recursiveFactorial(5) == "
+    main.S_1:
+        .string	"\n"
+    main.S_2:
+        .string	"iterativeFactorial(5) == "
+    main.S_3:
+        .string	"\n"
+.text
+        .global	main
+        .type	main,	@function
+    main:
+        push %rbp
+        mov %rbp, %rsp
+        sub %rsp, 64
+        mov %rdi, 5
+        call recursiveFactorial
+        mov [%rbp-8], %rax
+        mov %rdi, [%rbp-8]
+        call int2string
+        mov [%rbp-16], %rax
+        mov %rdi, OFFSET FLAT:main.S_0
+        mov %rsi, [%rbp-16]
+        call append
+        mov [%rbp-24], %rax
+        mov %rdi, [%rbp-24]
+        mov %rsi, OFFSET FLAT:main.S_1
+        call append
+        mov [%rbp-32], %rax
+        mov %rdi, [%rbp-32]
+        call print
+    L_main0:
+        mov %rdi, 5
+        call iterativeFactorial
+        mov [%rbp-40], %rax
+        mov %rdi, [%rbp-40]
+        call int2string
+        mov [%rbp-48], %rax
+        mov %rdi, OFFSET FLAT:main.S_2
+        mov %rsi, [%rbp-48]
+        call append
+        mov [%rbp-56], %rax
+        mov %rdi, [%rbp-56]
+        mov %rsi, OFFSET FLAT:main.S_3
+        call append
+        mov [%rbp-64], %rax
+        mov %rdi, [%rbp-64]
+        call print
+    L_main1:
+        mov %rax, 0
+        mov %rsp, %rbp
+        pop  %rbp
+        ret
+    L_main:
+        mov %rax, 0
+        mov %rsp, %rbp
+        pop  %rbp
+        ret
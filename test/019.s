@@ -0,0 +1,231 @@
+.intel_syntax
+.text
+        .global	sort
+        .type	sort,	@function
+    sort:
+        push %rbp
+        mov %rbp, %rsp
+        sub %rsp, 144
+        mov [%rbp-8], %rdi
+        mov %rdi, [%rbp-8]
+        call size
+        mov [%rbp-16], %rax
+        mov %r10, [%rbp-16]
+        mov [%rbp-24], %r10
+    L_sort0:
+        mov %r10, [%rbp-24]
+        mov %r11, 1
+        sub %r10, %r11
+        mov [%rbp-32], %r10
+        mov %rdi, 0
+        mov %rsi, [%rbp-32]
+        call range
+        mov [%rbp-40], %rax
+        mov %rdi, [%rbp-40]
+        call size
+        mov [%rbp-48], %rax
+        mov %r10, 0
+        mov [%rbp-56], %r10
+    L_sort1:
+        mov %r10, [%rbp-56]
+        mov %r11, [%rbp-48]
+        cmp %r10, %r11
+        jge L_sort
+        mov %r10, [%rbp-40]
+        mov %r10, [%r10+8]
+        mov %r11, [%rbp-56]
+        sal %r11, 3
+        add %r11, %r10
+        mov %r11, [%r11]
+        mov [%rbp-64], %r11
+        mov %r10, [%rbp-64]
+        mov [%rbp-72], %r10
+    L_sort3:
+        mov %rdi, [%rbp-64]
+        mov %rsi, [%rbp-24]
+        call range
+        mov [%rbp-80], %rax
+        mov %rdi, [%rbp-80]
+        call size
+        mov [%rbp-88], %rax
+        mov %r10, 0
+        mov [%rbp-96], %r10
+    L_sort5:
+        mov %r10, [%rbp-96]
+        mov %r11, [%rbp-88]
+        cmp %r10, %r11
+        jge L_sort4
+        mov %r10, [%rbp-80]
+        mov %r10, [%r10+8]
+        mov %r11, [%rbp-96]
+        sal %r11, 3
+        add %r11, %r10
+        mov %r11, [%r11]
+        mov [%rbp-104], %r11
+        mov %r10, [%rbp-8]
+        mov %r10, [%r10+8]
+        mov %r11, [%rbp-104]
+        sal %r11, 3
+        add %r11, %r10
+        mov %r11, [%r11]
+        mov [%rbp-112], %r11
+        mov %r10, [%rbp-8]
+        mov %r10, [%r10+8]
+        mov %r11, [%rbp-72]
+        sal %r11, 3
+        add %r11, %r10
+        mov %r11, [%r11]
+        mov [%rbp-120], %r11
+        mov %r10, [%rbp-112]
+        mov %r11, [%rbp-120]
+        cmp %r10, %r11
+        jl L_sort7
+        jmp L_sort6
+    L_sort7:
+        mov %r10, [%rbp-104]
+        mov [%rbp-72], %r10
+    L_sort6:
+        mov %r10, [%rbp-96]
+        mov %r11, 1
+        add %r10, %r11
+        mov [%rbp-96], %r10
+        jmp L_sort5
+    L_sort4:
+        mov %r10, [%rbp-8]
+        mov %r10, [%r10+8]
+        mov %r11, [%rbp-72]
+        sal %r11, 3
+        add %r11, %r10
+        mov %r11, [%r11]
+        mov [%rbp-128], %r11
+        mov %r10, [%rbp-128]
+        mov [%rbp-136], %r10
+    L_sort8:
+        mov %r10, [%rbp-8]
+        mov %r10, [%r10+8]
+        mov %r11, [%rbp-64]
+        sal %r11, 3
+        add %r11, %r10
+        mov %r11, [%r11]
+        mov [%rbp-144], %r11
+        mov %r10, [%rbp-8]
+        mov %r10, [%r10+8]
+        mov %r11, [%rbp-72]
+        sal %r11, 3
+        add %r11, %r10
+        mov %rbx, [%rbp-144]
+        mov [%r11], %rbx
+    L_sort9:
+        mov %r10, [%rbp-8]
+        mov %r10, [%r10+8]
+        mov %r11, [%rbp-64]
+        sal %r11, 3
+        add %r11, %r10
+        mov %rbx, [%rbp-136]
+        mov [%r11], %rbx
+    L_sort2:
+        mov %r10, [%rbp-56]
+        mov %r11, 1
+        add %r10, %r11
+        mov [%rbp-56], %r10
+        jmp L_sort1
+    L_sort:
+        mov %rsp, %rbp
+        pop  %rbp
+        ret
+
+.section .rodata
+    main.S_0:
+        .string	" "
+    main.S_1:
+        .string	"\n"
+.text
+        .global	main
+        .type	main,	@function
+    main:
+        push %rbp
+        mov %rbp, %rsp
+        sub %rsp, 56
+        mov %rdi, 8
+        mov %rsi, 4
+        call newArray
+        mov [%rbp-8], %rax
+        mov %r10, [%rbp-8]
+        mov %r10, [%r10+8]
+        mov %r11, 0
+        sal %r11, 3
+        add %r11, %r10
+        mov %rbx, 2
+        mov [%r11], %rbx
+        mov %r10, [%rbp-8]
+        mov %r10, [%r10+8]
+        mov %r11, 1
+        sal %r11, 3
+        add %r11, %r10
+        mov %rbx, 0
+        mov [%r11], %rbx
+        mov %r10, [%rbp-8]
+        mov %r10, [%r10+8]
+        mov %r11, 2
+        sal %r11, 3
+        add %r11, %r10
+        mov %rbx, 1
+        mov [%r11], %rbx
+        mov %r10, [%rbp-8]
+        mov %r10, [%r10+8]
+        mov %r11, 3
+        sal %r11, 3
+        add %r11, %r10
+        mov %rbx, 2
+        mov [%r11], %rbx
+        mov %r10, [%rbp-8]
+        mov [%rbp-16], %r10
+    L_main0:
+        mov %rdi, [%rbp-16]
+        call sort
+    L_main1:
+        mov %rdi, [%rbp-16]
+        call size
+        mov [%rbp-24], %rax
+        mov %r10, 0
+        mov [%rbp-32], %r10
+    L_main3:
+        mov %r10, [%rbp-32]
+        mov %r11, [%rbp-24]
+        cmp %r10, %r11
+        jge L_main2
+        mov %r10, [%rbp-16]
+        mov %r10, [%r10+8]
+        mov %r11, [%rbp-32]
+        sal %r11, 3
+        add %r11, %r10
+        mov %r11, [%r11]
+        mov [%rbp-40], %r11
+        mov %rdi, [%rbp-40]
+        call int2string
+        mov [%rbp-48], %rax
+        mov %rdi, OFFSET FLAT:main.S_0
+        mov %rsi, [%rbp-48]
+        call append
+        mov [%rbp-56], %rax
+        mov %rdi, [%rbp-56]
+        call print
+    L_main4:
+        mov %r10, [%rbp-32]
+        mov %r11, 1
+        add %r10, %r11
+        mov [%rbp-32], %r10
+        jmp L_main3
+    L_main2:
+        mov %rdi, OFFSET FLAT:main.S_1
+        call print
+    L_main5:
+        mov %rax, 0
+        mov %rsp, %rbp
+        pop  %rbp
+        ret
+    L_main:
+        mov %rax, 0
+        mov %rsp, %rbp
+        pop  %rbp
+        ret
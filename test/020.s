@@ -0,0 +1,214 @@
+.intel_syntax
+.section .rodata
+    eval.S_0:
+        .string	"+"
+    eval.S_1:
+        .string	"-"
+.text
+        .global	eval
+        .type	eval,	@function
+    eval:
+        push %rbp
+        mov %rbp, %rsp
+        sub %rsp, 168
+        mov [%rbp-8], %rdi
+        mov %r10, [%rbp-8]
+        add %r10, 0
+        mov %r11, [%r10]
+        mov [%rbp-16], %r11
+        mov %rdi, OFFSET FLAT:eval.S_0
+        mov %rsi, [%rbp-16]
+        call stringEqual
+        mov [%rbp-24], %rax
+        mov %r10, [%rbp-24]
+        cmp %r10, 1
+        je L_eval1
+        jmp L_eval0
+    L_eval1:
+        mov %rdi, [%rbp-8]
+        mov [%rbp-32], %rdi
+        mov %r10, [%rbp-32]
+        mov [%rbp-40], %r10
+    L_eval2:
+        mov %r10, [%rbp-40]
+        add %r10, -8
+        mov %r11, [%r10]
+        mov [%rbp-48], %r11
+        mov %rdi, [%rbp-48]
+        call eval
+        mov [%rbp-56], %rax
+        mov %r10, [%rbp-40]
+        add %r10, -16
+        mov %r11, [%r10]
+        mov [%rbp-64], %r11
+        mov %rdi, [%rbp-64]
+        call eval
+        mov [%rbp-72], %rax
+        mov %r10, [%rbp-56]
+        mov %r11, [%rbp-72]
+        add %r10, %r11
+        mov [%rbp-80], %r10
+        mov %rax, [%rbp-80]
+        mov %rsp, %rbp
+        pop  %rbp
+        ret
+    L_eval0:
+        mov %r10, [%rbp-8]
+        add %r10, 0
+        mov %r11, [%r10]
+        mov [%rbp-88], %r11
+        mov %rdi, OFFSET FLAT:eval.S_1
+        mov %rsi, [%rbp-88]
+        call stringEqual
+        mov [%rbp-96], %rax
+        mov %r10, [%rbp-96]
+        cmp %r10, 1
+        je L_eval4
+        jmp L_eval3
+    L_eval4:
+        mov %rdi, [%rbp-8]
+        mov [%rbp-104], %rdi
+        mov %r10, [%rbp-104]
+        mov [%rbp-112], %r10
+    L_eval5:
+        mov %r10, [%rbp-112]
+        add %r10, -8
+        mov %r11, [%r10]
+        mov [%rbp-120], %r11
+        mov %rdi, [%rbp-120]
+        call eval
+        mov [%rbp-128], %rax
+        mov %r10, [%rbp-112]
+        add %r10, -16
+        mov %r11, [%r10]
+        mov [%rbp-136], %r11
+        mov %rdi, [%rbp-136]
+        call eval
+        mov [%rbp-144], %rax
+        mov %r10, [%rbp-128]
+        mov %r11, [%rbp-144]
+        sub %r10, %r11
+        mov [%rbp-152], %r10
+        mov %rax, [%rbp-152]
+        mov %rsp, %rbp
+        pop  %rbp
+        ret
+    L_eval3:
+        mov %r10, [%rbp-8]
+        add %r10, 0
+        mov %r11, [%r10]
+        mov [%rbp-160], %r11
+        mov %rdi, [%rbp-160]
+        call string2int
+        mov [%rbp-168], %rax
+        mov %rax, [%rbp-168]
+        mov %rsp, %rbp
+        pop  %rbp
+        ret
+    L_eval:
+        mov %rax, 0
+        mov %rsp, %rbp
+        pop  %rbp
+        ret
+
+.section .rodata
+    main.S_2:
+        .string	"+"
+    main.S_3:
+        .string	"-"
+    main.S_4:
+        .string	"5"
+    main.S_5:
+        .string	"3"
+    main.S_6:
+        .string	"2"
+    main.S_7:
+        .string	"\n"
+.text
+        .global	main
+        .type	main,	@function
+    main:
+        push %rbp
+        mov %rbp, %rsp
+        sub %rsp, 88
+        mov %rdi, 8
+        call newRecord
+        mov [%rbp-8], %rax
+        mov %r10, [%rbp-8]
+        mov %r11, OFFSET FLAT:main.S_2
+        add %r10, 0
+        mov [%r10], %r11
+        mov %rdi, 8
+        call newRecord
+        mov [%rbp-16], %rax
+        mov %r10, [%rbp-16]
+        mov %r11, OFFSET FLAT:main.S_3
+        add %r10, 0
+        mov [%r10], %r11
+        mov %rdi, 8
+        call newRecord
+        mov [%rbp-24], %rax
+        mov %r10, [%rbp-24]
+        mov %r11, OFFSET FLAT:main.S_4
+        add %r10, 0
+        mov [%r10], %r11
+        mov %r10, [%rbp-16]
+        mov %r11, [%rbp-24]
+        add %r10, -8
+        mov [%r10], %r11
+        mov %rdi, 8
+        call newRecord
+        mov [%rbp-32], %rax
+        mov %r10, [%rbp-32]
+        mov %r11, OFFSET FLAT:main.S_5
+        add %r10, 0
+        mov [%r10], %r11
+        mov %r10, [%rbp-16]
+        mov %r11, [%rbp-32]
+        add %r10, -16
+        mov [%r10], %r11
+        mov %r10, [%rbp-8]
+        mov %r11, [%rbp-16]
+        add %r10, -8
+        mov [%r10], %r11
+        mov %rdi, 8
+        call newRecord
+        mov [%rbp-40], %rax
+        mov %r10, [%rbp-40]
+        mov %r11, OFFSET FLAT:main.S_6
+        add %r10, 0
+        mov [%r10], %r11
+        mov %r10, [%rbp-8]
+        mov %r11, [%rbp-40]
+        add %r10, -16
+        mov [%r10], %r11
+        mov %r10, [%rbp-8]
+        mov [%rbp-48], %r10
+    L_main0:
+        mov %rdi, [%rbp-48]
+        mov [%rbp-56], %rdi
+        mov %rdi, [%rbp-56]
+        call eval
+        mov [%rbp-64], %rax
+        mov %r10, [%rbp-64]
+        mov [%rbp-72], %r10
+    L_main1:
+        mov %rdi, [%rbp-72]
+        call int2string
+        mov [%rbp-80], %rax
+        mov %rdi, [%rbp-80]
+        mov %rsi, OFFSET FLAT:main.S_7
+        call append
+        mov [%rbp-88], %rax
+        mov %rdi, [%rbp-88]
+        call print
+    L_main2:
+        mov %rax, 0
+        mov %rsp, %rbp
+        pop  %rbp
+        ret
+    L_main:
+        mov %rax, 0
+        mov %rsp, %rbp
+        pop  %rbp
+        ret
@@ -0,0 +1,155 @@
+.intel_syntax
+.text
+        .global	f
+        .type	f,	@function
+    f:
+        push %rbp
+        mov %rbp, %rsp
+        sub %rsp, 88
+        mov [%rbp-8], %rdi
+        mov [%rbp-16], %rsi
+        mov %r10, [%rbp-8]
+        mov %r11, [%rbp-16]
+        add %r10, %r11
+        mov [%rbp-24], %r10
+        mov %r10, [%rbp-24]
+        mov [%rbp-32], %r10
+    L_f0:
+        mov %rdi, 8
+        mov %rsi, 3
+        call newArray
+        mov [%rbp-40], %rax
+        mov %r10, [%rbp-40]
+        mov %r10, [%r10+8]
+        mov %r11, 0
+        sal %r11, 3
+        add %r11, %r10
+        mov %rbx, 1
+        mov [%r11], %rbx
+        mov %r10, [%rbp-40]
+        mov %r10, [%r10+8]
+        mov %r11, 1
+        sal %r11, 3
+        add %r11, %r10
+        mov %rbx, 2
+        mov [%r11], %rbx
+        mov %r10, [%rbp-40]
+        mov %r10, [%r10+8]
+        mov %r11, 2
+        sal %r11, 3
+        add %r11, %r10
+        mov %rbx, 3
+        mov [%r11], %rbx
+        mov %rdi, [%rbp-40]
+        call size
+        mov [%rbp-48], %rax
+        mov %r10, 0
+        mov [%rbp-56], %r10
+    L_f2:
+        mov %r10, [%rbp-56]
+        mov %r11, [%rbp-48]
+        cmp %r10, %r11
+        jge L_f1
+        mov %r10, [%rbp-40]
+        mov %r10, [%r10+8]
+        mov %r11, [%rbp-56]
+        sal %r11, 3
+        add %r11, %r10
+        mov %r11, [%r11]
+        mov [%rbp-64], %r11
+        mov %r10, [%rbp-32]
+        mov %r11, 10
+        add %r10, %r11
+        mov [%rbp-72], %r10
+        mov %r10, [%rbp-72]
+        mov [%rbp-32], %r10
+    L_f3:
+        mov %r10, [%rbp-56]
+        mov %r11, 1
+        add %r10, %r11
+        mov [%rbp-56], %r10
+        jmp L_f2
+    L_f1:
+        mov %r10, 0
+        mov [%rbp-80], %r10
+    L_f4:
+        mov %rdi, [%rbp-32]
+        call int2string
+        mov [%rbp-88], %rax
+        mov %rdi, [%rbp-88]
+        call print
+    L_f:
+        mov %rsp, %rbp
+        pop  %rbp
+        ret
+
+.section .rodata
+    main.S_0:
+        .string	"\n"
+    main.S_1:
+        .string	", "
+.text
+        .global	main
+        .type	main,	@function
+    main:
+        push %rbp
+        mov %rbp, %rsp
+        sub %rsp, 80
+        mov %rdi, 8
+        call newRecord
+        mov [%rbp-8], %rax
+        mov %r10, [%rbp-8]
+        mov %r11, 4
+        add %r10, 0
+        mov [%r10], %r11
+        mov %r10, [%rbp-8]
+        mov %r11, 5
+        add %r10, -8
+        mov [%r10], %r11
+        mov %rdi, [%rbp-8]
+        mov [%rbp-16], %rdi
+        mov %r10, [%rbp-16]
+        mov [%rbp-24], %r10
+    L_main0:
+        mov %rdi, 10
+        mov %rsi, 10
+        call f
+    L_main1:
+        mov %r10, [%rbp-24]
+        add %r10, 0
+        mov %r11, [%r10]
+        mov [%rbp-32], %r11
+        mov %rdi, [%rbp-32]
+        call int2string
+        mov [%rbp-40], %rax
+        mov %rdi, OFFSET FLAT:main.S_0
+        mov %rsi, [%rbp-40]
+        call append
+        mov [%rbp-48], %rax
+        mov %rdi, [%rbp-48]
+        mov %rsi, OFFSET FLAT:main.S_1
+        call append
+        mov [%rbp-56], %rax
+        mov %r10, [%rbp-24]
+        add %r10, -8
+        mov %r11, [%r10]
+        mov [%rbp-64], %r11
+        mov %rdi, [%rbp-64]
+        call int2string
+        mov [%rbp-72], %rax
+        mov %rdi, [%rbp-56]
+        mov %rsi, [%rbp-72]
+        call append
+        mov [%rbp-80], %rax
+        mov %rdi, [%rbp-80]
+        call print
+    L_main2:
+        mov %rax, 0
+        mov %rsp, %rbp
+        pop  %rbp
+        ret
+    L_main:
+        mov %rax, 0
+        mov %rsp, %rbp
+        pop  %rbp
+        ret